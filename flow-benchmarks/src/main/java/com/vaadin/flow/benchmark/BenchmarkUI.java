@@ -0,0 +1,140 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.ServletContext;
+
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.DefaultDeploymentConfiguration;
+import com.vaadin.flow.server.DependencyFilter;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinServlet;
+import com.vaadin.flow.server.VaadinServletService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.VaadinUriResolverFactory;
+import com.vaadin.flow.shared.VaadinUriResolver;
+
+/**
+ * A UI that is connected to a session and a service that don't need a servlet
+ * container, for use in benchmarks.
+ * <p>
+ * The session is locked by the thread that creates the UI, which is the same
+ * thread that runs the benchmark methods since JMH uses the same thread for
+ * the setup and the iterations of a benchmark.
+ *
+ * @author Vaadin Ltd
+ */
+public class BenchmarkUI extends UI {
+
+    private static class BenchmarkSession extends VaadinSession {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private BenchmarkSession(VaadinServletService service) {
+            super(service);
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+
+    /**
+     * Creates a new UI with its own session and service. The session is
+     * locked and set as the current session.
+     */
+    public BenchmarkUI() {
+        Properties initParameters = new Properties();
+        initParameters.setProperty("productionMode", "true");
+        DefaultDeploymentConfiguration configuration = new DefaultDeploymentConfiguration(
+                BenchmarkUI.class, initParameters, (path, predicate) -> {
+                    // No resources to scan
+                });
+
+        ServletContext context = Mockito.mock(ServletContext.class);
+        VaadinServletService service = new VaadinServletService(
+                new VaadinServlet() {
+                    @Override
+                    public ServletContext getServletContext() {
+                        return context;
+                    }
+                }, configuration) {
+            @Override
+            public Iterable<DependencyFilter> getDependencyFilters() {
+                return Collections.emptyList();
+            }
+        };
+
+        VaadinSession session = new BenchmarkSession(service);
+        session.lock();
+        session.setAttribute(VaadinUriResolverFactory.class,
+                createUriResolverFactory());
+        VaadinSession.setCurrent(session);
+
+        getInternals().setSession(session);
+        setCurrent(this);
+    }
+
+    private static VaadinUriResolverFactory createUriResolverFactory() {
+        VaadinUriResolver resolver = Mockito.mock(VaadinUriResolver.class);
+        Mockito.when(resolver.resolveVaadinUri(Mockito.anyString()))
+                .thenAnswer(invocation -> invocation.getArguments()[0]);
+        return request -> resolver;
+    }
+
+    @Override
+    protected void init(VaadinRequest request) {
+        // Nothing to initialize
+    }
+
+    /**
+     * Creates a <code>div</code> element with the given number of child
+     * elements, each having an attribute, a property and a text.
+     *
+     * @param childCount
+     *            the number of child elements
+     * @return the created element
+     */
+    public static Element createElementTree(int childCount) {
+        Element parent = new Element("div");
+        for (int i = 0; i < childCount; i++) {
+            Element child = new Element("span");
+            child.setAttribute("class", "item");
+            child.setProperty("index", i);
+            child.setText("Item " + i);
+            parent.appendChild(child);
+        }
+        return parent;
+    }
+
+    /**
+     * Discards all changes that have been made to the state tree of this UI
+     * so far.
+     */
+    public void clearChanges() {
+        getInternals().getStateTree().collectChanges(change -> {
+            // Discard
+        });
+    }
+}
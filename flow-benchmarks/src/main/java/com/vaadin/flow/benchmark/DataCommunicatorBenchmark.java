@@ -0,0 +1,119 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.data.provider.ArrayUpdater;
+import com.vaadin.flow.data.provider.ArrayUpdater.Update;
+import com.vaadin.flow.data.provider.DataCommunicator;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.StateTree;
+
+import elemental.json.JsonValue;
+
+/**
+ * Benchmarks for sending a page of items from an in-memory data provider
+ * through a {@link DataCommunicator}.
+ *
+ * @author Vaadin Ltd
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataCommunicatorBenchmark {
+
+    @Param({ "1000", "100000" })
+    private int itemCount;
+
+    @Param({ "50", "500" })
+    private int pageSize;
+
+    private DataCommunicator<String> dataCommunicator;
+
+    private StateTree stateTree;
+
+    private int lastUpdateId;
+
+    private int sentItemCount;
+
+    @Setup
+    public void setup() {
+        BenchmarkUI ui = new BenchmarkUI();
+        stateTree = ui.getInternals().getStateTree();
+
+        Element element = new Element("div");
+        ui.getElement().appendChild(element);
+
+        Update update = new Update() {
+            @Override
+            public void clear(int start, int length) {
+                // Nothing is cleared since the size doesn't change
+            }
+
+            @Override
+            public void set(int start, List<JsonValue> items) {
+                sentItemCount += items.size();
+            }
+
+            @Override
+            public void commit(int updateId) {
+                lastUpdateId = updateId;
+            }
+        };
+        ArrayUpdater arrayUpdater = sizeChange -> update;
+
+        dataCommunicator = new DataCommunicator<>(
+                (item, json) -> json.put("label", item), arrayUpdater,
+                data -> {
+                    // Items are not updated in these benchmarks
+                }, element.getNode());
+
+        List<String> items = IntStream.range(0, itemCount)
+                .mapToObj(i -> "Item " + i).collect(Collectors.toList());
+        dataCommunicator.setDataProvider(DataProvider.ofCollection(items),
+                null);
+        ui.clearChanges();
+    }
+
+    @Benchmark
+    public int flushPage() {
+        dataCommunicator.reset();
+        dataCommunicator.setRequestedRange(0, pageSize);
+        stateTree.runExecutionsBeforeClientResponse();
+        dataCommunicator.confirmUpdate(lastUpdateId);
+        return sentItemCount;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.JsonCodec;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for encoding values to JSON with {@link JsonCodec}.
+ *
+ * @author Vaadin Ltd
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonCodecBenchmark {
+
+    private Object[] values;
+
+    @Setup
+    public void setup() {
+        // Attached element for the type info encoding of element references
+        BenchmarkUI ui = new BenchmarkUI();
+        Element element = new Element("div");
+        ui.getElement().appendChild(element);
+
+        JsonObject json = Json.createObject();
+        json.put("name", "value");
+        json.put("number", 42);
+
+        values = new Object[] { "text", Integer.valueOf(42),
+                Double.valueOf(3.14), Boolean.TRUE, null, json, element };
+    }
+
+    @Benchmark
+    public void encodeWithTypeInfo(Blackhole blackhole) {
+        for (Object value : values) {
+            blackhole.consume(JsonCodec.encodeWithTypeInfo(value));
+        }
+    }
+
+    @Benchmark
+    public void encodeWithoutTypeInfo(Blackhole blackhole) {
+        // Elements can only be encoded with type info
+        for (int i = 0; i < values.length - 1; i++) {
+            blackhole.consume(JsonCodec.encodeWithoutTypeInfo(values[i]));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
+import com.vaadin.flow.internal.nodefeature.NodeFeatureRegistry;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.communication.ServerRpcHandler;
+import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for decoding and handling a message from the client containing
+ * property synchronizations and DOM events for a number of elements.
+ *
+ * @author Vaadin Ltd
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServerRpcHandlerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int elementCount;
+
+    private BenchmarkUI ui;
+
+    private VaadinRequest request;
+
+    private ServerRpcHandler rpcHandler;
+
+    private String message;
+
+    private int eventCount;
+
+    @Setup
+    public void setup() {
+        ui = new BenchmarkUI();
+        rpcHandler = new ServerRpcHandler();
+
+        request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getService())
+                .thenReturn(ui.getSession().getService());
+
+        Element parent = BenchmarkUI.createElementTree(elementCount);
+        ui.getElement().appendChild(parent);
+        List<Element> children = parent.getChildren()
+                .collect(Collectors.toList());
+        children.forEach(child -> {
+            child.addSynchronizedProperty("value");
+            child.addEventListener("click", event -> eventCount++);
+        });
+        ui.clearChanges();
+
+        message = createMessage(children);
+    }
+
+    private String createMessage(List<Element> elements) {
+        int propertyMapId = NodeFeatureRegistry
+                .getId(ElementPropertyMap.class);
+
+        JsonArray invocations = Json.createArray();
+        for (Element element : elements) {
+            int nodeId = element.getNode().getId();
+
+            JsonObject sync = Json.createObject();
+            sync.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_MAP_SYNC);
+            sync.put(JsonConstants.RPC_NODE, nodeId);
+            sync.put(JsonConstants.RPC_FEATURE, propertyMapId);
+            sync.put(JsonConstants.RPC_PROPERTY, "value");
+            sync.put(JsonConstants.RPC_PROPERTY_VALUE, "Value " + nodeId);
+            invocations.set(invocations.length(), sync);
+
+            JsonObject event = Json.createObject();
+            event.put(JsonConstants.RPC_TYPE, JsonConstants.RPC_TYPE_EVENT);
+            event.put(JsonConstants.RPC_NODE, nodeId);
+            event.put(JsonConstants.RPC_EVENT_TYPE, "click");
+            invocations.set(invocations.length(), event);
+        }
+
+        JsonObject json = Json.createObject();
+        json.put(ApplicationConstants.CSRF_TOKEN,
+                ui.getSession().getCsrfToken());
+        json.put(ApplicationConstants.SERVER_SYNC_ID, 0);
+        json.put(ApplicationConstants.CLIENT_TO_SERVER_ID, 0);
+        json.put(ApplicationConstants.RPC_INVOCATIONS, invocations);
+        return json.toJson();
+    }
+
+    @Benchmark
+    public int handleRpc()
+            throws IOException, InvalidUIDLSecurityKeyException {
+        // Make the message id of the same message valid again
+        ui.getInternals().setLastProcessedClientToServerId(-1);
+        rpcHandler.handleRpc(ui, new StringReader(message), request);
+        return eventCount;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.StateTree;
+
+/**
+ * Benchmarks for creating elements, attaching them to a UI and collecting the
+ * resulting changes from the state tree.
+ *
+ * @author Vaadin Ltd
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateTreeBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int elementCount;
+
+    private BenchmarkUI ui;
+
+    private StateTree stateTree;
+
+    private Element modifiedElements;
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        ui = new BenchmarkUI();
+        stateTree = ui.getInternals().getStateTree();
+
+        modifiedElements = BenchmarkUI.createElementTree(elementCount);
+        ui.getElement().appendChild(modifiedElements);
+        ui.clearChanges();
+    }
+
+    @Benchmark
+    public Element createElements() {
+        return BenchmarkUI.createElementTree(elementCount);
+    }
+
+    @Benchmark
+    public void attachAndDetachElements(Blackhole blackhole) {
+        Element element = BenchmarkUI.createElementTree(elementCount);
+        ui.getElement().appendChild(element);
+        stateTree.collectChanges(blackhole::consume);
+
+        element.removeFromParent();
+        stateTree.collectChanges(blackhole::consume);
+    }
+
+    @Benchmark
+    public void collectPropertyChanges(Blackhole blackhole) {
+        round++;
+        modifiedElements.getChildren().forEach(
+                child -> child.setProperty("value", round));
+        stateTree.collectChanges(blackhole::consume);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.communication.UidlWriter;
+
+import elemental.json.JsonObject;
+
+/**
+ * Benchmarks for creating the UIDL response for a round trip in which every
+ * element of a UI has been modified.
+ *
+ * @author Vaadin Ltd
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UidlWriterBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int elementCount;
+
+    private BenchmarkUI ui;
+
+    private Element elements;
+
+    private UidlWriter uidlWriter;
+
+    private int round;
+
+    @Setup
+    public void setup() {
+        ui = new BenchmarkUI();
+        uidlWriter = new UidlWriter();
+
+        elements = BenchmarkUI.createElementTree(elementCount);
+        ui.getElement().appendChild(elements);
+        ui.clearChanges();
+    }
+
+    @Benchmark
+    public JsonObject createUidl() {
+        modifyElements();
+        return uidlWriter.createUidl(ui, false);
+    }
+
+    @Benchmark
+    public StringWriter writeUidl() throws IOException {
+        modifyElements();
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, writer);
+        return writer;
+    }
+
+    private void modifyElements() {
+        round++;
+        elements.getChildren()
+                .forEach(child -> child.setText("Round " + round));
+    }
+}
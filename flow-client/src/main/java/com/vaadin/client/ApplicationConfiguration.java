@@ -37,6 +37,7 @@ public class ApplicationConfiguration {
     private int heartbeatInterval;
 
     private boolean productionMode;
+    private boolean binaryUidl;
     private String servletVersion;
     private String atmosphereVersion;
     private String atmosphereJSVersion;
@@ -310,4 +311,27 @@ public class ApplicationConfiguration {
         this.frontendRootUrl = frontendRootUrl;
     }
 
+    /**
+     * Checks whether UIDL responses should be requested using the binary
+     * encoding.
+     *
+     * @return {@code true} if binary UIDL responses are requested,
+     *         {@code false} otherwise
+     */
+    public boolean isBinaryUidl() {
+        return binaryUidl;
+    }
+
+    /**
+     * Sets whether UIDL responses should be requested using the binary
+     * encoding.
+     *
+     * @param binaryUidl
+     *            {@code true} to request binary UIDL responses, {@code false}
+     *            to request JSON responses
+     */
+    public void setBinaryUidl(boolean binaryUidl) {
+        this.binaryUidl = binaryUidl;
+    }
+
 }
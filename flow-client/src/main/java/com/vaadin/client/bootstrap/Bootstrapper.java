@@ -154,6 +154,8 @@ public class Bootstrapper implements EntryPoint {
 
         // Debug or production mode?
         conf.setProductionMode(!jsoConfiguration.getConfigBoolean("debug"));
+
+        conf.setBinaryUidl(jsoConfiguration.getConfigBoolean("binaryUidl"));
     }
 
     private static void doStartApplication(final String applicationId) {
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+import com.vaadin.client.Console;
+import com.vaadin.client.Profiler;
+import com.vaadin.client.ValueMap;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+/**
+ * Decodes UIDL messages sent by the server using the binary encoding described
+ * in {@link BinaryUidlConstants}.
+ * <p>
+ * The result of decoding a message is the same JavaScript object that parsing
+ * the JSON version of the message would produce, so it can be passed directly
+ * to {@link MessageHandler#handleMessage(ValueMap)}.
+ *
+ * @author Vaadin Ltd
+ */
+public final class BinaryUidlDecoder {
+
+    private BinaryUidlDecoder() {
+        // Only static helpers
+    }
+
+    /**
+     * Parses a response received from the server. Responses that are not
+     * binary encoded, such as critical notifications, are decoded as text and
+     * parsed as wrapped JSON.
+     *
+     * @param buffer
+     *            the response data
+     * @return a ValueMap, or <code>null</code> if the response could not be
+     *         parsed
+     */
+    public static ValueMap parse(ArrayBuffer buffer) {
+        if (buffer == null) {
+            return null;
+        }
+        if (!isBinaryMessage(buffer)) {
+            return MessageHandler.parseWrappedJson(decodeText(buffer));
+        }
+
+        final double start = Profiler.getRelativeTimeMillis();
+        try {
+            ValueMap json = decode(buffer);
+            Console.log("Binary UIDL decoding took "
+                    + Profiler.getRelativeTimeString(start) + "ms");
+            return json;
+        } catch (final Exception e) {
+            Console.error("Unable to decode binary UIDL of "
+                    + buffer.byteLength() + " bytes");
+            return null;
+        }
+    }
+
+    /**
+     * Decodes the given response data as UTF-8 text.
+     *
+     * @param buffer
+     *            the response data
+     * @return the response as text
+     */
+    public static native String decodeText(ArrayBuffer buffer)
+    /*-{
+        var bytes = new Uint8Array(buffer);
+        return @com.vaadin.client.communication.BinaryUidlDecoder::decodeUtf8(*)(bytes, 0, bytes.length);
+    }-*/;
+
+    private static native boolean isBinaryMessage(ArrayBuffer buffer)
+    /*-{
+        return buffer.byteLength > 1 && new Uint8Array(buffer, 0, 1)[0]
+            == @com.vaadin.flow.shared.communication.BinaryUidlConstants::MAGIC;
+    }-*/;
+
+    private static native ValueMap decode(ArrayBuffer buffer)
+    /*-{
+        var TAG_NULL = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_NULL;
+        var TAG_FALSE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_FALSE;
+        var TAG_TRUE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_TRUE;
+        var TAG_INT = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_INT;
+        var TAG_DOUBLE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_DOUBLE;
+        var TAG_STRING = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_STRING;
+        var TAG_STRING_REF = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_STRING_REF;
+        var TAG_ARRAY = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_ARRAY;
+        var TAG_OBJECT = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_OBJECT;
+
+        var bytes = new Uint8Array(buffer);
+        var view = new DataView(buffer);
+        var strings = [];
+        var pos = 1;
+
+        if (bytes[pos++] != @com.vaadin.flow.shared.communication.BinaryUidlConstants::VERSION) {
+            throw new Error("Unsupported binary UIDL version " + bytes[1]);
+        }
+
+        // Multiplication instead of shifts to stay correct above 31 bits
+        var readVarInt = function() {
+            var result = 0;
+            var multiplier = 1;
+            var b;
+            do {
+                b = bytes[pos++];
+                result += (b & 0x7F) * multiplier;
+                multiplier *= 128;
+            } while (b & 0x80);
+            return result;
+        };
+
+        var readValue = function() {
+            var tag = bytes[pos++];
+            var i, length, value;
+            switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return false;
+            case TAG_TRUE:
+                return true;
+            case TAG_INT:
+                value = readVarInt();
+                return value % 2 ? -(value + 1) / 2 : value / 2;
+            case TAG_DOUBLE:
+                value = view.getFloat64(pos);
+                pos += 8;
+                return value;
+            case TAG_STRING:
+                length = readVarInt();
+                value = @com.vaadin.client.communication.BinaryUidlDecoder::decodeUtf8(*)(bytes, pos, length);
+                pos += length;
+                strings.push(value);
+                return value;
+            case TAG_STRING_REF:
+                return strings[readVarInt()];
+            case TAG_ARRAY:
+                length = readVarInt();
+                value = new Array(length);
+                for (i = 0; i < length; i++) {
+                    value[i] = readValue();
+                }
+                return value;
+            case TAG_OBJECT:
+                length = readVarInt();
+                value = {};
+                for (i = 0; i < length; i++) {
+                    var key = readValue();
+                    value[key] = readValue();
+                }
+                return value;
+            default:
+                throw new Error("Unknown binary UIDL tag " + tag + " at "
+                    + (pos - 1));
+            }
+        };
+
+        return readValue();
+    }-*/;
+
+    private static native String decodeUtf8(JavaScriptObject bytes,
+            int start, int length)
+    /*-{
+        if ($wnd.TextDecoder) {
+            return new $wnd.TextDecoder("utf-8")
+                .decode(bytes.subarray(start, start + length));
+        }
+
+        // Manual decoding for browsers without TextDecoder (IE11)
+        var end = start + length;
+        var codeUnits = [];
+        var i = start;
+        while (i < end) {
+            var c = bytes[i++];
+            if (c < 0x80) {
+                codeUnits.push(c);
+            } else if (c < 0xE0) {
+                codeUnits.push(((c & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else if (c < 0xF0) {
+                codeUnits.push(((c & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6)
+                    | (bytes[i++] & 0x3F));
+            } else {
+                var codePoint = (((c & 0x07) << 18) | ((bytes[i++] & 0x3F) << 12)
+                    | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F)) - 0x10000;
+                codeUnits.push(0xD800 + (codePoint >> 10),
+                    0xDC00 + (codePoint & 0x3FF));
+            }
+        }
+
+        // Avoid exceeding the maximum number of arguments of apply
+        var result = "";
+        for (var j = 0; j < codeUnits.length; j += 8192) {
+            result += String.fromCharCode.apply(null,
+                codeUnits.slice(j, j + 8192));
+        }
+        return result;
+    }-*/;
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+import elemental.json.JsonValue;
+
+/**
+ * Encodes messages sent to the server using the binary encoding described in
+ * {@link BinaryUidlConstants}.
+ * <p>
+ * The server decodes a message into the same JSON that it would get from
+ * parsing the result of <code>JSON.stringify</code> for the same value.
+ *
+ * @author Vaadin Ltd
+ */
+public final class BinaryUidlEncoder {
+
+    private BinaryUidlEncoder() {
+        // Only static helpers
+    }
+
+    /**
+     * Encodes the given value as a binary UIDL message.
+     *
+     * @param value
+     *            the value to encode, not <code>null</code>
+     * @return the encoded message
+     */
+    public static native ArrayBuffer encode(JsonValue value)
+    /*-{
+        var TAG_NULL = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_NULL;
+        var TAG_FALSE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_FALSE;
+        var TAG_TRUE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_TRUE;
+        var TAG_INT = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_INT;
+        var TAG_DOUBLE = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_DOUBLE;
+        var TAG_STRING = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_STRING;
+        var TAG_STRING_REF = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_STRING_REF;
+        var TAG_ARRAY = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_ARRAY;
+        var TAG_OBJECT = @com.vaadin.flow.shared.communication.BinaryUidlConstants::TAG_OBJECT;
+
+        var bytes = [];
+        var strings = Object.create(null);
+        var stringCount = 0;
+        var doubleView = new DataView(new ArrayBuffer(8));
+
+        // Unsigned, so that zigzag encoded values above 2^31 work
+        var writeVarInt = function(value) {
+            var remaining = value >>> 0;
+            while (remaining > 0x7F) {
+                bytes.push((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            bytes.push(remaining);
+        };
+
+        var writeString = function(string) {
+            var index = strings[string];
+            if (index !== undefined) {
+                bytes.push(TAG_STRING_REF);
+                writeVarInt(index);
+                return;
+            }
+            strings[string] = stringCount++;
+
+            var utf8 = @com.vaadin.client.communication.BinaryUidlEncoder::encodeUtf8(*)(string);
+            bytes.push(TAG_STRING);
+            writeVarInt(utf8.length);
+            for (var i = 0; i < utf8.length; i++) {
+                bytes.push(utf8[i]);
+            }
+        };
+
+        var writeValue = function(value) {
+            var i;
+            // Same as JSON.stringify for values that JSON can't represent
+            if (value === null || value === undefined
+                    || typeof value === "function"
+                    || (typeof value === "number" && !isFinite(value))) {
+                bytes.push(TAG_NULL);
+            } else if (typeof value === "boolean") {
+                bytes.push(value ? TAG_TRUE : TAG_FALSE);
+            } else if (typeof value === "number") {
+                if ((value | 0) === value && (value !== 0 || 1 / value > 0)) {
+                    bytes.push(TAG_INT);
+                    writeVarInt((value << 1) ^ (value >> 31));
+                } else {
+                    bytes.push(TAG_DOUBLE);
+                    doubleView.setFloat64(0, value);
+                    for (i = 0; i < 8; i++) {
+                        bytes.push(doubleView.getUint8(i));
+                    }
+                }
+            } else if (typeof value === "string") {
+                writeString(value);
+            } else if (Array.isArray(value)) {
+                bytes.push(TAG_ARRAY);
+                writeVarInt(value.length);
+                for (i = 0; i < value.length; i++) {
+                    writeValue(value[i]);
+                }
+            } else {
+                var keys = Object.keys(value).filter(function(key) {
+                    return value[key] !== undefined
+                        && typeof value[key] !== "function";
+                });
+                bytes.push(TAG_OBJECT);
+                writeVarInt(keys.length);
+                for (i = 0; i < keys.length; i++) {
+                    writeString(keys[i]);
+                    writeValue(value[keys[i]]);
+                }
+            }
+        };
+
+        bytes.push(@com.vaadin.flow.shared.communication.BinaryUidlConstants::MAGIC);
+        bytes.push(@com.vaadin.flow.shared.communication.BinaryUidlConstants::VERSION);
+        writeValue(value);
+
+        return new Uint8Array(bytes).buffer;
+    }-*/;
+
+    private static native JavaScriptObject encodeUtf8(String string)
+    /*-{
+        if ($wnd.TextEncoder) {
+            return new $wnd.TextEncoder().encode(string);
+        }
+
+        // Manual encoding for browsers without TextEncoder (IE11)
+        var bytes = [];
+        for (var i = 0; i < string.length; i++) {
+            var c = string.charCodeAt(i);
+            if (c >= 0xD800 && c < 0xDC00 && i + 1 < string.length) {
+                var low = string.charCodeAt(i + 1);
+                if (low >= 0xDC00 && low < 0xE000) {
+                    c = 0x10000 + ((c - 0xD800) << 10) + (low - 0xDC00);
+                    i++;
+                }
+            }
+            if (c < 0x80) {
+                bytes.push(c);
+            } else if (c < 0x800) {
+                bytes.push(0xC0 | (c >> 6), 0x80 | (c & 0x3F));
+            } else if (c < 0x10000) {
+                bytes.push(0xE0 | (c >> 12), 0x80 | ((c >> 6) & 0x3F),
+                    0x80 | (c & 0x3F));
+            } else {
+                bytes.push(0xF0 | (c >> 18), 0x80 | ((c >> 12) & 0x3F),
+                    0x80 | ((c >> 6) & 0x3F), 0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }-*/;
+}
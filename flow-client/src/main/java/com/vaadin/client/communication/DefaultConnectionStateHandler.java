@@ -393,7 +393,8 @@ public class DefaultConnectionStateHandler implements ConnectionStateHandler {
         debug("xhrInvalidContent");
         endRequest();
 
-        String responseText = xhrConnectionError.getXhr().getResponseText();
+        String responseText = XhrConnection
+                .getResponseText(xhrConnectionError.getXhr());
         /*
          * A servlet filter or equivalent may have intercepted the request and
          * served non-UIDL content (for instance, a login page if the session
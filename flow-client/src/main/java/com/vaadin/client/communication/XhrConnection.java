@@ -15,6 +15,7 @@
  */
 package com.vaadin.client.communication;
 
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
 import com.google.gwt.user.client.Timer;
 import com.google.gwt.xhr.client.XMLHttpRequest;
 import com.vaadin.client.BrowserInfo;
@@ -26,6 +27,7 @@ import com.vaadin.client.WidgetUtil;
 import com.vaadin.client.gwt.elemental.js.util.Xhr;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
 import com.vaadin.flow.shared.util.SharedUtil;
 
 import elemental.client.Browser;
@@ -117,6 +119,22 @@ public class XhrConnection {
             Console.log("Server visit took "
                     + Profiler.getRelativeTimeString(requestStartTime) + "ms");
 
+            if (isBinaryResponse(xhr)) {
+                ArrayBuffer response = xhr.getResponseArrayBuffer();
+                ValueMap json = BinaryUidlDecoder.parse(response);
+                if (json == null) {
+                    registry.getConnectionStateHandler().xhrInvalidContent(
+                            new XhrConnectionError(xhr, payload, null));
+                    return;
+                }
+
+                registry.getConnectionStateHandler().xhrOk();
+                Console.log("Received binary xhr message of "
+                        + response.byteLength() + " bytes");
+                registry.getMessageHandler().handleMessage(json);
+                return;
+            }
+
             // for(;;);["+ realJson +"]"
             String responseText = xhr.getResponseText();
 
@@ -158,8 +176,18 @@ public class XhrConnection {
         responseHandler.setRequestStartTime(Profiler.getRelativeTimeMillis());
 
         String payloadJson = WidgetUtil.stringify(payload);
-        XMLHttpRequest xhr = Xhr.post(getUri(), payloadJson,
-                JsonConstants.JSON_CONTENT_TYPE, responseHandler);
+        XMLHttpRequest xhr;
+        if (registry.getApplicationConfiguration().isBinaryUidl()) {
+            xhr = Xhr.postForArrayBuffer(getUri(),
+                    BinaryUidlEncoder.encode(payload),
+                    BinaryUidlConstants.BINARY_UIDL_CONTENT_TYPE,
+                    BinaryUidlConstants.BINARY_UIDL_CONTENT_TYPE + ", "
+                            + JsonConstants.JSON_CONTENT_TYPE,
+                    responseHandler);
+        } else {
+            xhr = Xhr.post(getUri(), payloadJson,
+                    JsonConstants.JSON_CONTENT_TYPE, responseHandler);
+        }
 
         Console.log("Sending xhr message to server: " + payloadJson);
 
@@ -178,6 +206,25 @@ public class XhrConnection {
         }
     }
 
+    /**
+     * Gets the response of the given request as text, regardless of whether
+     * the response was requested as text or as binary data.
+     *
+     * @param xhr
+     *            the request
+     * @return the response text
+     */
+    public static String getResponseText(XMLHttpRequest xhr) {
+        if (isBinaryResponse(xhr)) {
+            return BinaryUidlDecoder.decodeText(xhr.getResponseArrayBuffer());
+        }
+        return xhr.getResponseText();
+    }
+
+    private static boolean isBinaryResponse(XMLHttpRequest xhr) {
+        return "arraybuffer".equals(xhr.getResponseType());
+    }
+
     /**
      * Retrieves the URI to use when sending RPCs to the server
      *
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.flow.binding;
+
+import java.util.function.Consumer;
+
+import com.google.gwt.user.client.Timer;
+
+import elemental.json.JsonObject;
+
+/**
+ * Debounces or throttles the DOM events of one type that are sent to the
+ * server for an element and for the listeners with the same filter and rate
+ * limit.
+ * <p>
+ * A positive rate limit is a debounce timeout: the data of the latest event is
+ * sent once no new events have been fired during the timeout. A negative rate
+ * limit is a throttle period: the first event is sent immediately and the
+ * latest event fired during the period is sent at the end of the period.
+ *
+ * @author Vaadin Ltd
+ */
+class EventRateLimiter {
+    private final int rateLimit;
+    private final Consumer<JsonObject> sender;
+
+    private JsonObject pendingData;
+
+    private final Timer timer = new Timer() {
+        @Override
+        public void run() {
+            if (pendingData == null) {
+                return;
+            }
+            JsonObject eventData = pendingData;
+            pendingData = null;
+            if (rateLimit < 0) {
+                // Keep throttling events fired after the trailing send
+                schedule(-rateLimit);
+            }
+            sender.accept(eventData);
+        }
+    };
+
+    /**
+     * Creates a new rate limiter.
+     *
+     * @param rateLimit
+     *            the debounce timeout in milliseconds if positive, or the
+     *            negated throttle period in milliseconds if negative
+     * @param sender
+     *            the callback that sends event data to the server, not
+     *            <code>null</code>
+     */
+    EventRateLimiter(int rateLimit, Consumer<JsonObject> sender) {
+        assert rateLimit != 0;
+        assert sender != null;
+
+        this.rateLimit = rateLimit;
+        this.sender = sender;
+    }
+
+    /**
+     * Handles an event, sending its data now or later depending on the rate
+     * limit.
+     *
+     * @param eventData
+     *            the data of the event, not <code>null</code>
+     */
+    void handleEvent(JsonObject eventData) {
+        if (rateLimit > 0) {
+            pendingData = eventData;
+            timer.schedule(rateLimit);
+        } else if (timer.isRunning()) {
+            pendingData = eventData;
+        } else {
+            timer.schedule(-rateLimit);
+            sender.accept(eventData);
+        }
+    }
+
+    /**
+     * Discards any pending event without sending it.
+     */
+    void cancel() {
+        pendingData = null;
+        timer.cancel();
+    }
+}
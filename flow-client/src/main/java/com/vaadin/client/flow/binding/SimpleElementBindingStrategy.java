@@ -45,6 +45,7 @@ import com.vaadin.client.flow.reactive.Reactive;
 import com.vaadin.client.flow.util.NativeFunction;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.client.Browser;
 import elemental.css.CSSStyleDeclaration;
@@ -128,6 +129,8 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
                 .map();
         private final JsMap<String, EventRemover> listenerRemovers = JsCollections
                 .map();
+        private final JsMap<String, JsMap<String, EventRateLimiter>> rateLimiters = JsCollections
+                .map();
 
         private final JsSet<EventRemover> synchronizedPropertyEventListeners = JsCollections
                 .set();
@@ -1037,6 +1040,8 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
         context.listenerBindings.forEach(computationStopper);
 
         context.listenerRemovers.forEach((remover, name) -> remover.remove());
+        context.rateLimiters.forEach((limiters, name) -> limiters
+                .forEach((limiter, key) -> limiter.cancel()));
         listeners.forEach(EventRemover::remove);
         context.synchronizedPropertyEventListeners
                 .forEach(EventRemover::remove);
@@ -1082,13 +1087,20 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
 
         assert remover != null;
         remover.remove();
+
+        JsMap<String, EventRateLimiter> limiters = context.rateLimiters
+                .get(eventType);
+        if (limiters != null) {
+            limiters.forEach((limiter, key) -> limiter.cancel());
+            context.rateLimiters.delete(eventType);
+        }
     }
 
     private void addEventHandler(String eventType, BindingContext context) {
         assert !context.listenerRemovers.has(eventType);
 
         EventRemover remover = context.htmlNode.addEventListener(eventType,
-                event -> handleDomEvent(event, context.htmlNode, context.node),
+                event -> handleDomEvent(event, context),
                 false);
 
         context.listenerRemovers.set(eventType, remover);
@@ -1098,7 +1110,9 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
         return node.getMap(NodeFeatures.ELEMENT_LISTENERS);
     }
 
-    private void handleDomEvent(Event event, Node element, StateNode node) {
+    private void handleDomEvent(Event event, BindingContext context) {
+        Node element = context.htmlNode;
+        StateNode node = context.node;
         assert element instanceof Element : "Cannot handle DOM event for a Node";
         String type = event.getType();
 
@@ -1112,29 +1126,108 @@ public class SimpleElementBindingStrategy implements BindingStrategy<Element> {
 
         assert constantPool.has(expressionConstantKey);
 
-        JsArray<String> dataExpressions = constantPool
+        /*
+         * Strings are event data expressions. If any listener has a filter or
+         * a rate limit, there is also a [filter, rateLimit] array for each
+         * distinct combination.
+         */
+        JsArray<Object> listenerConfig = constantPool
                 .get(expressionConstantKey);
+        JsArray<JsArray<Object>> groups = JsCollections.array();
+
+        JsonObject eventData = null;
+        for (int i = 0; i < listenerConfig.length(); i++) {
+            Object item = listenerConfig.get(i);
+            String expressionString;
+            if (item instanceof String) {
+                expressionString = (String) item;
+            } else {
+                JsArray<Object> group = WidgetUtil.crazyJsCast(item);
+                groups.push(group);
+                expressionString = (String) group.get(0);
+                if (expressionString == null) {
+                    continue;
+                }
+            }
 
-        JsonObject eventData;
-        if (dataExpressions.isEmpty()) {
-            eventData = null;
-        } else {
-            eventData = Json.createObject();
+            if (eventData == null) {
+                eventData = Json.createObject();
+            }
 
-            for (int i = 0; i < dataExpressions.length(); i++) {
-                String expressionString = dataExpressions.get(i);
+            EventDataExpression expression = getOrCreateExpression(
+                    expressionString);
 
-                EventDataExpression expression = getOrCreateExpression(
-                        expressionString);
+            JsonValue expressionValue = expression.evaluate(event,
+                    (Element) element);
 
-                JsonValue expressionValue = expression.evaluate(event,
-                        (Element) element);
+            eventData.put(expressionString, expressionValue);
+        }
+
+        if (groups.isEmpty()) {
+            node.getTree().sendEventToServer(node, type, eventData);
+            return;
+        }
 
-                eventData.put(expressionString, expressionValue);
+        boolean sendNow = false;
+        for (int i = 0; i < groups.length(); i++) {
+            JsArray<Object> group = groups.get(i);
+            String filter = (String) group.get(0);
+            if (filter != null
+                    && !WidgetUtil.isTrueish(eventData.get(filter))) {
+                continue;
+            }
+
+            int rateLimit = ((Double) group.get(1)).intValue();
+            if (rateLimit == 0) {
+                sendNow = true;
+            } else {
+                getOrCreateRateLimiter(context, type, filter, rateLimit)
+                        .handleEvent(copyWithGroup(eventData, filter,
+                                rateLimit));
             }
         }
 
-        node.getTree().sendEventToServer(node, type, eventData);
+        if (sendNow) {
+            node.getTree().sendEventToServer(node, type, eventData);
+        }
+    }
+
+    private static EventRateLimiter getOrCreateRateLimiter(
+            BindingContext context, String type, String filter,
+            int rateLimit) {
+        JsMap<String, EventRateLimiter> limiters = context.rateLimiters
+                .get(type);
+        if (limiters == null) {
+            limiters = JsCollections.map();
+            context.rateLimiters.set(type, limiters);
+        }
+
+        // Listeners with different filters must not share pending events
+        String key = filter == null ? String.valueOf(rateLimit)
+                : rateLimit + " " + filter;
+        EventRateLimiter limiter = limiters.get(key);
+        if (limiter == null) {
+            StateNode node = context.node;
+            limiter = new EventRateLimiter(rateLimit,
+                    data -> node.getTree().sendEventToServer(node, type, data));
+            limiters.set(key, limiter);
+        }
+        return limiter;
+    }
+
+    private static JsonObject copyWithGroup(JsonObject eventData,
+            String filter, int rateLimit) {
+        JsonObject copy = Json.createObject();
+        if (eventData != null) {
+            for (String key : eventData.keys()) {
+                copy.put(key, (JsonValue) eventData.get(key));
+            }
+        }
+        JsonArray group = Json.createArray();
+        group.set(0, filter == null ? Json.createNull() : Json.create(filter));
+        group.set(1, rateLimit);
+        copy.put(JsonConstants.EVENT_DATA_LISTENER_GROUP, group);
+        return copy;
     }
 
     private EventRemover bindClassList(Element element, StateNode node) {
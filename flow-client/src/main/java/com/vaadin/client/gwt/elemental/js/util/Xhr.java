@@ -16,8 +16,10 @@
 package com.vaadin.client.gwt.elemental.js.util;
 
 import com.google.gwt.core.client.JavaScriptException;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
 import com.google.gwt.xhr.client.ReadyStateChangeHandler;
 import com.google.gwt.xhr.client.XMLHttpRequest;
+import com.google.gwt.xhr.client.XMLHttpRequest.ResponseType;
 
 import com.vaadin.client.Console;
 
@@ -183,6 +185,48 @@ public class Xhr {
                 callback);
     }
 
+    /**
+     * Send a POST request with binary data to the <code>url</code>, asking
+     * for the response data as an <code>ArrayBuffer</code>, and dispatch
+     * updates to the <code>callback</code>.
+     *
+     * @param url
+     *            the URL
+     * @param requestData
+     *            the binary data to be passed to XMLHttpRequest.send
+     * @param contentType
+     *            a value for the Content-Type HTTP header
+     * @param accept
+     *            a value for the Accept HTTP header
+     * @param callback
+     *            the callback to notify
+     * @return a reference to the sent XmlHttpRequest
+     */
+    public static XMLHttpRequest postForArrayBuffer(String url,
+            ArrayBuffer requestData, String contentType, String accept,
+            Callback callback) {
+        XMLHttpRequest xhr = create();
+        try {
+            xhr.setOnReadyStateChange(new Handler(callback));
+            xhr.open("POST", url);
+            xhr.setResponseType(ResponseType.ArrayBuffer);
+            xhr.setRequestHeader("Content-type", contentType);
+            xhr.setRequestHeader("Accept", accept);
+            send(xhr, requestData);
+        } catch (JavaScriptException e) {
+            // Just fail.
+            Console.error(e);
+            callback.onFail(xhr, e);
+            xhr.clearOnReadyStateChange();
+        }
+        return xhr;
+    }
+
+    private static native void send(XMLHttpRequest xhr, ArrayBuffer data)
+    /*-{
+        xhr.send(data);
+    }-*/;
+
     private static XMLHttpRequest create() {
         return create(Browser.getWindow());
     }
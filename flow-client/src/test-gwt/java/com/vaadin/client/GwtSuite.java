@@ -1,6 +1,7 @@
 package com.vaadin.client;
 
 import com.google.gwt.junit.tools.GWTTestSuite;
+import com.vaadin.client.communication.GwtBinaryUidlTest;
 import com.vaadin.client.communication.GwtDefaultReconnectDialogTest;
 import com.vaadin.client.flow.GwtBasicElementBinderTest;
 import com.vaadin.client.flow.GwtEventHandlerTest;
@@ -50,6 +51,7 @@ public class GwtSuite extends GWTTestSuite {
         suite.addTestSuite(GwtExecuteJavaScriptElementUtilsTest.class);
         suite.addTestSuite(GwtDependencyLoaderTest.class);
         suite.addTestSuite(GwtMultipleBindingTest.class);
+        suite.addTestSuite(GwtBinaryUidlTest.class);
         return suite;
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.communication;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.shared.ArrayBuffer;
+import com.vaadin.client.ClientEngineTestBase;
+import com.vaadin.client.ValueMap;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class GwtBinaryUidlTest extends ClientEngineTestBase {
+
+    private static final String JSON = "{\"a\":1,\"b\":\"a\","
+            + "\"c\":[-1,0.5,true,null]}";
+
+    /**
+     * The encoding of {@link #JSON} produced by the server side encoder.
+     */
+    private static final String ENCODED = "177,1,8,3,5,1,97,3,2,5,1,98,6,0,"
+            + "5,1,99,7,4,3,1,4,63,224,0,0,0,0,0,0,2,0";
+
+    public void testDecode_serverEncodedMessage() {
+        ValueMap decoded = BinaryUidlDecoder.parse(toBuffer(ENCODED));
+
+        assertEquals(JSON, stringify(decoded));
+    }
+
+    public void testDecode_textResponse_parsedAsWrappedJson() {
+        ValueMap decoded = BinaryUidlDecoder
+                .parse(toBuffer(asciiCodes("for(;;);[" + JSON + "]")));
+
+        assertEquals(JSON, stringify(decoded));
+    }
+
+    public void testDecode_invalidMessage_null() {
+        assertNull(BinaryUidlDecoder.parse(toBuffer("177,1,99")));
+    }
+
+    public void testEncode_sameAsServerEncoding() {
+        JsonObject json = Json.parse(JSON);
+
+        assertEquals(ENCODED, join(BinaryUidlEncoder.encode(json)));
+    }
+
+    public void testEncodeDecode_producesEqualJson() {
+        String json = createComplexJson();
+
+        ValueMap decoded = BinaryUidlDecoder
+                .parse(BinaryUidlEncoder.encode(Json.parse(json)));
+
+        assertEquals(json, stringify(decoded));
+    }
+
+    public void testEncodeDecode_withoutTextEncoding_producesEqualJson() {
+        String json = createComplexJson();
+
+        JavaScriptObject textEncoding = removeTextEncoding();
+        try {
+            ValueMap decoded = BinaryUidlDecoder
+                    .parse(BinaryUidlEncoder.encode(Json.parse(json)));
+
+            assertEquals(json, stringify(decoded));
+        } finally {
+            restoreTextEncoding(textEncoding);
+        }
+    }
+
+    private static String createComplexJson() {
+        return "{\"csrfToken\":\"token\",\"clientId\":2147483647,"
+                + "\"rpc\":[{\"type\":\"event\",\"node\":-2147483648,"
+                + "\"data\":{\"x\":-0.001,\"big\":4294967296,\"f\":false}},"
+                + "{\"type\":\"mSync\",\"node\":300000,"
+                + "\"value\":\"héllo € 😀\","
+                + "\"arr\":[[],{}],\"s\":\"\"}]}";
+    }
+
+    private static String asciiCodes(String text) {
+        StringBuilder codes = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            if (i > 0) {
+                codes.append(',');
+            }
+            codes.append((int) text.charAt(i));
+        }
+        return codes.toString();
+    }
+
+    private static native ArrayBuffer toBuffer(String bytes)
+    /*-{
+        return new Uint8Array(bytes.split(",").map(Number)).buffer;
+    }-*/;
+
+    private static native String join(ArrayBuffer buffer)
+    /*-{
+        return Array.prototype.join.call(new Uint8Array(buffer), ",");
+    }-*/;
+
+    private static native String stringify(JavaScriptObject value)
+    /*-{
+        return JSON.stringify(value);
+    }-*/;
+
+    private static native JavaScriptObject removeTextEncoding()
+    /*-{
+        var saved = {
+            encoder: $wnd.TextEncoder,
+            decoder: $wnd.TextDecoder
+        };
+        $wnd.TextEncoder = undefined;
+        $wnd.TextDecoder = undefined;
+        return saved;
+    }-*/;
+
+    private static native void restoreTextEncoding(JavaScriptObject saved)
+    /*-{
+        $wnd.TextEncoder = saved.encoder;
+        $wnd.TextDecoder = saved.decoder;
+    }-*/;
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 
+import com.google.gwt.user.client.Timer;
 import com.vaadin.client.ExistingElementMap;
 import com.vaadin.client.PolymerUtils;
 import com.vaadin.client.Registry;
@@ -35,6 +36,7 @@ import com.vaadin.client.flow.template.TestElementTemplateNode;
 import com.vaadin.client.flow.util.NativeFunction;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.client.Browser;
 import elemental.dom.Element;
@@ -564,6 +566,145 @@ public class GwtBasicElementBinderTest extends GwtPropertyElementBinderTest {
         assertEquals(0, tree.collectedNodes.length());
     }
 
+    public void testFilteredEvent_filterNotMatched_notSent() {
+        bindListenerGroups("click", createListenerGroup("false", 0),
+                createListenerGroup("false", 100));
+
+        element.click();
+
+        assertEquals(0, tree.collectedNodes.length());
+        delayTestFinish(1000);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(0, tree.collectedNodes.length());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    public void testDebouncedEvents_coalesced() {
+        bindListenerGroups("click", createListenerGroup(null, 100));
+
+        element.click();
+        element.click();
+        element.click();
+
+        assertEquals(0, tree.collectedNodes.length());
+        delayTestFinish(1000);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(1, tree.collectedNodes.length());
+                assertSame(node, tree.collectedNodes.get(0));
+                assertEquals("[null,100]", tree.collectedEventData.get(0)
+                        .get(JsonConstants.EVENT_DATA_LISTENER_GROUP).toJson());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    public void testThrottledEvents_leadingAndTrailingSent() {
+        bindListenerGroups("click", createListenerGroup(null, -100));
+
+        element.click();
+        assertEquals(1, tree.collectedNodes.length());
+
+        element.click();
+        element.click();
+        assertEquals(1, tree.collectedNodes.length());
+
+        delayTestFinish(1000);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(2, tree.collectedNodes.length());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    public void testDebouncedEvents_differentFilters_sentForEachGroup() {
+        bindListenerGroups("click", createListenerGroup("true", 100),
+                createListenerGroup("1 === 1", 100));
+
+        element.click();
+
+        delayTestFinish(1000);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(2, tree.collectedNodes.length());
+                assertEquals("[\"true\",100]",
+                        tree.collectedEventData.get(0)
+                                .get(JsonConstants.EVENT_DATA_LISTENER_GROUP)
+                                .toJson());
+                assertEquals("[\"1 === 1\",100]",
+                        tree.collectedEventData.get(1)
+                                .get(JsonConstants.EVENT_DATA_LISTENER_GROUP)
+                                .toJson());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    public void testDebouncedEvent_listenerRemoved_pendingEventCanceled() {
+        bindListenerGroups("click", createListenerGroup(null, 100));
+
+        element.click();
+
+        node.getMap(NodeFeatures.ELEMENT_LISTENERS).getProperty("click")
+                .removeValue();
+        Reactive.flush();
+
+        assertPendingEventCanceled();
+    }
+
+    public void testDebouncedEvent_unbound_pendingEventCanceled() {
+        bindListenerGroups("click", createListenerGroup(null, 100));
+
+        element.click();
+
+        node.unregister();
+
+        assertPendingEventCanceled();
+    }
+
+    private void assertPendingEventCanceled() {
+        delayTestFinish(1000);
+        new Timer() {
+            @Override
+            public void run() {
+                assertEquals(0, tree.collectedNodes.length());
+                finishTest();
+            }
+        }.schedule(300);
+    }
+
+    private void bindListenerGroups(String eventType, JsonArray... groups) {
+        Binder.bind(node, element);
+
+        JsonArray listenerConfig = Json.createArray();
+        for (JsonArray group : groups) {
+            listenerConfig.set(listenerConfig.length(), group);
+        }
+        String constantPoolKey = "listenersKey";
+        addToConstantPool(constantPoolKey, listenerConfig);
+
+        node.getMap(NodeFeatures.ELEMENT_LISTENERS).getProperty(eventType)
+                .setValue(constantPoolKey);
+        Reactive.flush();
+        Browser.getDocument().getBody().appendChild(element);
+    }
+
+    private static JsonArray createListenerGroup(String filter,
+            int rateLimit) {
+        JsonArray group = Json.createArray();
+        group.set(0, filter == null ? Json.createNull() : Json.create(filter));
+        group.set(1, rateLimit);
+        return group;
+    }
+
     public void testAddTextNode() {
         Binder.bind(node, element);
 
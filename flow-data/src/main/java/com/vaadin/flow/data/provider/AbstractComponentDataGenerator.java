@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +38,9 @@ public abstract class AbstractComponentDataGenerator<T>
 
     private final Map<String, Component> renderedComponents = new HashMap<>();
 
+    // Components kept attached to the container for reuse with other items
+    private final Deque<Component> recycledComponents = new ArrayDeque<>();
+
     @Override
     public void refreshData(T item) {
         String itemKey = getItemKey(item);
@@ -57,17 +62,76 @@ public abstract class AbstractComponentDataGenerator<T>
         String itemKey = getItemKey(item);
         Component renderedComponent = renderedComponents.remove(itemKey);
         if (renderedComponent != null) {
-            renderedComponent.getElement().removeFromParent();
+            recycleOrRemove(renderedComponent);
         }
     }
 
     @Override
     public void destroyAllData() {
-        renderedComponents.values().forEach(
-                component -> component.getElement().removeFromParent());
+        renderedComponents.values().forEach(this::recycleOrRemove);
         renderedComponents.clear();
     }
 
+    private void recycleOrRemove(Component component) {
+        if (recycledComponents.size() < getRecyclingPoolSize()) {
+            recycledComponents.push(component);
+        } else {
+            component.getElement().removeFromParent();
+        }
+    }
+
+    /**
+     * Gets a component for the provided item. A previously destroyed component
+     * is reused if one is available and it can be rebound to the item using
+     * {@link #rebindComponent(Component, Object)}. Otherwise, a new component
+     * is created using {@link #createComponent(Object)}.
+     *
+     * @param item
+     *            the data item, possibly <code>null</code>
+     * @return a {@link Component} which represents the provided item
+     */
+    protected Component getOrCreateComponent(T item) {
+        Component recycled;
+        while ((recycled = recycledComponents.poll()) != null) {
+            if (getContainer().equals(recycled.getElement().getParent())
+                    && rebindComponent(recycled, item)) {
+                return recycled;
+            }
+            recycled.getElement().removeFromParent();
+        }
+        return createComponent(item);
+    }
+
+    /**
+     * Gets the maximum number of destroyed components to keep for reuse with
+     * other items. The components are kept attached to the container so that
+     * reusing them does not create new state nodes.
+     * <p>
+     * The default implementation returns 0, which disables reuse.
+     *
+     * @return the maximum number of components to keep for reuse
+     */
+    protected int getRecyclingPoolSize() {
+        return 0;
+    }
+
+    /**
+     * Updates a previously destroyed component to represent another item.
+     * <p>
+     * The default implementation returns <code>false</code>, which means that
+     * components are not reused.
+     *
+     * @param component
+     *            the component to update, not <code>null</code>
+     * @param item
+     *            the data item, possibly <code>null</code>
+     * @return <code>true</code> if the component was updated,
+     *         <code>false</code> if it can't be reused
+     */
+    protected boolean rebindComponent(Component component, T item) {
+        return false;
+    }
+
     /**
      * Gets the element where the generated components will be attached to.
      * 
@@ -107,7 +171,9 @@ public abstract class AbstractComponentDataGenerator<T>
             Component component) {
 
         Element element = component.getElement();
-        getContainer().appendChild(element);
+        if (!getContainer().equals(element.getParent())) {
+            getContainer().appendChild(element);
+        }
         renderedComponents.put(itemKey, component);
     }
 
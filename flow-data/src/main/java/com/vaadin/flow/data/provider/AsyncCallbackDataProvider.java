@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.function.ValueProvider;
+
+/**
+ * Callback data provider that runs the callbacks using an {@link Executor}
+ * when it is used asynchronously.
+ * <p>
+ * The fetch callback is run to completion by the executor, so the items are
+ * collected into memory before the returned stage completes. The callbacks
+ * are run in the calling thread when the data provider is used through the
+ * blocking {@link #fetch(Query)} and {@link #size(Query)} methods.
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ * @author Vaadin Ltd
+ */
+public class AsyncCallbackDataProvider<T, F> extends CallbackDataProvider<T, F>
+        implements AsyncDataProvider<T, F> {
+
+    private final Executor executor;
+
+    /**
+     * Constructs a new data provider that runs the given callbacks using an
+     * executor.
+     *
+     * @param fetchCallback
+     *            function that returns a stream of items from the back end for
+     *            a query
+     * @param countCallback
+     *            function that return the number of items in the back end for a
+     *            query
+     * @param executor
+     *            the executor that runs the callbacks, not <code>null</code>.
+     *            It should be serializable if the session is serialized.
+     */
+    public AsyncCallbackDataProvider(FetchCallback<T, F> fetchCallback,
+            CountCallback<T, F> countCallback, Executor executor) {
+        this(fetchCallback, countCallback, t -> t, executor);
+    }
+
+    /**
+     * Constructs a new data provider that runs the given callbacks using an
+     * executor.
+     *
+     * @param fetchCallback
+     *            function that returns a stream of items from the back end for
+     *            a query
+     * @param countCallback
+     *            function that return the number of items in the back end for a
+     *            query
+     * @param identifierGetter
+     *            function that returns the identifier for a given item
+     * @param executor
+     *            the executor that runs the callbacks, not <code>null</code>.
+     *            It should be serializable if the session is serialized.
+     */
+    public AsyncCallbackDataProvider(FetchCallback<T, F> fetchCallback,
+            CountCallback<T, F> countCallback,
+            ValueProvider<T, Object> identifierGetter, Executor executor) {
+        super(fetchCallback, countCallback, identifierGetter);
+        Objects.requireNonNull(executor, "Executor can't be null");
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<Stream<T>> fetchAsync(Query<T, F> query) {
+        return CompletableFuture.supplyAsync(() -> fetch(query)
+                .collect(Collectors.toList()).stream(), executor);
+    }
+
+    @Override
+    public CompletionStage<Integer> sizeAsync(Query<T, F> query) {
+        return CompletableFuture.supplyAsync(() -> size(query), executor);
+    }
+}
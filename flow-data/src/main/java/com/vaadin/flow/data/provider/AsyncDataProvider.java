@@ -0,0 +1,70 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * A data provider that can fetch items and count them without blocking the
+ * calling thread.
+ * <p>
+ * {@link DataCommunicator} uses the asynchronous methods for data providers of
+ * this type so that the session is not kept locked while the back end is
+ * queried. The client keeps showing its placeholders for the requested items
+ * until the result has been received, applied through
+ * {@link com.vaadin.flow.component.UI#access(com.vaadin.flow.server.Command)
+ * UI.access} and pushed to the client. This requires server push to be
+ * enabled for the UI. Without push, the blocking {@link #fetch(Query)} and
+ * {@link #size(Query)} methods are used instead.
+ * <p>
+ * The returned stages may be completed from any thread. Implementations must
+ * not access the UI or the session from the thread that queries the back end,
+ * and the returned stream should not depend on resources that are only valid
+ * in that thread, such as an open database transaction.
+ *
+ * @param <T>
+ *            data provider data type
+ * @param <F>
+ *            data provider filter type
+ * @author Vaadin Ltd
+ */
+public interface AsyncDataProvider<T, F> extends DataProvider<T, F> {
+
+    /**
+     * Fetches data from this data provider without blocking the calling
+     * thread.
+     *
+     * @param query
+     *            given query to request data with
+     * @return a stage that is completed with the requested data
+     *
+     * @see #fetch(Query)
+     */
+    CompletionStage<Stream<T>> fetchAsync(Query<T, F> query);
+
+    /**
+     * Gets the amount of data in this data provider without blocking the
+     * calling thread.
+     *
+     * @param query
+     *            query with sorting and filtering
+     * @return a stage that is completed with the size of the data provider
+     *
+     * @see #size(Query)
+     */
+    CompletionStage<Integer> sizeAsync(Query<T, F> query);
+}
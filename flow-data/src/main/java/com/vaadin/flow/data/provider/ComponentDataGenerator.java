@@ -75,7 +75,7 @@ public class ComponentDataGenerator<T>
         if (oldRenderedComponent != null) {
             nodeId = oldRenderedComponent.getElement().getNode().getId();
         } else {
-            Component renderedComponent = createComponent(item);
+            Component renderedComponent = getOrCreateComponent(item);
             registerRenderedComponent(itemKey, renderedComponent);
 
             nodeId = renderedComponent.getElement().getNode().getId();
@@ -89,6 +89,16 @@ public class ComponentDataGenerator<T>
         return componentRenderer.createComponent(item);
     }
 
+    @Override
+    protected int getRecyclingPoolSize() {
+        return componentRenderer.getRecyclingPoolSize();
+    }
+
+    @Override
+    protected boolean rebindComponent(Component component, T item) {
+        return componentRenderer.rebindComponent(component, item);
+    }
+
     @Override
     protected String getItemKey(T item) {
         if (keyMapper == null) {
@@ -24,11 +24,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
 import com.vaadin.flow.function.SerializableConsumer;
@@ -37,6 +45,7 @@ import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.shared.communication.PushMode;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
@@ -48,12 +57,65 @@ import elemental.json.JsonValue;
  * communication implementations. It uses data generators ({@link BiFunction}s)
  * to write {@link JsonObject}s representing each data object to be sent to the
  * client-side.
+ * <p>
+ * If the data provider is an {@link AsyncDataProvider} and server push is
+ * enabled for the UI, items and the size are fetched asynchronously and the
+ * session is not kept locked while waiting for the back end. The result is
+ * applied through {@link UI#access} and pushed to the client. Until then, the
+ * client keeps showing placeholders for the items it has requested. The
+ * {@link #fetchFromProvider(int, int)} and {@link #getDataProviderSize()}
+ * methods are not used while loading asynchronously. Without push, the result
+ * could only be sent with the next request from the client, so the blocking
+ * methods of the data provider are used instead.
  *
  * @param <T>
  *            the bean type
  *
  */
 public class DataCommunicator<T> {
+
+    private static final int MAX_ASYNC_LOAD_RETRIES = 3;
+
+    /**
+     * Items fetched for a range, either ahead of time or from an
+     * {@link AsyncDataProvider}.
+     */
+    private static final class FetchedItems<T> {
+        private final int generation;
+        private final Range range;
+        private final boolean includesSize;
+
+        private boolean completed;
+        private int size;
+        private List<T> items;
+
+        private FetchedItems(int generation, Range range,
+                boolean includesSize) {
+            this.generation = generation;
+            this.range = range;
+            this.includesSize = includesSize;
+        }
+
+        private boolean covers(Range requested) {
+            return requested.isEmpty() || requested.isSubsetOf(range);
+        }
+
+        private Stream<T> getItems(int offset, int limit) {
+            int start = Math.min(offset - range.getStart(), items.size());
+            int end = Math.min(start + limit, items.size());
+            return items.subList(start, end).stream();
+        }
+
+        private void refresh(T item, Function<T, Object> idGetter) {
+            if (items == null) {
+                return;
+            }
+            Object id = idGetter.apply(item);
+            items.replaceAll(old -> Objects.equals(id, idGetter.apply(old))
+                    ? item : old);
+        }
+    }
+
     private final DataGenerator<T> dataGenerator;
     private final ArrayUpdater arrayUpdater;
     private final SerializableConsumer<JsonArray> dataUpdater;
@@ -93,6 +155,29 @@ public class DataCommunicator<T> {
     private SerializableConsumer<ExecutionContext> flushRequest;
     private SerializableConsumer<ExecutionContext> flushUpdatedDataRequest;
 
+    // Incremented whenever the data loaded so far is no longer valid
+    private int dataGeneration;
+    private FetchedItems<T> fetchedItems;
+    // Whether the current flush loads data asynchronously
+    private boolean asyncLoading;
+    // Failed asynchronous loads since the last successful one
+    private int failedAsyncLoads;
+
+    private int readBehind;
+    private int readAhead;
+
+    private boolean definedSize = true;
+    private int itemCountEstimate = 200;
+    private int itemCountEstimateIncrease = 200;
+    // Whether the end of the data has been reached with an undefined size
+    private boolean exactSizeKnown;
+    // Size detected from a short page during the current flush, or -1
+    private int detectedSize = -1;
+    // Start of an empty page found during the current flush, or -1
+    private int emptyPageStart = -1;
+    // The data ends at the latest here, based on an empty page
+    private int sizeUpperBound = Integer.MAX_VALUE;
+
     /**
      * Creates a new instance.
      *
@@ -140,6 +225,7 @@ public class DataCommunicator<T> {
      */
     public void reset() {
         resendEntireRange = true;
+        dataGeneration++;
         dataGenerator.destroyAllData();
         updatedData.clear();
         requestFlush();
@@ -156,6 +242,9 @@ public class DataCommunicator<T> {
                 "DataCommunicator can not refresh null object");
         getKeyMapper().refresh(data);
         dataGenerator.refreshData(data);
+        if (fetchedItems != null) {
+            fetchedItems.refresh(data, getDataProvider()::getId);
+        }
         updatedData.add(data);
         requestFlushUpdatedData();
     }
@@ -281,6 +370,166 @@ public class DataCommunicator<T> {
         return Collections.unmodifiableList(backEndSorting);
     }
 
+    /**
+     * Sets the number of items after the range requested by the client to
+     * fetch from the data provider in the same query. The items are kept in
+     * memory so that the next requests when scrolling forward can be served
+     * without querying the data provider. Only the items of the latest query
+     * are kept.
+     * <p>
+     * The default value is 0, which means that only the requested items are
+     * fetched.
+     *
+     * @param readAhead
+     *            the number of items to fetch after the requested range, not
+     *            negative
+     */
+    public void setReadAhead(int readAhead) {
+        if (readAhead < 0) {
+            throw new IllegalArgumentException(
+                    "Read ahead cannot be negative: " + readAhead);
+        }
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Gets the number of items after the requested range that are fetched from
+     * the data provider in the same query.
+     *
+     * @return the number of items to fetch after the requested range
+     * @see #setReadAhead(int)
+     */
+    public int getReadAhead() {
+        return readAhead;
+    }
+
+    /**
+     * Sets the number of items before the range requested by the client to
+     * fetch from the data provider in the same query. The items are kept in
+     * memory so that the next requests when scrolling backward can be served
+     * without querying the data provider. Only the items of the latest query
+     * are kept.
+     * <p>
+     * The default value is 0, which means that only the requested items are
+     * fetched.
+     *
+     * @param readBehind
+     *            the number of items to fetch before the requested range, not
+     *            negative
+     */
+    public void setReadBehind(int readBehind) {
+        if (readBehind < 0) {
+            throw new IllegalArgumentException(
+                    "Read behind cannot be negative: " + readBehind);
+        }
+        this.readBehind = readBehind;
+    }
+
+    /**
+     * Gets the number of items before the requested range that are fetched
+     * from the data provider in the same query.
+     *
+     * @return the number of items to fetch before the requested range
+     * @see #setReadBehind(int)
+     */
+    public int getReadBehind() {
+        return readBehind;
+    }
+
+    /**
+     * Sets whether the size of the data is queried from the data provider.
+     * <p>
+     * When the size is not defined, the size of the data provider is never
+     * queried. The client is instead told an estimated size, starting from
+     * {@link #getItemCountEstimate()} and growing by
+     * {@link #getItemCountEstimateIncrease()} whenever the client has
+     * scrolled to the end of the estimate. The actual size is known once the
+     * data provider returns fewer items than requested. This avoids
+     * potentially expensive count queries, e.g. after each filter change, at
+     * the cost of an inaccurate scroll bar.
+     * <p>
+     * The size is defined by default.
+     *
+     * @param definedSize
+     *            <code>true</code> to query the size from the data provider,
+     *            <code>false</code> to use an estimate
+     */
+    public void setDefinedSize(boolean definedSize) {
+        if (this.definedSize != definedSize) {
+            this.definedSize = definedSize;
+            reset();
+        }
+    }
+
+    /**
+     * Gets whether the size of the data is queried from the data provider.
+     *
+     * @return <code>true</code> if the size is queried from the data
+     *         provider, <code>false</code> if it's estimated
+     * @see #setDefinedSize(boolean)
+     */
+    public boolean isDefinedSize() {
+        return definedSize;
+    }
+
+    /**
+     * Sets the initial size estimate to use when the size is not defined. The
+     * default value is 200.
+     *
+     * @param itemCountEstimate
+     *            the initial size estimate, greater than 0
+     * @see #setDefinedSize(boolean)
+     */
+    public void setItemCountEstimate(int itemCountEstimate) {
+        if (itemCountEstimate < 1) {
+            throw new IllegalArgumentException(
+                    "Item count estimate must be greater than 0: "
+                            + itemCountEstimate);
+        }
+        this.itemCountEstimate = itemCountEstimate;
+        if (!definedSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Gets the initial size estimate to use when the size is not defined.
+     *
+     * @return the initial size estimate
+     * @see #setItemCountEstimate(int)
+     */
+    public int getItemCountEstimate() {
+        return itemCountEstimate;
+    }
+
+    /**
+     * Sets how much the size estimate grows when the client has scrolled to
+     * the end of the current estimate. The default value is 200.
+     *
+     * @param itemCountEstimateIncrease
+     *            the increase of the estimate, greater than 0
+     * @see #setDefinedSize(boolean)
+     */
+    public void setItemCountEstimateIncrease(int itemCountEstimateIncrease) {
+        if (itemCountEstimateIncrease < 1) {
+            throw new IllegalArgumentException(
+                    "Item count estimate increase must be greater than 0: "
+                            + itemCountEstimateIncrease);
+        }
+        this.itemCountEstimateIncrease = itemCountEstimateIncrease;
+    }
+
+    /**
+     * Gets how much the size estimate grows when the client has scrolled to
+     * the end of the current estimate.
+     *
+     * @return the increase of the estimate
+     * @see #setItemCountEstimateIncrease(int)
+     */
+    public int getItemCountEstimateIncrease() {
+        return itemCountEstimateIncrease;
+    }
+
     /**
      * Getter method for finding the size of DataProvider. Can be overridden by
      * a subclass that uses a specific type of DataProvider and/or query.
@@ -339,7 +588,7 @@ public class DataCommunicator<T> {
     private void requestFlush() {
         if (flushRequest == null) {
             flushRequest = context -> {
-                flush();
+                flush(context.getUI());
                 flushRequest = null;
             };
             stateNode.runWhenAttached(ui -> ui.getInternals().getStateTree()
@@ -358,16 +607,32 @@ public class DataCommunicator<T> {
         }
     }
 
-    private void flush() {
+    private void flush(UI ui) {
+        asyncLoading = getDataProvider() instanceof AsyncDataProvider
+                && ui.getPushConfiguration().getPushMode().isEnabled();
+        if (isAsync() && !isAsyncDataLoaded(ui)) {
+            // Flushed again once the data is available
+            unregisterPassivatedKeys();
+            return;
+        }
+
         Set<String> oldActive = new HashSet<>(activeKeyOrder);
 
-        if (resendEntireRange) {
-            assumedSize = getDataProviderSize();
+        if (!definedSize) {
+            if (resendEntireRange) {
+                exactSizeKnown = false;
+                sizeUpperBound = Integer.MAX_VALUE;
+            }
+            assumedSize = getEstimatedSize();
+            detectedSize = -1;
+            emptyPageStart = -1;
+        } else if (resendEntireRange) {
+            assumedSize = isAsync() ? fetchedItems.size : getDataProviderSize();
         }
 
         final Range previousActive = Range.withLength(activeStart,
                 activeKeyOrder.size());
-        final Range effectiveRequested = requestedRange
+        Range effectiveRequested = requestedRange
                 .restrictTo(Range.withLength(0, assumedSize));
 
         resendEntireRange |= !(previousActive.intersects(effectiveRequested)
@@ -377,6 +642,32 @@ public class DataCommunicator<T> {
         List<String> newActiveKeyOrder = collectKeysToFlush(previousActive,
                 effectiveRequested);
 
+        if (detectedSize >= 0) {
+            // The end of the data was found, resend with the actual size
+            exactSizeKnown = true;
+            assumedSize = detectedSize;
+            effectiveRequested = requestedRange
+                    .restrictTo(Range.withLength(0, assumedSize));
+            resendEntireRange = true;
+            newActiveKeyOrder = collectKeysToFlush(previousActive,
+                    effectiveRequested);
+            detectedSize = -1;
+        } else if (emptyPageStart >= 0) {
+            /*
+             * The data ends before the empty page, but it's not known where.
+             * Shrink the estimate so that the client requests the preceding
+             * items, which reveals the end or shrinks the estimate again.
+             */
+            sizeUpperBound = emptyPageStart;
+            assumedSize = Math.min(assumedSize, emptyPageStart);
+            effectiveRequested = requestedRange
+                    .restrictTo(Range.withLength(0, assumedSize));
+            resendEntireRange = true;
+            newActiveKeyOrder = collectKeysToFlush(previousActive,
+                    effectiveRequested);
+            emptyPageStart = -1;
+        }
+
         activeKeyOrder = newActiveKeyOrder;
         activeStart = effectiveRequested.getStart();
 
@@ -540,7 +831,7 @@ public class DataCommunicator<T> {
 
         // XXX Explicitly refresh anything that is updated
         List<String> activeKeys = new ArrayList<>(range.length());
-        fetchFromProvider(range.getStart(), range.length()).forEach(bean -> {
+        fetch(range.getStart(), range.length()).forEach(bean -> {
             boolean mapperHasKey = keyMapper.has(bean);
             String key = keyMapper.key(bean);
             if (mapperHasKey) {
@@ -549,9 +840,167 @@ public class DataCommunicator<T> {
             }
             activeKeys.add(key);
         });
+        if (!definedSize && activeKeys.size() < range.length()) {
+            if (activeKeys.isEmpty() && range.getStart() > 0) {
+                // Only the end of a non-empty page is the exact end
+                emptyPageStart = emptyPageStart < 0 ? range.getStart()
+                        : Math.min(emptyPageStart, range.getStart());
+            } else {
+                detectedSize = range.getStart() + activeKeys.size();
+            }
+        }
         return activeKeys;
     }
 
+    private Stream<T> fetch(int offset, int limit) {
+        if (isAsync()) {
+            return fetchedItems.getItems(offset, limit);
+        }
+        if (readBehind == 0 && readAhead == 0) {
+            return fetchFromProvider(offset, limit);
+        }
+
+        Range range = Range.withLength(offset, limit);
+        FetchedItems<T> fetched = fetchedItems;
+        if (fetched == null || fetched.generation != dataGeneration
+                || !fetched.completed || !fetched.covers(range)) {
+            Range fetchRange = withReadAheadAndBehind(range)
+                    .restrictTo(Range.withLength(0, assumedSize));
+            fetched = new FetchedItems<>(dataGeneration, fetchRange, false);
+            fetched.items = fetchFromProvider(fetchRange.getStart(),
+                    fetchRange.length())
+                    .collect(Collectors.toCollection(ArrayList::new));
+            fetched.completed = true;
+            fetchedItems = fetched;
+        }
+        return fetched.getItems(offset, limit);
+    }
+
+    /**
+     * Gets the size to tell the client when the size of the data is not
+     * defined. The estimate grows whenever the client has scrolled to the end
+     * of the current estimate, but not past the start of an empty page.
+     */
+    private int getEstimatedSize() {
+        if (exactSizeKnown && !resendEntireRange) {
+            return assumedSize;
+        }
+        int size = resendEntireRange ? itemCountEstimate : assumedSize;
+        if (requestedRange.getEnd() >= size) {
+            size = Math.min(requestedRange.getEnd() + itemCountEstimateIncrease,
+                    sizeUpperBound);
+        }
+        return size;
+    }
+
+    private Range withReadAheadAndBehind(Range range) {
+        return Range.between(Math.max(0, range.getStart() - readBehind),
+                range.getEnd() + readAhead);
+    }
+
+    private boolean isAsync() {
+        return asyncLoading;
+    }
+
+    /**
+     * Checks whether the data needed for flushing has been loaded from the
+     * asynchronous data provider, and starts loading it if necessary.
+     */
+    private boolean isAsyncDataLoaded(UI ui) {
+        FetchedItems<T> load = fetchedItems;
+        if (load != null && load.generation == dataGeneration) {
+            if (!load.completed) {
+                // Wait for the ongoing load before requesting anything else
+                return false;
+            }
+            boolean sizeAvailable = load.includesSize || !resendEntireRange
+                    || !definedSize;
+            int size;
+            if (!definedSize) {
+                size = getEstimatedSize();
+            } else {
+                size = resendEntireRange ? load.size : assumedSize;
+            }
+            if (sizeAvailable && load.covers(
+                    requestedRange.restrictTo(Range.withLength(0, size)))) {
+                return true;
+            }
+        }
+        loadAsync(ui);
+        return false;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void loadAsync(UI ui) {
+        // The size might not be known yet, so ask for the whole range
+        FetchedItems<T> load = new FetchedItems<>(dataGeneration,
+                withReadAheadAndBehind(requestedRange),
+                resendEntireRange && definedSize);
+        fetchedItems = load;
+
+        AsyncDataProvider provider = (AsyncDataProvider) getDataProvider();
+        CompletionStage<Integer> size;
+        if (load.includesSize) {
+            size = provider.sizeAsync(new Query(getFilter()));
+        } else {
+            size = CompletableFuture.completedFuture(Integer.valueOf(0));
+        }
+        CompletionStage<List<T>> items;
+        if (load.range.isEmpty()) {
+            items = CompletableFuture.completedFuture(Collections.emptyList());
+        } else {
+            // Copy the sorting since the query may be used in another thread
+            CompletionStage<Stream<T>> stream = provider.fetchAsync(
+                    new Query(load.range.getStart(), load.range.length(),
+                            new ArrayList<>(backEndSorting), inMemorySorting,
+                            filter));
+            items = stream.thenApply(s -> s
+                    .collect(Collectors.toCollection(ArrayList::new)));
+        }
+
+        size.thenAcceptBoth(items, (loadedSize, loadedItems) -> {
+            accessIfAttached(ui, () -> {
+                if (fetchedItems == load) {
+                    load.size = loadedSize.intValue();
+                    load.items = loadedItems;
+                    load.completed = true;
+                    failedAsyncLoads = 0;
+                    requestFlush();
+                    if (ui.getPushConfiguration()
+                            .getPushMode() == PushMode.MANUAL) {
+                        ui.push();
+                    }
+                }
+            });
+        }).exceptionally(exception -> {
+            getLogger().error("Loading items from {} failed", provider,
+                    exception);
+            accessIfAttached(ui, () -> {
+                if (fetchedItems == load) {
+                    fetchedItems = null;
+                    // Retry a few times, then wait for the client to request
+                    // data again so that a failing back end isn't hammered
+                    if (++failedAsyncLoads <= MAX_ASYNC_LOAD_RETRIES) {
+                        requestFlush();
+                    }
+                }
+            });
+            return null;
+        });
+    }
+
+    private static void accessIfAttached(UI ui, Runnable command) {
+        try {
+            ui.access(command::run);
+        } catch (UIDetachedException e) {
+            // Nobody is waiting for the result any longer
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(DataCommunicator.class.getName());
+    }
+
     private JsonValue generateJson(T item) {
         JsonObject json = Json.createObject();
         json.put("key", getKeyMapper().key(item));
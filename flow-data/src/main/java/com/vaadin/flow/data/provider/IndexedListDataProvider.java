@@ -0,0 +1,305 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.flow.function.SerializablePredicate;
+
+/**
+ * A {@link ListDataProvider} that keeps the filtered and sorted view of the
+ * backing collection in memory instead of filtering and sorting the whole
+ * collection for each query.
+ * <p>
+ * A view is created for each combination of query filter and in-memory sorting
+ * that the data provider is queried with, and it is used to serve both
+ * {@link #size(Query)} and {@link #fetch(Query)} by index. Only a few of the
+ * most recently used views are retained. Filters and comparators are compared
+ * by identity, so a component should reuse the same instances for its
+ * queries, as {@link DataCommunicator} does.
+ * <p>
+ * All views are discarded when {@link #refreshAll()} is called, which also
+ * happens when the filter or sort comparator of this data provider is
+ * changed. {@link #refreshItem(Object)} updates the position of the item in
+ * the existing views without filtering or sorting the other items again. The
+ * backing collection should not be changed without calling
+ * {@link #refreshAll()}, since the views would otherwise keep showing the old
+ * items.
+ * <p>
+ * Items are looked up from the views by identity, or by their
+ * {@link #getId(Object) id} if a different instance is refreshed. Refreshing
+ * an item that keeps its position in a view takes constant time, whereas an
+ * item that is moved, added or removed makes the view rebuild its index,
+ * which takes time linear in the number of items in the view.
+ * <p>
+ * The views are guarded by a lock and pages are copied before they are
+ * returned, so an instance can be shared between sessions like a
+ * {@link ListDataProvider}.
+ *
+ * @param <T>
+ *            data type
+ * @author Vaadin Ltd
+ */
+public class IndexedListDataProvider<T> extends ListDataProvider<T> {
+
+    private static final int MAX_VIEWS = 4;
+
+    private static final class ViewKey {
+        private final Object filter;
+        private final Comparator<?> inMemorySorting;
+
+        private ViewKey(Object filter, Comparator<?> inMemorySorting) {
+            this.filter = filter;
+            this.inMemorySorting = inMemorySorting;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ViewKey)) {
+                return false;
+            }
+            ViewKey other = (ViewKey) obj;
+            return filter == other.filter
+                    && inMemorySorting == other.inMemorySorting;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(filter)
+                    + System.identityHashCode(inMemorySorting);
+        }
+    }
+
+    private final class View {
+        private final Predicate<T> queryFilter;
+        private final Comparator<T> comparator;
+        private final ArrayList<T> items;
+        // Indexes in items, rebuilt lazily after items have been moved
+        private Map<T, Integer> identityIndexes;
+        private Map<Object, Integer> idIndexes;
+
+        private View(Query<T, SerializablePredicate<T>> query) {
+            queryFilter = query.getFilter().orElse(null);
+            comparator = getComparator(query).orElse(null);
+            items = IndexedListDataProvider.super.fetch(
+                    new Query<>(0, Integer.MAX_VALUE, query.getSortOrders(),
+                            query.getInMemorySorting(), query.getFilter()
+                                    .orElse(null)))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        private boolean test(T item) {
+            SerializablePredicate<T> filter = getFilter();
+            return (filter == null || filter.test(item))
+                    && (queryFilter == null || queryFilter.test(item));
+        }
+
+        /**
+         * Updates the position of the given item in this view.
+         *
+         * @return <code>false</code> if the view could not be updated and
+         *         should be discarded, <code>true</code> otherwise
+         */
+        private boolean refresh(T item) {
+            int index = indexOf(item);
+            boolean included = test(item);
+
+            if (index >= 0 && included && isInOrder(item, index)) {
+                // Sort order is not affected, keep the item where it is
+                items.set(index, item);
+                return true;
+            }
+            if (index >= 0) {
+                items.remove(index);
+                identityIndexes = null;
+            }
+            if (!included || (index < 0 && !containsItem(item))) {
+                return true;
+            }
+            if (comparator == null) {
+                // The original position is not known without a comparator
+                return false;
+            }
+            items.add(findInsertionIndex(item), item);
+            identityIndexes = null;
+            return true;
+        }
+
+        private int indexOf(T item) {
+            if (identityIndexes == null) {
+                identityIndexes = new IdentityHashMap<>();
+                idIndexes = new HashMap<>();
+                for (int i = 0; i < items.size(); i++) {
+                    identityIndexes.put(items.get(i), i);
+                    idIndexes.putIfAbsent(getId(items.get(i)), i);
+                }
+            }
+            // The same instance is found even if its hash code has changed
+            Integer index = identityIndexes.get(item);
+            if (index == null) {
+                index = idIndexes.get(getId(item));
+            }
+            return index == null ? -1 : index;
+        }
+
+        private boolean isInOrder(T item, int index) {
+            if (comparator == null) {
+                return true;
+            }
+            return (index == 0
+                    || comparator.compare(items.get(index - 1), item) <= 0)
+                    && (index == items.size() - 1 || comparator
+                            .compare(item, items.get(index + 1)) <= 0);
+        }
+
+        private int findInsertionIndex(T item) {
+            // Insert after all equal items, like a stable sort would
+            int low = 0;
+            int high = items.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(items.get(middle), item) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final ReentrantLock viewLock = new ReentrantLock();
+
+    private transient Map<ViewKey, View> views;
+    // Items in the backing collection, created lazily
+    private transient Set<T> itemInstances;
+    private transient Set<Object> itemIds;
+
+    /**
+     * Constructs a new IndexedListDataProvider.
+     * <p>
+     * No protective copy is made of the list. Changes in the provided backing
+     * Collection will be visible via this data provider after
+     * {@link #refreshAll()} has been called. The caller should copy the list if
+     * necessary.
+     *
+     * @param items
+     *            the initial data, not null
+     */
+    public IndexedListDataProvider(Collection<T> items) {
+        super(items);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
+        List<T> page;
+        viewLock.lock();
+        try {
+            List<T> items = getView(query).items;
+
+            int size = items.size();
+            int start = Math.min(query.getOffset(), size);
+            int end = (int) Math.min(size, (long) start + query.getLimit());
+            // Copy since the view may change before the stream is consumed
+            page = new ArrayList<>(items.subList(start, end));
+        } finally {
+            viewLock.unlock();
+        }
+        return page.stream();
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        viewLock.lock();
+        try {
+            return getView(query).items.size();
+        } finally {
+            viewLock.unlock();
+        }
+    }
+
+    @Override
+    public void refreshAll() {
+        viewLock.lock();
+        try {
+            views = null;
+            itemInstances = null;
+            itemIds = null;
+        } finally {
+            viewLock.unlock();
+        }
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        viewLock.lock();
+        try {
+            if (views != null) {
+                Iterator<View> iterator = views.values().iterator();
+                while (iterator.hasNext()) {
+                    if (!iterator.next().refresh(item)) {
+                        iterator.remove();
+                    }
+                }
+            }
+        } finally {
+            viewLock.unlock();
+        }
+        super.refreshItem(item);
+    }
+
+    private boolean containsItem(T item) {
+        if (itemInstances == null) {
+            itemInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+            itemInstances.addAll(getItems());
+            itemIds = getItems().stream().map(this::getId)
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+        return itemInstances.contains(item) || itemIds.contains(getId(item));
+    }
+
+    private View getView(Query<T, SerializablePredicate<T>> query) {
+        assert viewLock.isHeldByCurrentThread();
+        if (views == null) {
+            views = new LinkedHashMap<ViewKey, View>(MAX_VIEWS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<ViewKey, View> eldest) {
+                    return size() > MAX_VIEWS;
+                }
+            };
+        }
+        ViewKey key = new ViewKey(query.getFilter().orElse(null),
+                query.getInMemorySorting());
+        return views.computeIfAbsent(key, ignore -> new View(query));
+    }
+}
@@ -69,10 +69,7 @@ public class ListDataProvider<T>
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
         Stream<T> stream = getFilteredStream(query);
 
-        Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(Objects::nonNull)
-                .reduce((c1, c2) -> c1.thenComparing(c2));
+        Optional<Comparator<T>> comparing = getComparator(query);
 
         if (comparing.isPresent()) {
             stream = stream.sorted(comparing.get());
@@ -81,6 +78,22 @@ public class ListDataProvider<T>
         return stream.skip(query.getOffset()).limit(query.getLimit());
     }
 
+    /**
+     * Gets the comparator that combines the in-memory sorting of the given
+     * query with the sort comparator of this data provider.
+     *
+     * @param query
+     *            the query to get the comparator for
+     * @return the comparator, or an empty optional if the items should not be
+     *         sorted
+     */
+    Optional<Comparator<T>> getComparator(
+            Query<T, SerializablePredicate<T>> query) {
+        return Stream.of(query.getInMemorySorting(), sortOrder)
+                .filter(Objects::nonNull)
+                .reduce((c1, c2) -> c1.thenComparing(c2));
+    }
+
     @Override
     public int size(Query<T, SerializablePredicate<T>> query) {
         return (int) getFilteredStream(query).count();
@@ -51,6 +51,7 @@ public class ComponentRenderer<COMPONENT extends Component, SOURCE>
     private SerializableFunction<SOURCE, COMPONENT> componentFunction;
     private SerializableBiConsumer<COMPONENT, SOURCE> itemConsumer;
     private String componentRendererTag = "flow-component-renderer";
+    private int recyclingPoolSize;
 
     /**
      * Creates a new ComponentRenderer that uses the componentSupplier to
@@ -151,6 +152,64 @@ public class ComponentRenderer<COMPONENT extends Component, SOURCE>
         this.componentRendererTag = componentRendererTag;
     }
 
+    /**
+     * Sets the maximum number of components to keep for reuse when the items
+     * they represent are no longer shown, e.g. when scrolling a list. Reusing
+     * a component updates it for the new item using the item consumer given
+     * to {@link #ComponentRenderer(SerializableSupplier, SerializableBiConsumer)}
+     * instead of creating a new component. The item consumer must then update
+     * all the state of the component that depends on the item.
+     * <p>
+     * Components are only reused by renderers that have been created with a
+     * component supplier and an item consumer, unless
+     * {@link #rebindComponent(Component, Object)} is overridden. The default
+     * value is 0, which disables reuse.
+     *
+     * @param recyclingPoolSize
+     *            the maximum number of components to keep for reuse per
+     *            rendering, not negative
+     */
+    public void setRecyclingPoolSize(int recyclingPoolSize) {
+        if (recyclingPoolSize < 0) {
+            throw new IllegalArgumentException(
+                    "The recycling pool size cannot be negative");
+        }
+        this.recyclingPoolSize = recyclingPoolSize;
+    }
+
+    /**
+     * Gets the maximum number of components to keep for reuse.
+     *
+     * @return the maximum number of components to keep for reuse
+     * @see #setRecyclingPoolSize(int)
+     */
+    public int getRecyclingPoolSize() {
+        return recyclingPoolSize;
+    }
+
+    /**
+     * Updates a component that has been created by this renderer to represent
+     * another item. Subclasses can override this method to support reusing
+     * components.
+     *
+     * @param component
+     *            a component created by this renderer, not <code>null</code>
+     * @param item
+     *            the model item, possibly <code>null</code>
+     * @return <code>true</code> if the component was updated,
+     *         <code>false</code> if this renderer doesn't support reusing
+     *         components
+     * @see #setRecyclingPoolSize(int)
+     */
+    @SuppressWarnings("unchecked")
+    public boolean rebindComponent(Component component, SOURCE item) {
+        if (componentSupplier == null || itemConsumer == null) {
+            return false;
+        }
+        itemConsumer.accept((COMPONENT) component, item);
+        return true;
+    }
+
     private void setupTemplateWhenAttached(UI ui, Element owner,
             ComponentRendering rendering, DataKeyMapper<SOURCE> keyMapper) {
         String appId = ui.getInternals().getAppId();
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.data.provider.DataCommunicatorTest.MockUI;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
+import com.vaadin.flow.dom.Element;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class ComponentDataGeneratorTest {
+
+    private static class ItemComponent extends Component {
+        private String item;
+
+        private ItemComponent() {
+            super(new Element("div"));
+        }
+    }
+
+    private int createdComponents;
+    private ComponentRenderer<ItemComponent, String> renderer;
+    private ComponentDataGenerator<String> generator;
+    private Element container;
+
+    @Before
+    public void init() {
+        renderer = new ComponentRenderer<>(() -> {
+            createdComponents++;
+            return new ItemComponent();
+        }, (component, item) -> component.item = item);
+
+        container = new Element("div");
+        new MockUI().getElement().appendChild(container);
+
+        generator = new ComponentDataGenerator<>(renderer, item -> item);
+        generator.setContainer(container);
+        generator.setNodeIdPropertyName("nodeId");
+    }
+
+    @Test
+    public void recyclingDisabled_destroyedComponentRemoved() {
+        int nodeId = generate("a");
+        generator.destroyData("a");
+
+        Assert.assertEquals(0, container.getChildCount());
+        Assert.assertNotEquals(nodeId, generate("b"));
+        Assert.assertEquals(2, createdComponents);
+    }
+
+    @Test
+    public void recyclingEnabled_destroyedComponentReusedForOtherItem() {
+        renderer.setRecyclingPoolSize(10);
+
+        int nodeId = generate("a");
+        generator.destroyData("a");
+        Assert.assertEquals("Recycled component should stay attached", 1,
+                container.getChildCount());
+
+        Assert.assertEquals(nodeId, generate("b"));
+        Assert.assertEquals(1, createdComponents);
+
+        ItemComponent component = (ItemComponent) generator
+                .getRenderedComponent("b");
+        Assert.assertEquals("b", component.item);
+        Assert.assertEquals(1, container.getChildCount());
+    }
+
+    @Test
+    public void recyclingEnabled_poolSizeLimited() {
+        renderer.setRecyclingPoolSize(2);
+
+        generate("a");
+        generate("b");
+        generate("c");
+        generator.destroyAllData();
+
+        Assert.assertEquals(2, container.getChildCount());
+
+        generate("d");
+        generate("e");
+        generate("f");
+        Assert.assertEquals(4, createdComponents);
+        Assert.assertEquals(3, container.getChildCount());
+    }
+
+    @Test
+    public void recyclingEnabled_rendererWithoutItemConsumer_notReused() {
+        ComponentRenderer<ItemComponent, String> functionRenderer = new ComponentRenderer<>(
+                item -> {
+                    createdComponents++;
+                    return new ItemComponent();
+                });
+        functionRenderer.setRecyclingPoolSize(10);
+        generator = new ComponentDataGenerator<>(functionRenderer,
+                item -> item);
+        generator.setContainer(container);
+        generator.setNodeIdPropertyName("nodeId");
+
+        generate("a");
+        generator.destroyData("a");
+        generate("b");
+
+        Assert.assertEquals(2, createdComponents);
+        Assert.assertEquals(1, container.getChildCount());
+    }
+
+    private int generate(String item) {
+        JsonObject json = Json.createObject();
+        generator.generateData(item, json);
+        return (int) json.getNumber("nodeId");
+    }
+}
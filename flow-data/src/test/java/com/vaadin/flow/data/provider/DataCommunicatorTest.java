@@ -15,7 +15,10 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
@@ -31,9 +34,12 @@ import org.mockito.MockitoAnnotations;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.internal.Range;
+import com.vaadin.flow.internal.nodefeature.PushConfigurationMap;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.communication.PushMode;
 
 import elemental.json.JsonValue;
 
@@ -151,8 +157,323 @@ public class DataCommunicatorTest {
                 Range.withLength(50, 20), lastSet);
     }
 
+    @Test
+    public void asyncDataProvider_itemsFetchedInBackground_appliedThroughAccess() {
+        enablePush();
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createAsyncDataProvider(100,
+                backgroundTasks), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertNull("Nothing should be sent before the data is loaded",
+                lastSet);
+        Assert.assertEquals("Expected size and items to be fetched", 2,
+                backgroundTasks.size());
+
+        runAll(backgroundTasks);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertNull("Result should only be applied in UI.access",
+                lastSet);
+
+        runAll(ui.pendingAccess);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(0, backgroundTasks.size());
+
+        dataCommunicator.setRequestedRange(0, 70);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals("Expected only items to be fetched", 1,
+                backgroundTasks.size());
+
+        runAll(backgroundTasks);
+        runAll(ui.pendingAccess);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(50, 20), lastSet);
+    }
+
+    @Test
+    public void asyncDataProvider_resetWhileLoading_staleResultIgnored() {
+        enablePush();
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createAsyncDataProvider(100,
+                backgroundTasks), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        dataCommunicator.reset();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals("Expected the data to be loaded again", 4,
+                backgroundTasks.size());
+
+        // Complete the stale load only
+        runAll(backgroundTasks.subList(0, 2));
+        runAll(ui.pendingAccess);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertNull(lastSet);
+
+        runAll(backgroundTasks);
+        runAll(ui.pendingAccess);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+    }
+
+    @Test
+    public void asyncDataProvider_pushDisabled_itemsFetchedWhileFlushing() {
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createAsyncDataProvider(100,
+                backgroundTasks), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(0, backgroundTasks.size());
+        Assert.assertEquals(0, ui.pendingAccess.size());
+    }
+
+    @Test
+    public void asyncDataProvider_loadFails_retriedLimitedTimes() {
+        enablePush();
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger(4);
+        dataCommunicator.setDataProvider(new AsyncCallbackDataProvider<>(
+                query -> {
+                    if (failures.getAndDecrement() > 0) {
+                        throw new IllegalStateException("Back end is down");
+                    }
+                    return IntStream.range(query.getOffset(),
+                            Math.min(100, query.getOffset() + query.getLimit()))
+                            .mapToObj(Integer::toString);
+                }, query -> 100, backgroundTasks::add), null);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        // The first load and three retries
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("Expected load " + i, 2,
+                    backgroundTasks.size());
+            runAll(backgroundTasks);
+            runAll(ui.pendingAccess);
+            ui.getInternals().getStateTree()
+                    .runExecutionsBeforeClientResponse();
+        }
+        Assert.assertEquals("Expected no more retries", 0,
+                backgroundTasks.size());
+        Assert.assertNull(lastSet);
+
+        // Loaded again when the client requests data
+        dataCommunicator.setRequestedRange(0, 60);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        runAll(backgroundTasks);
+        runAll(ui.pendingAccess);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(0, 60), lastSet);
+    }
+
+    @Test
+    public void readAhead_followingRangesServedWithoutQuery() {
+        List<Query<String, Void>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(
+                DataProvider.fromCallbacks(query -> {
+                    queries.add(query);
+                    return IntStream.range(query.getOffset(),
+                            query.getOffset() + query.getLimit())
+                            .mapToObj(Integer::toString);
+                }, query -> 1000), null);
+        dataCommunicator.setReadAhead(100);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(0, queries.get(0).getOffset());
+        Assert.assertEquals(150, queries.get(0).getLimit());
+
+        dataCommunicator.setRequestedRange(0, 100);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertEquals(1, queries.size());
+
+        dataCommunicator.setRequestedRange(50, 150);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(100, 100), lastSet);
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(100, queries.get(1).getOffset());
+        Assert.assertEquals(200, queries.get(1).getLimit());
+
+        dataCommunicator.reset();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(50, 150), lastSet);
+        Assert.assertEquals("Reset should discard fetched items", 3,
+                queries.size());
+    }
+
+    @Test
+    public void readBehindAndAhead_restrictedToSize() {
+        List<Query<String, Void>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(
+                DataProvider.fromCallbacks(query -> {
+                    queries.add(query);
+                    return IntStream.range(query.getOffset(),
+                            query.getOffset() + query.getLimit())
+                            .mapToObj(Integer::toString);
+                }, query -> 100), null);
+        dataCommunicator.setReadBehind(30);
+        dataCommunicator.setReadAhead(30);
+
+        dataCommunicator.setRequestedRange(80, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(80, 20), lastSet);
+        Assert.assertEquals(50, queries.get(0).getOffset());
+        Assert.assertEquals(50, queries.get(0).getLimit());
+
+        dataCommunicator.setRequestedRange(60, 20);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(Range.withLength(60, 20), lastSet);
+        Assert.assertEquals(1, queries.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setReadAhead_negative_throws() {
+        dataCommunicator.setReadAhead(-1);
+    }
+
+    @Test
+    public void undefinedSize_sizeNotQueried_estimateGrowsUntilEndFound() {
+        dataCommunicator.setDataProvider(DataProvider.fromCallbacks(
+                query -> IntStream
+                        .range(query.getOffset(),
+                                Math.min(230,
+                                        query.getOffset() + query.getLimit()))
+                        .mapToObj(Integer::toString),
+                query -> {
+                    throw new AssertionError("Size should not be queried");
+                }), null);
+        dataCommunicator.setDefinedSize(false);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(200);
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+
+        dataCommunicator.setRequestedRange(150, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(400);
+        Assert.assertEquals(Range.withLength(150, 50), lastSet);
+
+        dataCommunicator.setRequestedRange(180, 60);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(230);
+        Assert.assertEquals(Range.withLength(180, 50), lastSet);
+        Assert.assertEquals(Range.withLength(150, 50), lastClear);
+
+        dataCommunicator.setRequestedRange(200, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater, Mockito.times(2)).startUpdate(230);
+    }
+
+    @Test
+    public void undefinedSize_emptyPage_estimateShrunkUntilEndFound() {
+        dataCommunicator.setDataProvider(DataProvider.fromCallbacks(
+                query -> IntStream
+                        .range(query.getOffset(),
+                                Math.min(230,
+                                        query.getOffset() + query.getLimit()))
+                        .mapToObj(Integer::toString),
+                query -> {
+                    throw new AssertionError("Size should not be queried");
+                }), null);
+        dataCommunicator.setDefinedSize(false);
+
+        dataCommunicator.setRequestedRange(150, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(400);
+
+        // Past the end, but the end is not known
+        dataCommunicator.setRequestedRange(350, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(350);
+        Mockito.verify(arrayUpdater, Mockito.never()).startUpdate(600);
+
+        // Not grown past the empty page
+        dataCommunicator.setRequestedRange(300, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(300);
+
+        dataCommunicator.setRequestedRange(200, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(230);
+        Assert.assertEquals(Range.withLength(200, 30), lastSet);
+    }
+
+    @Test
+    public void undefinedSize_noData_exactSizeZero() {
+        dataCommunicator.setDataProvider(DataProvider.fromCallbacks(
+                query -> Stream.empty(), query -> {
+                    throw new AssertionError("Size should not be queried");
+                }), null);
+        dataCommunicator.setDefinedSize(false);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(0);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater, Mockito.times(2)).startUpdate(0);
+        Mockito.verify(arrayUpdater, Mockito.never()).startUpdate(200);
+    }
+
+    @Test
+    public void undefinedSize_reset_estimateStartsOver() {
+        dataCommunicator.setDataProvider(DataProvider.fromCallbacks(
+                query -> IntStream
+                        .range(query.getOffset(),
+                                Math.min(100,
+                                        query.getOffset() + query.getLimit()))
+                        .mapToObj(Integer::toString),
+                query -> 100), null);
+        dataCommunicator.setDefinedSize(false);
+        dataCommunicator.setItemCountEstimate(500);
+
+        dataCommunicator.setRequestedRange(0, 150);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater).startUpdate(100);
+
+        dataCommunicator.reset();
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Mockito.verify(arrayUpdater, Mockito.times(2)).startUpdate(100);
+        Mockito.verify(arrayUpdater, Mockito.never()).startUpdate(500);
+    }
+
+    private void enablePush() {
+        ui.getInternals().getStateTree().getRootNode()
+                .getFeature(PushConfigurationMap.class)
+                .setPushMode(PushMode.AUTOMATIC);
+    }
+
+    private static AsyncDataProvider<String, Void> createAsyncDataProvider(
+            int size, List<Runnable> backgroundTasks) {
+        return new AsyncCallbackDataProvider<>(
+                query -> IntStream
+                        .range(query.getOffset(),
+                                Math.min(size,
+                                        query.getOffset() + query.getLimit()))
+                        .mapToObj(Integer::toString),
+                query -> size, backgroundTasks::add);
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        List<Runnable> copy = new ArrayList<>(tasks);
+        tasks.clear();
+        copy.forEach(Runnable::run);
+    }
+
     public static class MockUI extends UI {
 
+        private final List<Runnable> pendingAccess = new ArrayList<>();
+
         public MockUI() {
             this(findOrcreateSession());
         }
@@ -167,6 +488,13 @@ public class DataCommunicatorTest {
             // Do nothing
         }
 
+        @Override
+        public Future<Void> access(Command command) {
+            // Run manually to simulate the session lock being released
+            pendingAccess.add(command::execute);
+            return null;
+        }
+
         private static VaadinSession findOrcreateSession() {
             VaadinSession session = VaadinSession.getCurrent();
             if (session == null) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.provider;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.function.SerializableComparator;
+import com.vaadin.flow.function.SerializablePredicate;
+
+public class IndexedListDataProviderTest
+        extends DataProviderTestBase<IndexedListDataProvider<StrBean>> {
+
+    @Override
+    protected IndexedListDataProvider<StrBean> createDataProvider() {
+        return new IndexedListDataProvider<>(data);
+    }
+
+    @Test
+    public void fetchPages_sortedAndFilteredOnlyOnce() {
+        AtomicInteger comparisons = new AtomicInteger();
+        AtomicInteger filterCalls = new AtomicInteger();
+        Comparator<StrBean> comparator = (bean1, bean2) -> {
+            comparisons.incrementAndGet();
+            return Integer.compare(bean1.getRandomNumber(),
+                    bean2.getRandomNumber());
+        };
+        SerializablePredicate<StrBean> filter = bean -> {
+            filterCalls.incrementAndGet();
+            return fooFilter.test(bean);
+        };
+
+        List<StrBean> expected = data.stream().filter(fooFilter)
+                .sorted(comparator).collect(Collectors.toList());
+        comparisons.set(0);
+
+        int size = dataProvider.size(createQuery(0, 0, comparator, filter));
+        List<StrBean> fetched = new ArrayList<>();
+        for (int offset = 0; offset < size; offset += 10) {
+            dataProvider.fetch(createQuery(offset, 10, comparator, filter))
+                    .forEach(fetched::add);
+        }
+
+        Assert.assertEquals(expected.size(), size);
+        Assert.assertEquals(expected, fetched);
+        Assert.assertEquals(data.size(), filterCalls.get());
+        int callsForOneSort = comparisons.get();
+
+        dataProvider.fetch(createQuery(0, 10, comparator, filter)).count();
+        Assert.assertEquals(callsForOneSort, comparisons.get());
+    }
+
+    @Test
+    public void fetch_offsetAndLimitOutOfRange_returnsAvailableItems() {
+        Assert.assertEquals(10, dataProvider
+                .fetch(createQuery(data.size() - 10, 100, null, null))
+                .count());
+        Assert.assertEquals(0, dataProvider
+                .fetch(createQuery(data.size() + 10, 10, null, null))
+                .count());
+        Assert.assertEquals(data.size(), dataProvider
+                .fetch(createQuery(0, Integer.MAX_VALUE, null, null))
+                .count());
+    }
+
+    @Test
+    public void refreshItem_sortedView_itemMovedToNewPosition() {
+        SerializableComparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue)
+                .thenComparing(StrBean::getId)::compare;
+        dataProvider.setSortComparator(comparator);
+        dataProvider.size(new Query<>());
+
+        for (StrBean bean : data.subList(0, 20)) {
+            bean.setValue(bean.getValue().equals("Foo") ? "Zzz" : "Aaa");
+            dataProvider.refreshItem(bean);
+        }
+
+        assertSameAsFreshlySorted(null);
+    }
+
+    @Test
+    public void refreshItem_filteredView_itemAddedAndRemoved() {
+        dataProvider.size(new Query<>(fooFilter));
+
+        data.stream().limit(30).forEach(bean -> {
+            bean.setValue(bean.getValue().equals("Foo") ? "Bar" : "Foo");
+            dataProvider.refreshItem(bean);
+        });
+
+        assertSameAsFreshlySorted(fooFilter);
+    }
+
+    @Test
+    public void refreshItem_itemNotInBackend_notAdded() {
+        dataProvider.setSortComparator((bean1, bean2) -> Integer
+                .compare(bean1.getId(), bean2.getId()));
+        int size = dataProvider.size(new Query<>());
+
+        dataProvider.refreshItem(new StrBean("Foo", -1, 0));
+
+        Assert.assertEquals(size, dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void refreshAll_backendChanged_changesVisible() {
+        Assert.assertEquals(data.size(), dataProvider.size(new Query<>()));
+
+        data.remove(0);
+        Assert.assertEquals(data.size() + 1,
+                dataProvider.size(new Query<>()));
+
+        dataProvider.refreshAll();
+        Assert.assertEquals(data.size(), dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void setFilter_viewsDiscarded() {
+        Assert.assertEquals(data.size(), dataProvider.size(new Query<>()));
+
+        dataProvider.setFilter(fooFilter);
+
+        Assert.assertEquals(data.stream().filter(fooFilter).count(),
+                dataProvider.size(new Query<>()));
+    }
+
+    @Test
+    public void refreshItem_afterFetch_fetchedPageNotChanged() {
+        SerializableComparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue)
+                .thenComparing(StrBean::getId)::compare;
+        dataProvider.setSortComparator(comparator);
+        Stream<StrBean> page = dataProvider.fetch(new Query<>(0, 10, null,
+                null, null));
+        List<StrBean> expected = dataProvider
+                .fetch(new Query<>(0, 10, null, null, null))
+                .collect(Collectors.toList());
+
+        StrBean first = expected.get(0);
+        first.setValue("Zzz");
+        dataProvider.refreshItem(first);
+
+        Assert.assertEquals(expected, page.collect(Collectors.toList()));
+    }
+
+    @Test
+    public void refreshItem_concurrentFetch_viewsStayConsistent()
+            throws InterruptedException {
+        SerializableComparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue)
+                .thenComparing(StrBean::getId)::compare;
+        dataProvider.setSortComparator(comparator);
+        int size = dataProvider.size(new Query<>());
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    Assert.assertEquals(size,
+                            dataProvider.size(new Query<>()));
+                    dataProvider.fetch(new Query<>(i % size, 10, null, null,
+                            null)).forEach(Objects::requireNonNull);
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 1000; i++) {
+            StrBean bean = data.get(i % data.size());
+            bean.setValue(bean.getValue().equals("Foo") ? "Bar" : "Foo");
+            dataProvider.refreshItem(bean);
+        }
+        reader.join();
+
+        Assert.assertNull(failure.get());
+        assertSameAsFreshlySorted(null);
+    }
+
+    private void assertSameAsFreshlySorted(
+            SerializablePredicate<StrBean> filter) {
+        List<StrBean> cached = dataProvider.fetch(new Query<>(filter))
+                .collect(Collectors.toList());
+
+        dataProvider.refreshAll();
+        List<StrBean> fresh = dataProvider.fetch(new Query<>(filter))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(fresh, cached);
+    }
+
+    private static Query<StrBean, SerializablePredicate<StrBean>> createQuery(
+            int offset, int limit, Comparator<StrBean> comparator,
+            SerializablePredicate<StrBean> filter) {
+        return new Query<>(offset, limit, null, comparator, filter);
+    }
+
+    @Override
+    protected void setSortOrder(List<QuerySortOrder> sortOrder,
+            Comparator<StrBean> comp) {
+        SerializableComparator<StrBean> serializableComp = comp::compare;
+        getDataProvider().setSortComparator(serializableComp);
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.vaadin.flow.component;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
@@ -24,9 +27,14 @@ import java.util.Optional;
 
 import com.vaadin.flow.dom.DomEvent;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.internal.ReflectionCache;
 
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
 /**
  * Static helpers and caching functionality for {@link ComponentEventBus}.
  *
@@ -49,9 +57,21 @@ public class ComponentEventBusUtil {
         private final LinkedHashMap<String, Class<?>> dataExpressions;
         private final Constructor<? extends ComponentEvent<?>> eventConstructor;
 
+        // Resolved once so that firing an event needs no reflection
+        private final Class<?> sourceType;
+        private final String[] expressions;
+        private final Class<?>[] expressionTypes;
+        private final MethodHandle constructorHandle;
+
         public EventTypeInfo(Class<? extends ComponentEvent<?>> type) {
             eventConstructor = findEventConstructor(type);
             dataExpressions = findEventDataExpressions(eventConstructor);
+
+            sourceType = eventConstructor.getParameterTypes()[0];
+            expressions = dataExpressions.keySet().toArray(new String[0]);
+            expressionTypes = dataExpressions.values()
+                    .toArray(new Class<?>[0]);
+            constructorHandle = createConstructorHandle(eventConstructor);
         }
     }
 
@@ -127,6 +147,83 @@ public class ComponentEventBusUtil {
         return (Constructor<T>) cache.get(eventType).eventConstructor;
     }
 
+    /**
+     * Creates a component event of the given type based on a DOM event, using
+     * the constructor returned by {@link #getEventConstructor(Class)}.
+     *
+     * @param <T>
+     *            the event type
+     * @param eventType
+     *            the event type
+     * @param domEvent
+     *            the DOM event to get event data from
+     * @param source
+     *            the component which is the source of the event
+     * @return the created event
+     * @throws IllegalArgumentException
+     *             if the source type is not accepted by the event constructor
+     *             or if the event cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends ComponentEvent<?>> T createEventForDomEvent(
+            Class<T> eventType, DomEvent domEvent, Component source) {
+        EventTypeInfo info = cache.get(eventType);
+
+        // Make sure that the source component type is ok
+        if (!info.sourceType.isInstance(source)) {
+            throw new IllegalArgumentException(String.format(
+                    "The event type %s define the source type to be %s, which is not compatible with the used source of type %s",
+                    eventType.getName(), info.sourceType.getName(),
+                    source.getClass().getName()));
+        }
+
+        String[] expressions = info.expressions;
+        Object[] params = new Object[expressions.length + 2];
+        params[0] = source;
+        params[1] = Boolean.TRUE; // From client
+
+        JsonObject eventData = domEvent.getEventData();
+        for (int i = 0; i < expressions.length; i++) {
+            JsonValue jsonValue = eventData.get(expressions[i]);
+            if (jsonValue == null) {
+                jsonValue = Json.createNull();
+            }
+            params[i + 2] = JsonCodec.decodeAs(jsonValue,
+                    info.expressionTypes[i]);
+        }
+
+        try {
+            return (T) (ComponentEvent<?>) info.constructorHandle
+                    .invokeExact(params);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException(
+                    "Unable to create an event object of type "
+                            + eventType.getName(),
+                    e);
+        }
+    }
+
+    /**
+     * Creates a method handle that invokes the given constructor with the
+     * parameters in an <code>Object[]</code> and returns the created event as
+     * a {@link ComponentEvent}.
+     */
+    private static MethodHandle createConstructorHandle(
+            Constructor<? extends ComponentEvent<?>> constructor) {
+        try {
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class,
+                            constructor.getParameterCount())
+                    .asType(MethodType.methodType(ComponentEvent.class,
+                            Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(
+                    "Unable to access the constructor " + constructor, e);
+        }
+    }
+
     /**
      * Scans through the given event type class and tries to find a suitable
      * constructor to use for firing DOM Events.
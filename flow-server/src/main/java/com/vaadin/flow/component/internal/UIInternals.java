@@ -139,6 +139,11 @@ public class UIInternals implements Serializable {
      */
     private long lastHeartbeatTimestamp = System.currentTimeMillis();
 
+    /**
+     * Timestamp of the last UIDL request for the related UI.
+     */
+    private long lastRequestTimestamp = System.currentTimeMillis();
+
     private List<JavaScriptInvocation> pendingJsInvocations = new ArrayList<>();
 
     /**
@@ -283,6 +288,33 @@ public class UIInternals implements Serializable {
         lastHeartbeatTimestamp = lastHeartbeat;
     }
 
+    /**
+     * Returns the time when the last UIDL request was handled for the related
+     * UI, or the time when the UI was created if there have been no UIDL
+     * requests.
+     *
+     * @see VaadinService#cleanupSession(VaadinSession)
+     *
+     * @return the time of the last UIDL request, in milliseconds since the
+     *         epoch
+     */
+    public long getLastRequestTimestamp() {
+        return lastRequestTimestamp;
+    }
+
+    /**
+     * Sets the time when the last UIDL request was handled for the related UI.
+     * Called by the framework whenever the application receives a UIDL request
+     * for the UI.
+     *
+     * @param lastRequest
+     *            the time of the last UIDL request, in milliseconds since the
+     *            epoch
+     */
+    public void setLastRequestTimestamp(long lastRequest) {
+        lastRequestTimestamp = lastRequest;
+    }
+
     @SuppressWarnings("unchecked")
     private static Class<? extends NodeFeature>[] getRootNodeFeatures() {
         // Start with all element features
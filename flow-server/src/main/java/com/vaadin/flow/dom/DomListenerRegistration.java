@@ -0,0 +1,85 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.dom;
+
+import com.vaadin.flow.shared.Registration;
+
+/**
+ * A registration for a DOM event listener that can be used for removing the
+ * listener and for configuring which events are sent to the server for the
+ * listener.
+ * <p>
+ * The filter and the rate limit are applied in the browser, so events that
+ * don't pass them are never sent to the server.
+ *
+ * @see Element#addEventListener(String, DomEventListener, String...)
+ *
+ * @author Vaadin Ltd
+ */
+public interface DomListenerRegistration extends Registration {
+
+    /**
+     * Sets a JavaScript expression that is evaluated in the browser to decide
+     * whether an event should be sent to the server for this listener. The
+     * expression is evaluated in the same context as event data expressions,
+     * i.e. <code>element</code> refers to the element and <code>event</code>
+     * to the fired event. The listener is only invoked for events for which
+     * the expression evaluates to a truthy value, e.g.
+     * <code>event.key === 'Enter'</code>.
+     *
+     * @param filter
+     *            the filter expression, or <code>null</code> to not filter
+     *            events
+     * @return this registration, for chaining
+     */
+    DomListenerRegistration setFilter(String filter);
+
+    /**
+     * Gets the filter expression of this listener.
+     *
+     * @see #setFilter(String)
+     *
+     * @return the filter expression, or <code>null</code> if events are not
+     *         filtered
+     */
+    String getFilter();
+
+    /**
+     * Configures this listener to only be invoked once no new events have
+     * been fired for the given time. The listener then gets the data of the
+     * latest event. Replaces any previously set debounce or throttle
+     * configuration.
+     *
+     * @param timeout
+     *            the time in milliseconds to wait for new events, or
+     *            <code>0</code> to send all events immediately
+     * @return this registration, for chaining
+     */
+    DomListenerRegistration debounce(int timeout);
+
+    /**
+     * Configures this listener to be invoked at most once within the given
+     * period. The first event is sent immediately, and the latest event that
+     * is fired during the period is sent at the end of the period. Replaces
+     * any previously set debounce or throttle configuration.
+     *
+     * @param period
+     *            the minimum time in milliseconds between two events, or
+     *            <code>0</code> to send all events immediately
+     * @return this registration, for chaining
+     */
+    DomListenerRegistration throttle(int period);
+}
@@ -506,9 +506,10 @@ public class Element extends Node<Element> {
      *            the type of event to listen to, not <code>null</code>
      * @param listener
      *            the listener to add, not <code>null</code>
-     * @return a handle that can be used for removing the listener
+     * @return a handle that can be used for removing the listener and for
+     *         configuring which events are sent to the server
      */
-    public Registration addEventListener(String eventType,
+    public DomListenerRegistration addEventListener(String eventType,
             DomEventListener listener) {
         return addEventListener(eventType, listener, new String[0]);
     }
@@ -532,8 +533,14 @@ public class Element extends Node<Element> {
      * triggered by the primary mouse button.
      * </ul>
      * <p>
+     * The returned registration can be used for filtering events in the
+     * browser and for debouncing or throttling them, so that events that the
+     * listener is not interested in are never sent to the server.
+     * <p>
      * Event listeners are triggered in the order they are registered.
      *
+     * @see DomListenerRegistration
+     *
      * @param eventType
      *            the type of event to listen to, not <code>null</code>
      * @param listener
@@ -541,9 +548,10 @@ public class Element extends Node<Element> {
      * @param eventDataExpressions
      *            definitions for data that should be passed back to the server
      *            together with the event
-     * @return a handle that can be used for removing the listener
+     * @return a handle that can be used for removing the listener and for
+     *         configuring which events are sent to the server
      */
-    public Registration addEventListener(String eventType,
+    public DomListenerRegistration addEventListener(String eventType,
             DomEventListener listener, String... eventDataExpressions) {
         if (eventType == null) {
             throw new IllegalArgumentException(EVENT_TYPE_MUST_NOT_BE_NULL);
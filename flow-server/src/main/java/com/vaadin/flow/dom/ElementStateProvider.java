@@ -202,9 +202,10 @@ public interface ElementStateProvider extends Serializable {
      * @param eventDataExpressions
      *            the event data expressions
      *
-     * @return a handle for removing the listener
+     * @return a handle for removing the listener and for configuring which
+     *         events are sent to it
      */
-    Registration addEventListener(StateNode node, String eventType,
+    DomListenerRegistration addEventListener(StateNode node, String eventType,
             DomEventListener listener, String[] eventDataExpressions);
 
     /**
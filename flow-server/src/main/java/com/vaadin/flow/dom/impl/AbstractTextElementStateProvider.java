@@ -23,6 +23,7 @@ import java.util.stream.Stream;
 import com.vaadin.flow.dom.ChildElementConsumer;
 import com.vaadin.flow.dom.ClassList;
 import com.vaadin.flow.dom.DomEventListener;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.dom.ElementStateProvider;
 import com.vaadin.flow.dom.NodeVisitor;
@@ -108,8 +109,9 @@ public abstract class AbstractTextElementStateProvider
     }
 
     @Override
-    public Registration addEventListener(StateNode node, String eventType,
-            DomEventListener listener, String[] eventDataExpressions) {
+    public DomListenerRegistration addEventListener(StateNode node,
+            String eventType, DomEventListener listener,
+            String[] eventDataExpressions) {
         throw new UnsupportedOperationException();
     }
 
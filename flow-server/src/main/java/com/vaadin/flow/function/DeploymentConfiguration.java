@@ -290,4 +290,108 @@ public interface DeploymentConfiguration extends Serializable {
         return !getBooleanProperty(Constants.DISABLE_WEBJARS,
                 isProductionMode());
     }
+
+    /**
+     * Determines if UIDL responses are streamed to the response as the state
+     * changes are collected. It is enabled unless the user has explicitly set
+     * {@link Constants#DISABLE_UIDL_STREAMING} property to {@code true}, in
+     * which case each response is first built as a JSON object tree.
+     *
+     * @return {@code true} if UIDL streaming is enabled, {@code false}
+     *         otherwise
+     */
+    default boolean isUidlStreamingEnabled() {
+        return !getBooleanProperty(Constants.DISABLE_UIDL_STREAMING, false);
+    }
+
+    /**
+     * Determines if UIDL responses to XHR requests and the RPC messages of
+     * those requests are sent using the compact binary encoding. Messages sent
+     * through push always use JSON. It is disabled unless the user has
+     * explicitly set
+     * {@link Constants#BINARY_UIDL} property to {@code true}.
+     *
+     * @return {@code true} if binary UIDL is enabled, {@code false} otherwise
+     */
+    default boolean isBinaryUidlEnabled() {
+        return getBooleanProperty(Constants.BINARY_UIDL, false);
+    }
+
+    /**
+     * Determines if UIDL responses are gzip compressed for clients that accept
+     * it. It is enabled unless the user has explicitly set
+     * {@link Constants#DISABLE_UIDL_COMPRESSION} property to {@code true}.
+     *
+     * @return {@code true} if UIDL compression is enabled, {@code false}
+     *         otherwise
+     */
+    default boolean isUidlCompressionEnabled() {
+        return !getBooleanProperty(Constants.DISABLE_UIDL_COMPRESSION, false);
+    }
+
+    /**
+     * Gets the maximum time in milliseconds that tasks enqueued using
+     * {@link com.vaadin.flow.server.VaadinSession#access(com.vaadin.flow.server.Command)}
+     * are run before the session lock is released and reacquired. The value is
+     * read from the {@link Constants#ACCESS_QUEUE_TIME_SLICE} property.
+     *
+     * @return the time slice in milliseconds, or <code>0</code> to run all
+     *         queued tasks at once
+     */
+    default int getAccessQueueTimeSlice() {
+        return getApplicationOrSystemProperty(Constants.ACCESS_QUEUE_TIME_SLICE,
+                0, Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum number of bytes of static resources and webjar contents
+     * to keep in memory. The value is read from the
+     * {@link Constants#STATIC_RESOURCE_CACHE_SIZE} property.
+     *
+     * @return the maximum number of bytes to keep in memory, or <code>0</code>
+     *         to not keep any resources in memory
+     */
+    default long getStaticResourceCacheSize() {
+        return getApplicationOrSystemProperty(
+                Constants.STATIC_RESOURCE_CACHE_SIZE,
+                Constants.DEFAULT_STATIC_RESOURCE_CACHE_SIZE, Long::parseLong);
+    }
+
+    /**
+     * Gets the regular expression for the names of static files whose contents
+     * never change. It is not set unless the user has explicitly set the
+     * {@link Constants#STATIC_RESOURCE_IMMUTABLE_PATTERN} property.
+     *
+     * @return the regular expression, or <code>null</code> if not set
+     */
+    default String getImmutableStaticResourcePattern() {
+        return getStringProperty(Constants.STATIC_RESOURCE_IMMUTABLE_PATTERN,
+                null);
+    }
+
+    /**
+     * Determines if the head of the bootstrap page is flushed to the browser
+     * before the initial UIDL is generated. It is disabled unless the user has
+     * explicitly set {@link Constants#BOOTSTRAP_STREAMING} property to
+     * {@code true}.
+     *
+     * @return {@code true} if bootstrap streaming is enabled, {@code false}
+     *         otherwise
+     */
+    default boolean isBootstrapStreamingEnabled() {
+        return getBooleanProperty(Constants.BOOTSTRAP_STREAMING, false);
+    }
+
+    /**
+     * Gets the number of seconds without UIDL requests after which a UI is
+     * passivated. The value is read from the
+     * {@link Constants#UI_PASSIVATION_TIMEOUT} property.
+     *
+     * @return the passivation timeout in seconds, or zero or a negative number
+     *         if UIs are never passivated
+     */
+    default int getUIPassivationTimeout() {
+        return getApplicationOrSystemProperty(Constants.UI_PASSIVATION_TIMEOUT,
+                -1, Integer::parseInt);
+    }
 }
@@ -16,9 +16,15 @@
 package com.vaadin.flow.internal;
 
 import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.flow.server.VaadinService;
 
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
@@ -31,13 +37,111 @@ import elemental.json.JsonValue;
  * This is a way of deduplicating JSON values that are expected to be sent to
  * the same client multiple times, since all references to the same JSON
  * structure will be encoded as the same id.
+ * <p>
+ * The id and the JSON value are interned in the {@link InternTable} of the
+ * current {@link VaadinService}, so that all keys for the same JSON structure
+ * share them regardless of the UI they are used in. The id is only calculated
+ * the first time a JSON structure is encountered while any key for it is in
+ * use.
  *
  * @author Vaadin Ltd
  */
 public class ConstantPoolKey implements Serializable {
-    // Only stored until delivered to the client
-    private JsonValue json;
-    private final String id;
+
+    /**
+     * Used when there is no current service, e.g. when a session is
+     * deserialized.
+     */
+    private static final InternTable SHARED_INTERN_TABLE = new InternTable();
+
+    /**
+     * A table of interned constant pool values, keyed by the JSON string of
+     * the value. Values are weakly referenced, so an entry is removed when no
+     * constant pool key uses it any longer. Looking up a value doesn't lock.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     */
+    public static final class InternTable implements Serializable {
+        private final transient ConcurrentHashMap<String, ConstantReference> constants = new ConcurrentHashMap<>();
+        private final transient ReferenceQueue<Constant> staleReferences = new ReferenceQueue<>();
+
+        private Constant get(String jsonString) {
+            ConstantReference reference = constants.get(jsonString);
+            return reference == null ? null : reference.get();
+        }
+
+        private Constant intern(Constant constant) {
+            removeStaleEntries();
+
+            ConstantReference reference = new ConstantReference(constant,
+                    staleReferences);
+            while (true) {
+                ConstantReference existing = constants
+                        .putIfAbsent(constant.jsonString, reference);
+                if (existing == null) {
+                    return constant;
+                }
+                Constant interned = existing.get();
+                if (interned != null) {
+                    return interned;
+                }
+                if (constants.replace(constant.jsonString, existing,
+                        reference)) {
+                    return constant;
+                }
+            }
+        }
+
+        private void removeStaleEntries() {
+            Reference<? extends Constant> stale;
+            while ((stale = staleReferences.poll()) != null) {
+                ConstantReference reference = (ConstantReference) stale;
+                constants.remove(reference.jsonString, reference);
+            }
+        }
+
+        private Object readResolve() {
+            // The interned values are not serialized
+            return new InternTable();
+        }
+    }
+
+    /**
+     * A weak reference to an interned constant that knows the key of its
+     * entry, so that the entry can be removed once the constant is collected.
+     */
+    private static final class ConstantReference
+            extends WeakReference<Constant> {
+        private final String jsonString;
+
+        private ConstantReference(Constant constant,
+                ReferenceQueue<Constant> queue) {
+            super(constant, queue);
+            jsonString = constant.jsonString;
+        }
+    }
+
+    /**
+     * The id and value of an interned JSON constant.
+     */
+    private static final class Constant implements Serializable {
+        private final String jsonString;
+        private final JsonValue json;
+        private final String id;
+
+        private Constant(String jsonString, JsonValue json) {
+            this.jsonString = jsonString;
+            this.json = json;
+            id = calculateHash(jsonString);
+        }
+
+        private Object readResolve() {
+            // Share the interned instance also after deserialization
+            return getInternTable().intern(this);
+        }
+    }
+
+    private final Constant constant;
 
     /**
      * Creates a new constant pool key for the given JSON value. The value
@@ -49,9 +153,12 @@ public class ConstantPoolKey implements Serializable {
      */
     public ConstantPoolKey(JsonValue json) {
         assert json != null;
-        this.json = json;
 
-        id = calculateHash(json);
+        String jsonString = json.toJson();
+        InternTable table = getInternTable();
+        Constant interned = table.get(jsonString);
+        constant = interned != null ? interned
+                : table.intern(new Constant(jsonString, json));
     }
 
     /**
@@ -60,37 +167,43 @@ public class ConstantPoolKey implements Serializable {
      * @return the id used to identify this value
      */
     public String getId() {
-        return id;
+        return constant.id;
     }
 
     /**
      * Exports the this key into a JSON object to send to the client. This
-     * method should only be called once and only by the {@link ConstantPool}
-     * instance that manages this value.
+     * method should only be called by the {@link ConstantPool} instance that
+     * manages this value.
      *
      * @param clientConstantPoolUpdate
      *            the constant pool update that is to be sent to the client, not
      *            <code>null</code>
      */
     public void export(JsonObject clientConstantPoolUpdate) {
-        assert json != null : "Process can only be called once";
-        assert id.equals(calculateHash(json)) : "Json value has been changed";
+        assert constant.jsonString.equals(
+                constant.json.toJson()) : "Json value has been changed";
 
-        clientConstantPoolUpdate.put(id, json);
+        clientConstantPoolUpdate.put(constant.id, constant.json);
+    }
 
-        json = null;
+    private static InternTable getInternTable() {
+        VaadinService service = VaadinService.getCurrent();
+        InternTable table = service == null ? null
+                : service.getConstantPoolInternTable();
+        return table == null ? SHARED_INTERN_TABLE : table;
     }
 
     /**
      * Calculates the key of a JSON value by Base 64 encoding the first 64 bits
      * of the SHA-256 digest of the JSON's string representation.
      *
-     * @param json
-     *            the JSON to get a hash of, not <code>null</code>
+     * @param jsonString
+     *            the string representation of the JSON to get a hash of, not
+     *            <code>null</code>
      * @return the key uniquely identifying the given JSON value
      */
-    private static String calculateHash(JsonValue json) {
-        byte[] digest = MessageDigestUtil.sha256(json.toJson());
+    private static String calculateHash(String jsonString) {
+        byte[] digest = MessageDigestUtil.sha256(jsonString);
 
         /*
          * Only use first 64 bits to keep id string short (1 in 100 000 000
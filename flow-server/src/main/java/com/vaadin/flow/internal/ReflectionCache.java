@@ -15,13 +15,31 @@
  */
 package com.vaadin.flow.internal;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 /**
  * A thread-safe cache for the result of doing some reflection lookup based on a
  * class. Cached values never expire since it's assumed that the there is a
  * finite number of classes for which reflection results are used.
+ * <p>
+ * For classes loaded by the class loader of this class or by its descendants,
+ * the values are stored using a {@link ClassValue}, i.e. together with the
+ * class they are computed for. A cached value thus doesn't prevent the class or
+ * its class loader from being garbage collected, e.g. when a web application is
+ * redeployed while the cache itself is in a shared class loader.
+ * <p>
+ * A value stored in a class from a parent or unrelated class loader would
+ * instead keep the cache and everything the value refers to alive for as long
+ * as that class, e.g. when the cache is in a web application and the class is
+ * in a shared library. Values for such classes are kept in a map with weak keys
+ * and weak values, so they may be computed again after they have been garbage
+ * collected.
  *
  * @author Vaadin Ltd
  * @param <C>
@@ -30,7 +48,31 @@ import java.util.function.Function;
  *            the cached value type
  */
 public class ReflectionCache<C, T> {
-    private final ConcurrentHashMap<Class<? extends C>, T> values = new ConcurrentHashMap<>();
+    private final ClassValue<T> values = new ClassValue<T>() {
+        @Override
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        protected T computeValue(Class<?> type) {
+            missCount.increment();
+            /*
+             * Raw cast since the value provider is declared to accept
+             * <? extends Class<C>>, which isn't compatible with Class<?>.
+             */
+            T value = (T) ((Function) valueProvider).apply(type);
+            types.add(type);
+            return value;
+        }
+    };
+
+    // Only used for contains, clear and size, the values are in the classes
+    private final Set<Class<?>> types = Collections
+            .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    // Values for classes that may outlive the class loader of this class
+    private final Map<Class<?>, WeakReference<T>> externalValues = Collections
+            .synchronizedMap(new WeakHashMap<>());
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
 
     private final Function<? extends Class<C>, T> valueProvider;
 
@@ -59,16 +101,50 @@ public class ReflectionCache<C, T> {
      *            the type for which to get reflection results
      * @return the reflection results
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     public T get(Class<? extends C> type) {
-        /*
-         * Raw cast since the mapping function is declared to accept <? super
-         * K>, which in this case becomes <? super Class<?>>, which isn't
-         * compatible with Class<C>.
-         */
-        Object value = values.computeIfAbsent(type, (Function) valueProvider);
-        // Explicit cast since javac doesn't agree with ecj
-        return (T) value;
+        requestCount.increment();
+        if (isOwnClass(type)) {
+            return values.get(type);
+        }
+
+        WeakReference<T> reference = externalValues.get(type);
+        T value = reference == null ? null : reference.get();
+        if (value != null) {
+            return value;
+        }
+        // Computed without locking since the provider may use this cache
+        missCount.increment();
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        T computed = (T) ((Function) valueProvider).apply(type);
+        synchronized (externalValues) {
+            reference = externalValues.get(type);
+            value = reference == null ? null : reference.get();
+            if (value == null) {
+                value = computed;
+                externalValues.put(type, new WeakReference<>(value));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether the given type is loaded by the class loader of this
+     * class or by one of its descendants, so that the type can't outlive the
+     * values computed by this cache.
+     */
+    private static boolean isOwnClass(Class<?> type) {
+        ClassLoader ownLoader = ReflectionCache.class.getClassLoader();
+        if (ownLoader == null) {
+            return true;
+        }
+        ClassLoader loader = type.getClassLoader();
+        while (loader != null) {
+            if (loader == ownLoader) {
+                return true;
+            }
+            loader = loader.getParent();
+        }
+        return false;
     }
 
     /**
@@ -80,13 +156,53 @@ public class ReflectionCache<C, T> {
      *         <code>false</code> if there is no mapping
      */
     public boolean contains(Class<? extends C> type) {
-        return values.containsKey(type);
+        if (isOwnClass(type)) {
+            return types.contains(type);
+        }
+        WeakReference<T> reference = externalValues.get(type);
+        return reference != null && reference.get() != null;
+    }
+
+    /**
+     * Gets the number of types that currently have a value in this cache.
+     * Types and values that have been garbage collected are not included.
+     *
+     * @return the number of cached values
+     */
+    public int size() {
+        synchronized (externalValues) {
+            return types.size() + (int) externalValues.values().stream()
+                    .filter(reference -> reference.get() != null).count();
+        }
+    }
+
+    /**
+     * Gets the number of times a value has been found in this cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return Math.max(0, requestCount.sum() - missCount.sum());
+    }
+
+    /**
+     * Gets the number of times a value has been computed using the value
+     * provider.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.sum();
     }
 
     /**
      * Removes all mappings from this cache.
      */
     public void clear() {
-        values.clear();
+        synchronized (types) {
+            types.forEach(values::remove);
+            types.clear();
+        }
+        externalValues.clear();
     }
 }
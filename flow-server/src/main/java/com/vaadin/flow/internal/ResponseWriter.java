@@ -18,10 +18,14 @@ package com.vaadin.flow.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Base64;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,14 +37,62 @@ import javax.servlet.http.HttpServletResponse;
 
 /**
  * The class that handles writing the response data into the response.
+ * <p>
+ * The writer can optionally keep the contents of the resources it has written
+ * in memory, so that later responses for the same resource are written with a
+ * single bulk write without opening a connection to the resource. A content
+ * based ETag is then also calculated once for each resource. This should only
+ * be used for resources that don't change while the application is running.
  *
  * @author Vaadin Ltd.
  */
 public class ResponseWriter implements Serializable {
-    private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+    /**
+     * The buffer size used for copying resource contents by default.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+    private static final String GZIP_SUFFIX = ".gz";
 
     private final int bufferSize;
 
+    private final long resourceCacheSize;
+
+    private final AtomicLong resourceCacheUsage = new AtomicLong();
+
+    private transient ConcurrentHashMap<String, CachedResource> resourceCache = new ConcurrentHashMap<>();
+
+    /**
+     * The ETag and, if it fits in the cache, the contents of a resource and
+     * its precompressed variant.
+     */
+    private static class CachedResource implements Serializable {
+        private final String eTag;
+        private final boolean hasGzippedVariant;
+        private final byte[] data;
+        private final byte[] gzippedData;
+
+        private CachedResource(String eTag, boolean hasGzippedVariant,
+                byte[] data, byte[] gzippedData) {
+            this.eTag = eTag;
+            this.hasGzippedVariant = hasGzippedVariant;
+            this.data = data;
+            this.gzippedData = gzippedData;
+        }
+
+        private boolean hasContents() {
+            return data != null;
+        }
+
+        private long getSize() {
+            if (data == null) {
+                return 0;
+            }
+            return data.length
+                    + (gzippedData == null ? 0 : gzippedData.length);
+        }
+    }
+
     /**
      * Create a response writer with buffer size equal to
      * {@link ResponseWriter#DEFAULT_BUFFER_SIZE}.
@@ -56,7 +108,24 @@ public class ResponseWriter implements Serializable {
      *            custom buffer size
      */
     public ResponseWriter(int bufferSize) {
+        this(bufferSize, 0);
+    }
+
+    /**
+     * Creates a response writer with custom buffer size that keeps the
+     * contents of written resources in memory up to the given total size.
+     * Resources larger than an eighth of the total size are never kept in
+     * memory.
+     *
+     * @param bufferSize
+     *            custom buffer size
+     * @param resourceCacheSize
+     *            the maximum number of bytes to keep in memory, or
+     *            <code>0</code> to not keep any resources in memory
+     */
+    public ResponseWriter(int bufferSize, long resourceCacheSize) {
         this.bufferSize = bufferSize;
+        this.resourceCacheSize = resourceCacheSize;
     }
 
     /**
@@ -80,12 +149,19 @@ public class ResponseWriter implements Serializable {
             throws IOException {
         writeContentType(filenameWithPath, request, response);
 
+        CachedResource cachedResource = getCachedResource(filenameWithPath,
+                resourceUrl, request);
+        if (cachedResource != null && cachedResource.hasContents()) {
+            writeCachedResource(cachedResource, request, response);
+            return;
+        }
+
         URLConnection connection = null;
         InputStream dataStream = null;
 
         if (acceptsGzippedResource(request)) {
             // try to serve a gzipped version if available
-            String gzippedFilenameWithPath = filenameWithPath + ".gz";
+            String gzippedFilenameWithPath = filenameWithPath + GZIP_SUFFIX;
             try {
                 URL url = request.getServletContext()
                         .getResource(gzippedFilenameWithPath);
@@ -130,6 +206,155 @@ public class ResponseWriter implements Serializable {
         }
     }
 
+    /**
+     * Gets a strong ETag for the representation of the given resource that
+     * would be written for the given request. The ETag is based on the
+     * contents of the resource and is only calculated once for each resource.
+     *
+     * @param filenameWithPath
+     *            the name of the file being sent
+     * @param resourceUrl
+     *            the URL to the file, reported by the servlet container
+     * @param request
+     *            the request object to read from
+     * @return the quoted ETag, or <code>null</code> if this writer doesn't
+     *         keep resources in memory or the resource could not be read
+     */
+    public String getETag(String filenameWithPath, URL resourceUrl,
+            HttpServletRequest request) {
+        CachedResource resource = getCachedResource(filenameWithPath,
+                resourceUrl, request);
+        if (resource == null) {
+            return null;
+        }
+        if (resource.hasGzippedVariant && acceptsGzippedResource(request)) {
+            return '"' + resource.eTag + "-gzip\"";
+        }
+        return '"' + resource.eTag + '"';
+    }
+
+    private void writeCachedResource(CachedResource resource,
+            HttpServletRequest request, HttpServletResponse response) {
+        byte[] data = resource.data;
+        if (resource.gzippedData != null && acceptsGzippedResource(request)) {
+            data = resource.gzippedData;
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLengthLong(data.length);
+
+        try {
+            response.getOutputStream().write(data);
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        }
+    }
+
+    private CachedResource getCachedResource(String filenameWithPath,
+            URL resourceUrl, HttpServletRequest request) {
+        if (resourceCacheSize <= 0) {
+            return null;
+        }
+        CachedResource resource = resourceCache.get(filenameWithPath);
+        if (resource != null) {
+            return resource;
+        }
+
+        try {
+            resource = readResource(filenameWithPath, resourceUrl, request);
+        } catch (IOException e) {
+            getLogger().debug("Unable to read resource {} into memory",
+                    filenameWithPath, e);
+            return null;
+        }
+
+        CachedResource existing = resourceCache.putIfAbsent(filenameWithPath,
+                resource);
+        if (existing != null) {
+            // Some other thread read the resource at the same time
+            resourceCacheUsage.addAndGet(-resource.getSize());
+            return existing;
+        }
+        return resource;
+    }
+
+    private CachedResource readResource(String filenameWithPath,
+            URL resourceUrl, HttpServletRequest request) throws IOException {
+        URL gzippedUrl = request.getServletContext()
+                .getResource(filenameWithPath + GZIP_SUFFIX);
+        boolean hasGzippedVariant = gzippedUrl != null;
+
+        long maxResourceSize = resourceCacheSize / 8;
+        byte[] data = null;
+        byte[] gzippedData = null;
+        if (resourceCacheUsage.get() < resourceCacheSize) {
+            data = readFully(resourceUrl, maxResourceSize);
+            if (data != null && hasGzippedVariant) {
+                gzippedData = readFully(gzippedUrl, maxResourceSize);
+            }
+        }
+
+        String eTag;
+        if (data != null) {
+            eTag = encodeETag(MessageDigestUtil.sha256(data));
+        } else {
+            try (InputStream stream = resourceUrl.openStream()) {
+                eTag = encodeETag(MessageDigestUtil.sha256(stream));
+            }
+        }
+
+        if (data == null || hasGzippedVariant && gzippedData == null) {
+            // Too large to keep in memory, only remember the ETag
+            return new CachedResource(eTag, hasGzippedVariant, null, null);
+        }
+
+        CachedResource resource = new CachedResource(eTag, hasGzippedVariant,
+                data, gzippedData);
+        long size = resource.getSize();
+        if (resourceCacheUsage.addAndGet(size) > resourceCacheSize) {
+            // Cache is full, only remember the ETag
+            resourceCacheUsage.addAndGet(-size);
+            return new CachedResource(eTag, hasGzippedVariant, null, null);
+        }
+        return resource;
+    }
+
+    private static String encodeETag(byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    /**
+     * Reads the contents of the given URL, or returns <code>null</code> if
+     * the length of the contents is unknown or larger than the given size.
+     */
+    private byte[] readFully(URL url, long maxSize) throws IOException {
+        URLConnection connection = url.openConnection();
+        try (InputStream stream = connection.getInputStream()) {
+            long length = connection.getContentLengthLong();
+            if (length < 0 || length > maxSize) {
+                return null;
+            }
+            byte[] data = new byte[(int) length];
+            int offset = 0;
+            int bytes;
+            while (offset < data.length && (bytes = stream.read(data, offset,
+                    data.length - offset)) >= 0) {
+                offset += bytes;
+            }
+            if (offset != data.length || stream.read() != -1) {
+                // Reported length doesn't match the actual contents
+                return null;
+            }
+            return data;
+        }
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        resourceCache = new ConcurrentHashMap<>();
+        resourceCacheUsage.set(0);
+    }
+
     private void writeStream(ServletOutputStream outputStream,
             InputStream inputStream) throws IOException {
         final byte[] buffer = new byte[bufferSize];
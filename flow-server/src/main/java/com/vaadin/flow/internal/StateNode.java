@@ -16,16 +16,20 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -58,30 +62,99 @@ public class StateNode implements Serializable {
      */
     private static final Map<Set<Class<? extends NodeFeature>>, Set<Class<? extends NodeFeature>>> nodeFeatureSetCache = new ConcurrentHashMap<>();
 
-    private final Map<Class<? extends NodeFeature>, NodeFeature> features = new HashMap<>();
+    /**
+     * Cache of feature layouts, keyed by the feature types of the layout in
+     * registry order.
+     */
+    private static final Map<List<Class<? extends NodeFeature>>, FeatureLayout> featureLayoutCache = new ConcurrentHashMap<>();
+
+    /**
+     * Describes where in the feature array of a node each feature type is
+     * stored. Nodes with the same set of features share the same instance.
+     */
+    private static final class FeatureLayout implements Serializable {
+        private final Class<? extends NodeFeature>[] types;
+
+        private final int[] indexById;
+
+        private FeatureLayout(Class<? extends NodeFeature>[] types) {
+            this.types = types;
+
+            int maxId = -1;
+            for (Class<? extends NodeFeature> type : types) {
+                maxId = Math.max(maxId, NodeFeatureRegistry.getId(type));
+            }
+            indexById = new int[maxId + 1];
+            Arrays.fill(indexById, -1);
+            for (int i = 0; i < types.length; i++) {
+                indexById[NodeFeatureRegistry.getId(types[i])] = i;
+            }
+        }
+
+        private int indexOf(Class<? extends NodeFeature> type) {
+            int id = NodeFeatureRegistry.getId(type);
+            return id < indexById.length ? indexById[id] : -1;
+        }
+
+        private static FeatureLayout get(
+                Collection<Class<? extends NodeFeature>> featureTypes) {
+            @SuppressWarnings("unchecked")
+            Class<? extends NodeFeature>[] types = featureTypes
+                    .toArray(new Class[featureTypes.size()]);
+            Arrays.sort(types,
+                    Comparator.comparingInt(NodeFeatureRegistry::getId));
+
+            return featureLayoutCache.computeIfAbsent(Arrays.asList(types),
+                    key -> new FeatureLayout(types));
+        }
 
-    private final Set<Class<? extends NodeFeature>> reportedFeatures;
+        private Object readResolve() {
+            // Share the instance also after deserialization
+            return get(Arrays.asList(types));
+        }
+    }
+
+    /*
+     * All instance fields are transient since they are written explicitly by
+     * writeObject. Features that are in their initial state are not written
+     * at all, since they can be created again when deserializing.
+     */
+
+    private transient FeatureLayout featureLayout;
+
+    /**
+     * Features of this node, stored at the index given by
+     * {@link #featureLayout}.
+     */
+    private transient NodeFeature[] features;
 
-    private Map<Class<? extends NodeFeature>, Serializable> changes;
+    private transient Set<Class<? extends NodeFeature>> reportedFeatures;
 
-    private List<Command> attachListeners;
+    /**
+     * Change trackers of the features, indexed by the feature id from
+     * {@link NodeFeatureRegistry}. The array is only as long as needed for the
+     * highest id with a tracker.
+     */
+    private transient Serializable[] changes;
 
-    private List<Command> detachListeners;
+    private transient List<Command> attachListeners;
 
-    private NodeOwner owner = NullOwner.get();
+    private transient List<Command> detachListeners;
 
-    private StateNode parent;
+    private transient NodeOwner owner = NullOwner.get();
 
-    private int id = -1;
+    private transient StateNode parent;
+
+    private transient int id = -1;
 
     // Only the root node is attached at this point
-    private boolean wasAttached = isAttached();
+    private transient boolean wasAttached = isAttached();
 
-    private boolean isInactiveSelf;
+    private transient boolean isInactiveSelf;
 
-    private boolean isInitialChanges = true;
+    private transient boolean isInitialChanges = true;
 
-    private ArrayList<StateTree.BeforeClientResponseEntry> beforeClientResponseEntries;
+    private transient ArrayList<StateTree.BeforeClientResponseEntry> beforeClientResponseEntries;
 
     /**
      * Creates a state node with the given feature types.
@@ -121,8 +194,15 @@ public class StateNode implements Serializable {
     public StateNode(List<Class<? extends NodeFeature>> reportableFeatureTypes,
             Class<? extends NodeFeature>... nonReportableFeatureTypes) {
         reportedFeatures = getCachedFeatureSet(reportableFeatureTypes);
-        Stream.concat(reportableFeatureTypes.stream(),
-                Stream.of(nonReportableFeatureTypes)).forEach(this::addFeature);
+
+        Set<Class<? extends NodeFeature>> featureTypes = new LinkedHashSet<>(
+                reportableFeatureTypes);
+        featureTypes.addAll(Arrays.asList(nonReportableFeatureTypes));
+
+        featureLayout = FeatureLayout.get(featureTypes);
+        features = new NodeFeature[featureLayout.types.length];
+        // Create in the original order, since features may depend on others
+        featureTypes.forEach(this::addFeature);
     }
 
     private static Set<Class<? extends NodeFeature>> getCachedFeatureSet(
@@ -249,7 +329,9 @@ public class StateNode implements Serializable {
     }
 
     private void forEachChild(Consumer<StateNode> action) {
-        getFeatures().values().forEach(n -> n.forEachChild(action));
+        for (NodeFeature feature : features) {
+            feature.forEachChild(action);
+        }
     }
 
     /**
@@ -278,17 +360,19 @@ public class StateNode implements Serializable {
     public <T extends NodeFeature> T getFeature(Class<T> featureType) {
         assert featureType != null;
 
-        NodeFeature feature = getFeatures().get(featureType);
-        if (feature == null) {
+        int index = featureLayout.indexOf(featureType);
+        // Feature is null if it is requested while the node is created
+        if (index == -1 || features[index] == null) {
             throw new IllegalStateException(
                     "Node does not have the feature " + featureType);
         }
 
-        return featureType.cast(feature);
+        return featureType.cast(features[index]);
     }
 
     /**
-     * Checks whether this node contains a feature.
+     * Checks whether this node contains a feature. A feature that is not yet
+     * created while the node is being constructed is not contained.
      *
      * @param featureType
      *            the feature type to check for
@@ -298,13 +382,18 @@ public class StateNode implements Serializable {
     public boolean hasFeature(Class<? extends NodeFeature> featureType) {
         assert featureType != null;
 
-        return getFeatures().containsKey(featureType);
+        if (!NodeFeatureRegistry.isRegistered(featureType)) {
+            return false;
+        }
+        int index = featureLayout.indexOf(featureType);
+        return index != -1 && features[index] != null;
     }
 
     /**
      * Gets the id of this node. The id is unique within the state tree that the
      * node belongs to. The id is 0 if the node does not belong to any state
-     * tree.
+     * tree. A node that has been detached might get a new id when it's
+     * attached again.
      *
      * @see StateTree#getNodeById(int)
      *
@@ -363,8 +452,7 @@ public class StateNode implements Serializable {
 
                 // Make all changes show up as if the node was recently attached
                 clearChanges();
-                getFeatures().values()
-                        .forEach(NodeFeature::generateChangesFromEmpty);
+                getFeatures().forEach(NodeFeature::generateChangesFromEmpty);
             } else {
                 collector.accept(new NodeDetachChange(this));
             }
@@ -396,16 +484,17 @@ public class StateNode implements Serializable {
             }
             if (isInitialChanges) {
                 // send only required (reported) features updates
-                Stream<NodeFeature> initialFeatures = Stream
-                        .concat(getFeatures().entrySet().stream().filter(
-                                entry -> isReportedFeature(entry.getKey()))
-                                .map(Entry::getValue), getDisalowFeatures());
+                Stream<NodeFeature> initialFeatures = Stream.concat(
+                        getFeatures().stream()
+                                .filter(feature -> isReportedFeature(
+                                        feature.getClass())),
+                        getDisalowFeatures());
                 doCollectChanges(collector, initialFeatures);
             } else {
                 doCollectChanges(collector, getDisalowFeatures());
             }
         } else {
-            doCollectChanges(collector, getFeatures().values().stream());
+            doCollectChanges(collector, getFeatures().stream());
         }
     }
 
@@ -413,16 +502,21 @@ public class StateNode implements Serializable {
             Stream<NodeFeature> features) {
         features.filter(this::hasChangeTracker).forEach(feature -> {
             feature.collectChanges(collector);
-            changes.remove(feature.getClass());
+            changes[NodeFeatureRegistry.getId(feature.getClass())] = null;
         });
         isInitialChanges = false;
-        if (changes != null && changes.isEmpty()) {
+        if (changes != null && Arrays.stream(changes)
+                .allMatch(tracker -> tracker == null)) {
             changes = null;
         }
     }
 
     private boolean hasChangeTracker(NodeFeature nodeFeature) {
-        return changes != null && changes.containsKey(nodeFeature.getClass());
+        if (changes == null) {
+            return false;
+        }
+        int id = NodeFeatureRegistry.getId(nodeFeature.getClass());
+        return id < changes.length && changes[id] != null;
     }
 
     /**
@@ -505,8 +599,13 @@ public class StateNode implements Serializable {
                 id = newId;
                 initialAttach = true;
             } else if (newId != id) {
-                throw new IllegalStateException(
-                        "Can't change id once it has been assigned");
+                if (wasAttached) {
+                    throw new IllegalStateException(
+                            "Can't change id once it has been assigned");
+                }
+                // The client has already removed the node and its old id has
+                // been given to another node
+                id = newId;
             }
 
         }
@@ -591,7 +690,7 @@ public class StateNode implements Serializable {
             copy.forEach(Command::execute);
         }
 
-        getFeatures().values().forEach(f -> f.onAttach(initialAttach));
+        getFeatures().forEach(f -> f.onAttach(initialAttach));
     }
 
     private void fireDetachListeners() {
@@ -601,7 +700,7 @@ public class StateNode implements Serializable {
             copy.forEach(Command::execute);
         }
 
-        getFeatures().values().forEach(NodeFeature::onDetach);
+        getFeatures().forEach(NodeFeature::onDetach);
     }
 
     /**
@@ -619,12 +718,17 @@ public class StateNode implements Serializable {
     @SuppressWarnings("unchecked")
     public <T extends Serializable> T getChangeTracker(NodeFeature feature,
             Supplier<T> factory) {
+        int id = NodeFeatureRegistry.getId(feature.getClass());
         if (changes == null) {
-            changes = new HashMap<>();
+            changes = new Serializable[id + 1];
+        } else if (id >= changes.length) {
+            changes = Arrays.copyOf(changes, id + 1);
         }
 
-        return (T) changes.computeIfAbsent(feature.getClass(),
-                k -> factory.get());
+        if (changes[id] == null) {
+            changes[id] = factory.get();
+        }
+        return (T) changes[id];
     }
 
     /**
@@ -690,7 +794,7 @@ public class StateNode implements Serializable {
     }
 
     private Stream<NodeFeature> getDisalowFeatures() {
-        return getFeatures().values().stream()
+        return getFeatures().stream()
                 .filter(feature -> !feature.allowsChanges());
     }
 
@@ -718,23 +822,120 @@ public class StateNode implements Serializable {
     }
 
     private void addFeature(Class<? extends NodeFeature> featureType) {
-        if (!features.containsKey(featureType)) {
-            NodeFeature feature = NodeFeatureRegistry.create(featureType, this);
-            features.put(featureType, feature);
+        features[featureLayout.indexOf(featureType)] = NodeFeatureRegistry
+                .create(featureType, this);
+    }
+
+    private List<NodeFeature> getFeatures() {
+        return Arrays.asList(features);
+    }
+
+    /**
+     * Gets the feature instance that should be used instead of the given
+     * feature instance that has just been deserialized. This is used to make
+     * sure that all references to a feature point to the instance that is
+     * used by this node.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @param feature
+     *            the deserialized feature instance, not <code>null</code>
+     * @return the feature instance to use, not <code>null</code>
+     */
+    public NodeFeature resolveFeature(NodeFeature feature) {
+        assert feature.getNode() == this;
+        assert features != null : "Feature resolved before the node";
+
+        int index = featureLayout.indexOf(feature.getClass());
+        if (features[index] == null) {
+            features[index] = feature;
+        }
+        return features[index];
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        out.writeObject(featureLayout);
+        out.writeObject(reportedFeatures);
+        out.writeInt(id);
+        out.writeBoolean(wasAttached);
+        out.writeBoolean(isInactiveSelf);
+        out.writeBoolean(isInitialChanges);
+
+        // Bit mask of the features that are written, 64 features per long
+        for (int i = 0; i < features.length; i += Long.SIZE) {
+            long written = 0;
+            for (int j = i; j < Math.min(i + Long.SIZE, features.length); j++) {
+                if (!features[j].isInitialState()) {
+                    written |= 1L << (j - i);
+                }
+            }
+            out.writeLong(written);
+        }
+        for (NodeFeature feature : features) {
+            if (!feature.isInitialState()) {
+                out.writeObject(feature);
+            }
         }
+
+        out.writeObject(changes);
+        out.writeObject(attachListeners);
+        out.writeObject(detachListeners);
+        out.writeObject(owner);
+        out.writeObject(parent);
+        out.writeObject(beforeClientResponseEntries);
     }
 
-    private Map<Class<? extends NodeFeature>, NodeFeature> getFeatures() {
-        return features;
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        featureLayout = (FeatureLayout) in.readObject();
+        reportedFeatures = (Set<Class<? extends NodeFeature>>) in
+                .readObject();
+        id = in.readInt();
+        wasAttached = in.readBoolean();
+        isInactiveSelf = in.readBoolean();
+        isInitialChanges = in.readBoolean();
+
+        Class<? extends NodeFeature>[] types = featureLayout.types;
+        features = new NodeFeature[types.length];
+        long[] written = new long[(types.length + Long.SIZE - 1) / Long.SIZE];
+        for (int i = 0; i < written.length; i++) {
+            written[i] = in.readLong();
+        }
+        for (int i = 0; i < types.length; i++) {
+            if ((written[i / Long.SIZE] & 1L << (i % Long.SIZE)) != 0) {
+                features[i] = (NodeFeature) in.readObject();
+            }
+        }
+        /*
+         * Create the features that were not written, unless they have already
+         * been read through some other reference to them
+         */
+        for (int i = 0; i < types.length; i++) {
+            if (features[i] == null) {
+                features[i] = NodeFeatureRegistry.create(types[i], this);
+            }
+        }
+
+        changes = (Serializable[]) in.readObject();
+        attachListeners = (List<Command>) in.readObject();
+        detachListeners = (List<Command>) in.readObject();
+        owner = (NodeOwner) in.readObject();
+        parent = (StateNode) in.readObject();
+        beforeClientResponseEntries = (ArrayList<BeforeClientResponseEntry>) in
+                .readObject();
     }
 
     @SuppressWarnings("rawtypes")
     private static Class[] getNonRepeatebleFeatures(StateNode node) {
         if (node.reportedFeatures.isEmpty()) {
-            Set<Class<? extends NodeFeature>> set = node.features.keySet();
-            return set.toArray(new Class[set.size()]);
+            return node.featureLayout.types.clone();
         }
-        return node.features.keySet().stream()
+        return Stream.of(node.featureLayout.types)
                 .filter(clazz -> !node.reportedFeatures.contains(clazz))
                 .toArray(Class[]::new);
     }
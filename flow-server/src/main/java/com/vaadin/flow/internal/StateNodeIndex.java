@@ -0,0 +1,176 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Index of the nodes registered to a {@link StateTree}, keyed by node id.
+ * <p>
+ * Nodes are stored in an array of slots. A node id consists of the slot index
+ * in the lower {@value #SLOT_BITS} bits and a generation counter of the slot
+ * in the remaining bits. When a slot is reused for another node, its
+ * generation is incremented so that the new node gets an id that has never
+ * been used before. This keeps the index as small as the number of
+ * simultaneously registered nodes while ensuring that ids that the client
+ * might still refer to never point to an unrelated node. Slots that have used
+ * up all generations are retired.
+ * <p>
+ * A slot that is released becomes available for reuse only after
+ * {@link #releaseSlots()} has been called, i.e. after the detach of the node
+ * has been collected for the client. Until then, the node can get its
+ * original id back if it's attached again.
+ *
+ * @author Vaadin Ltd
+ */
+final class StateNodeIndex implements Serializable {
+
+    private static final int SLOT_BITS = 20;
+
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+    private static final int MAX_GENERATION = Integer.MAX_VALUE >>> SLOT_BITS;
+
+    private StateNode[] nodes = new StateNode[16];
+
+    private int[] generations = new int[16];
+
+    // Slot 0 is never used so that no node gets the id 0
+    private int nextSlot = 1;
+
+    private final BitSet freeSlots = new BitSet();
+
+    private int[] releasedSlots = new int[16];
+
+    private int releasedSlotCount;
+
+    /**
+     * Gets the node with the given id.
+     *
+     * @param id
+     *            the node id
+     * @return the node with the given id, or <code>null</code> if there is no
+     *         such node
+     */
+    StateNode get(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        int slot = id & SLOT_MASK;
+        if (slot >= nextSlot || generations[slot] != id >>> SLOT_BITS) {
+            return null;
+        }
+        return nodes[slot];
+    }
+
+    /**
+     * Adds a node to the index.
+     *
+     * @param node
+     *            the node to add, not <code>null</code>
+     * @param previousId
+     *            the id that the node has had previously, or a non-positive
+     *            value if the node has not been added before
+     * @return the id of the node, which is the same as <code>previousId</code>
+     *         if it hasn't been given to any other node in the meantime
+     */
+    int add(StateNode node, int previousId) {
+        int slot;
+        if (canReclaim(previousId)) {
+            slot = previousId & SLOT_MASK;
+            freeSlots.clear(slot);
+        } else {
+            slot = freeSlots.nextSetBit(0);
+            if (slot == -1) {
+                slot = createSlot();
+            } else {
+                freeSlots.clear(slot);
+                generations[slot]++;
+            }
+        }
+
+        nodes[slot] = node;
+        return (generations[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * Removes the node with the given id from the index. The slot of the node
+     * is not reused until {@link #releaseSlots()} has been called.
+     *
+     * @param node
+     *            the node to remove, not <code>null</code>
+     * @return <code>true</code> if the node was removed, <code>false</code> if
+     *         the given node is not in the index with its id
+     */
+    boolean remove(StateNode node) {
+        int id = node.getId();
+        if (get(id) != node) {
+            return false;
+        }
+
+        int slot = id & SLOT_MASK;
+        nodes[slot] = null;
+
+        if (releasedSlotCount == releasedSlots.length) {
+            releasedSlots = Arrays.copyOf(releasedSlots,
+                    releasedSlotCount * 2);
+        }
+        releasedSlots[releasedSlotCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Makes the slots of all nodes removed since the previous invocation
+     * available for new nodes.
+     */
+    void releaseSlots() {
+        for (int i = 0; i < releasedSlotCount; i++) {
+            int slot = releasedSlots[i];
+            // Node might have been added back, or the slot might be worn out
+            if (nodes[slot] == null && generations[slot] < MAX_GENERATION) {
+                freeSlots.set(slot);
+            }
+        }
+        releasedSlotCount = 0;
+        if (releasedSlots.length > 16) {
+            releasedSlots = new int[16];
+        }
+    }
+
+    private boolean canReclaim(int previousId) {
+        if (previousId <= 0) {
+            return false;
+        }
+        int slot = previousId & SLOT_MASK;
+        return slot < nextSlot && nodes[slot] == null
+                && generations[slot] == previousId >>> SLOT_BITS;
+    }
+
+    private int createSlot() {
+        if (nextSlot > SLOT_MASK) {
+            throw new IllegalStateException(
+                    "All node ids of the state tree have been used");
+        }
+        if (nextSlot == nodes.length) {
+            int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            generations = Arrays.copyOf(generations, capacity);
+        }
+        return nextSlot++;
+    }
+}
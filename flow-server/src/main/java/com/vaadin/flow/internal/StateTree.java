@@ -18,11 +18,9 @@ package com.vaadin.flow.internal;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -31,6 +29,7 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.change.NodeChange;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.Registration;
 
 /**
@@ -118,9 +117,7 @@ public class StateTree implements NodeOwner {
 
     private Set<StateNode> dirtyNodes = new LinkedHashSet<>();
 
-    private final Map<Integer, StateNode> idToNode = new HashMap<>();
-
-    private int nextId = 1;
+    private final StateNodeIndex idToNode = new StateNodeIndex();
 
     private Set<StateNode> pendingExecutionNodes = new HashSet<>();
 
@@ -159,21 +156,8 @@ public class StateTree implements NodeOwner {
     public int register(StateNode node) {
         assert node.getOwner() == this;
 
-        int id = node.getId();
-
-        int nodeId;
-        if (id > 0 && !idToNode.containsKey(id)) {
-            // Node already had an id, continue using it
-
-            // Don't accept an id that we haven't yet handed out
-            assert id < nextId;
-
-            nodeId = id;
-        } else {
-            nodeId = nextId++;
-        }
-
-        idToNode.put(nodeId, node);
+        // Node keeps its previous id unless it has been given to another node
+        int nodeId = idToNode.add(node, node.getId());
 
         if (node.hasBeforeClientResponseEntries()) {
             pendingExecutionNodes.add(node);
@@ -186,16 +170,7 @@ public class StateTree implements NodeOwner {
     public void unregister(StateNode node) {
         assert node.getOwner() == this;
 
-        Integer id = node.getId();
-
-        StateNode removedNode = idToNode.remove(id);
-
-        if (removedNode != node) {
-            // Remove by id didn't remove the expected node
-            if (removedNode != null) {
-                // Put the old node back
-                idToNode.put(removedNode.getId(), removedNode);
-            }
+        if (!idToNode.remove(node)) {
             throw new IllegalStateException(
                     "Unregistered node was not found based on its id. The tree is most likely corrupted.");
         }
@@ -206,7 +181,7 @@ public class StateTree implements NodeOwner {
     @Override
     public boolean hasNode(StateNode node) {
         assert node.getOwner() == this;
-        return idToNode.containsKey(node.getId());
+        return idToNode.get(node.getId()) == node;
     }
 
     /**
@@ -237,15 +212,29 @@ public class StateTree implements NodeOwner {
         // TODO fire preCollect events
 
         dirtyNodesSet.forEach(node -> node.collectChanges(collector));
+
+        // Ids of detached nodes may be reused once the client knows about it
+        idToNode.releaseSlots();
     }
 
     @Override
     public void markAsDirty(StateNode node) {
         assert node.getOwner() == this;
+        assert !isReadOnlyAccess() : "The state tree can't be modified "
+                + "from a reader passed to VaadinSession.readAccess";
 
         dirtyNodes.add(node);
     }
 
+    private boolean isReadOnlyAccess() {
+        // Not available while the tree or the UI is being constructed
+        if (ui == null || ui.getInternals() == null) {
+            return false;
+        }
+        VaadinSession session = ui.getInternals().getSession();
+        return session != null && session.isReadOnlyAccess();
+    }
+
     /**
      * Gets all the nodes that have been marked as dirty since the last time
      * this method was invoked.
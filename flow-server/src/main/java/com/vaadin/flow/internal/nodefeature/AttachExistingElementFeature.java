@@ -134,4 +134,11 @@ public class AttachExistingElementFeature extends ServerSideFeature {
         }
     }
 
+    @Override
+    public boolean isInitialState() {
+        return (callbacks == null || callbacks.isEmpty())
+                && (parentNodes == null || parentNodes.isEmpty())
+                && (siblings == null || siblings.isEmpty());
+    }
+
 }
@@ -89,4 +89,9 @@ public class ComponentMapping extends ServerSideFeature {
         getComponent().ifPresent(ComponentUtil::onComponentDetach);
     }
 
+    @Override
+    public boolean isInitialState() {
+        return component == null;
+    }
+
 }
@@ -205,4 +205,10 @@ public class ElementAttributeMap extends NodeMap {
         return ((StateTree) owner).getUI().getSession();
     }
 
+    @Override
+    public boolean isInitialState() {
+        return resourceRegistrations == null && pendingRegistrations == null
+                && super.isInitialState();
+    }
+
 }
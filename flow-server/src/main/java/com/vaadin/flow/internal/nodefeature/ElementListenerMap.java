@@ -22,21 +22,31 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import com.vaadin.flow.dom.DomEvent;
 import com.vaadin.flow.dom.DomEventListener;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateNode;
-import com.vaadin.flow.shared.Registration;
+import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
 
 /**
  * Map of DOM events with server-side listeners. The key set of this map
- * describes the event types for which listeners are present. The values
- * associated with the keys are currently not used.
+ * describes the event types for which listeners are present. The value
+ * associated with a key is a constant pool key for a JSON array containing the
+ * event data expressions of the event type. If any listener of the event type
+ * has a filter or a rate limit, the array also contains a
+ * <code>[filter, rateLimit]</code> array for each distinct combination used by
+ * the listeners.
  *
  * @author Vaadin Ltd
  */
@@ -50,8 +60,107 @@ public class ElementListenerMap extends NodeMap {
      */
     private static final HashSet<String> emptyHashSet = new HashSet<>();
 
+    /**
+     * A listener together with the settings that determine which events are
+     * sent to it.
+     */
+    private final class DomEventListenerWrapper
+            implements DomListenerRegistration {
+        private final String eventType;
+        private final DomEventListener listener;
+        private String filter;
+        // Debounce timeout if positive, throttle period if negative
+        private int rateLimit;
+
+        private DomEventListenerWrapper(String eventType,
+                DomEventListener listener) {
+            this.eventType = eventType;
+            this.listener = listener;
+        }
+
+        @Override
+        public void remove() {
+            removeListener(eventType, this);
+        }
+
+        @Override
+        public DomListenerRegistration setFilter(String filter) {
+            if (!Objects.equals(filter, this.filter)) {
+                this.filter = filter;
+                settingsChanged();
+            }
+            return this;
+        }
+
+        @Override
+        public String getFilter() {
+            return filter;
+        }
+
+        @Override
+        public DomListenerRegistration debounce(int timeout) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException(
+                        "The timeout must not be negative");
+            }
+            setRateLimit(timeout);
+            return this;
+        }
+
+        @Override
+        public DomListenerRegistration throttle(int period) {
+            if (period < 0) {
+                throw new IllegalArgumentException(
+                        "The period must not be negative");
+            }
+            setRateLimit(-period);
+            return this;
+        }
+
+        private void setRateLimit(int rateLimit) {
+            if (rateLimit != this.rateLimit) {
+                this.rateLimit = rateLimit;
+                settingsChanged();
+            }
+        }
+
+        private void settingsChanged() {
+            // Nothing to update if the listener has been removed
+            if (listeners != null && listeners.containsKey(eventType)
+                    && listeners.get(eventType).contains(this)) {
+                updateConstantPoolKey(eventType);
+            }
+        }
+
+        private boolean hasSettings() {
+            return filter != null || rateLimit != 0;
+        }
+
+        private boolean matches(JsonObject eventData) {
+            if (rateLimit != 0) {
+                return false;
+            }
+            if (filter == null) {
+                return true;
+            }
+            JsonValue filterValue = eventData.get(filter);
+            return filterValue != null && filterValue.asBoolean();
+        }
+
+        private boolean belongsTo(JsonArray group) {
+            String groupFilter = group.get(0).getType() == JsonType.NULL ? null
+                    : group.getString(0);
+            return rateLimit == (int) group.getNumber(1)
+                    && Objects.equals(filter, groupFilter);
+        }
+
+        private List<Object> getSettings() {
+            return Arrays.asList(filter, rateLimit);
+        }
+    }
+
     // Server-side only data
-    private Map<String, ArrayList<DomEventListener>> listeners;
+    private Map<String, ArrayList<DomEventListenerWrapper>> listeners;
     private Map<String, Set<String>> typeToExpressions;
 
     /**
@@ -74,9 +183,10 @@ public class ElementListenerMap extends NodeMap {
      *            the listener to add
      * @param eventDataExpressions
      *            the event data expressions
-     * @return a handle for removing the listener
+     * @return a handle for removing the listener and for configuring which
+     *         events are sent to it
      */
-    public Registration add(String eventType,
+    public DomListenerRegistration add(String eventType,
             DomEventListener listener, String[] eventDataExpressions) {
         assert eventType != null;
         assert listener != null;
@@ -98,41 +208,77 @@ public class ElementListenerMap extends NodeMap {
             // mutated
             assert emptyHashSet.isEmpty();
             typeToExpressions.put(eventType, emptyHashSet);
-            put(eventType, createConstantPoolKey(emptyHashSet));
+            put(eventType, createConstantPoolKey(emptyHashSet,
+                    Collections.emptyList()));
         }
 
-        listeners.get(eventType).add(listener);
+        DomEventListenerWrapper wrapper = new DomEventListenerWrapper(
+                eventType, listener);
+        listeners.get(eventType).add(wrapper);
 
+        boolean expressionsChanged = false;
         if (eventDataExpressions.length != 0) {
             Set<String> eventData = new HashSet<>(
                     typeToExpressions.get(eventType));
 
             if (eventData.addAll(Arrays.asList(eventDataExpressions))) {
-                // Update the constant pool reference if the value has changed
-                put(eventType, createConstantPoolKey(eventData));
-
                 // Remember value for server-side use
                 typeToExpressions.put(eventType, eventData);
+                expressionsChanged = true;
             }
         }
 
-        return () -> removeListener(eventType, listener);
+        // Update the constant pool reference if the value has changed
+        if (expressionsChanged || hasSettings(eventType)) {
+            updateConstantPoolKey(eventType);
+        }
+
+        return wrapper;
+    }
+
+    private boolean hasSettings(String eventType) {
+        return listeners.get(eventType).stream()
+                .anyMatch(DomEventListenerWrapper::hasSettings);
     }
 
-    private static ConstantPoolKey createConstantPoolKey(
-            Set<String> eventData) {
-        return new ConstantPoolKey(eventData.stream().map(Json::create)
-                .collect(JsonUtils.asArray()));
+    private void updateConstantPoolKey(String eventType) {
+        List<DomEventListenerWrapper> typeListeners = listeners.get(eventType);
+        List<List<Object>> settings = Collections.emptyList();
+        if (hasSettings(eventType)) {
+            settings = new ArrayList<>();
+            for (DomEventListenerWrapper wrapper : typeListeners) {
+                List<Object> listenerSettings = wrapper.getSettings();
+                if (!settings.contains(listenerSettings)) {
+                    settings.add(listenerSettings);
+                }
+            }
+        }
+        put(eventType, createConstantPoolKey(typeToExpressions.get(eventType),
+                settings));
     }
 
-    private void removeListener(String eventType, DomEventListener listener) {
+    private static ConstantPoolKey createConstantPoolKey(Set<String> eventData,
+            List<List<Object>> settings) {
+        JsonArray json = eventData.stream().map(Json::create)
+                .collect(JsonUtils.asArray());
+        for (List<Object> listenerSettings : settings) {
+            String filter = (String) listenerSettings.get(0);
+            JsonArray settingsJson = Json.createArray();
+            settingsJson.set(0,
+                    filter == null ? Json.createNull() : Json.create(filter));
+            settingsJson.set(1, (Integer) listenerSettings.get(1));
+            json.set(json.length(), settingsJson);
+        }
+        return new ConstantPoolKey(json);
+    }
+
+    private void removeListener(String eventType,
+            DomEventListenerWrapper wrapper) {
         if (listeners == null) {
             return;
         }
-        List<DomEventListener> listenerList = listeners.get(eventType);
-        if (listenerList != null) {
-            listenerList.remove(listener);
-
+        List<DomEventListenerWrapper> listenerList = listeners.get(eventType);
+        if (listenerList != null && listenerList.remove(wrapper)) {
             // No more listeners of this type?
             if (listenerList.isEmpty()) {
                 listeners.remove(eventType);
@@ -145,12 +291,15 @@ public class ElementListenerMap extends NodeMap {
 
                 // Remove from the set that is synchronized with the client
                 remove(eventType);
+            } else if (wrapper.hasSettings() || hasSettings(eventType)) {
+                updateConstantPoolKey(eventType);
             }
         }
     }
 
     /**
-     * Fires an event to all listeners registered for the given type.
+     * Fires an event to the listeners registered for the given type that the
+     * event has been sent for, based on their filters and rate limits.
      *
      * @param event
      *            the event to fire
@@ -159,16 +308,34 @@ public class ElementListenerMap extends NodeMap {
         if (listeners == null) {
             return;
         }
-        List<DomEventListener> typeListeners = listeners
+        List<DomEventListenerWrapper> typeListeners = listeners
                 .get(event.getType());
         if (typeListeners == null) {
             return;
         }
 
+        /*
+         * Events sent immediately go to all listeners without a rate limit
+         * whose filter matches. Rate limited events are sent separately for
+         * each [filter, rateLimit] group, whose filter has already been
+         * checked when the event was fired.
+         */
+        JsonObject eventData = event.getEventData();
+        JsonArray group = null;
+        if (eventData.hasKey(JsonConstants.EVENT_DATA_LISTENER_GROUP)) {
+            group = eventData.getArray(JsonConstants.EVENT_DATA_LISTENER_GROUP);
+            eventData.remove(JsonConstants.EVENT_DATA_LISTENER_GROUP);
+        }
+
         // Copy to allow concurrent modification
-        List<DomEventListener> copy = new ArrayList<>(typeListeners);
+        List<DomEventListenerWrapper> copy = new ArrayList<>(typeListeners);
 
-        copy.forEach(l -> l.handleEvent(event));
+        for (DomEventListenerWrapper wrapper : copy) {
+            if (group == null ? wrapper.matches(eventData)
+                    : wrapper.belongsTo(group)) {
+                wrapper.listener.handleEvent(event);
+            }
+        }
     }
 
     /**
@@ -188,4 +355,9 @@ public class ElementListenerMap extends NodeMap {
             return Collections.unmodifiableSet(typeToExpressions.get(name));
         }
     }
+
+    @Override
+    public boolean isInitialState() {
+        return listeners == null && super.isInitialState();
+    }
 }
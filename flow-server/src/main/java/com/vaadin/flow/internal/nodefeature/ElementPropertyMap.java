@@ -406,4 +406,10 @@ public class ElementPropertyMap extends AbstractPropertyMap {
     private static Logger getLogger() {
         return LoggerFactory.getLogger(ElementPropertyMap.class);
     }
+
+    @Override
+    public boolean isInitialState() {
+        return (listeners == null || listeners.isEmpty())
+                && updateFromClientFilter == null && super.isInitialState();
+    }
 }
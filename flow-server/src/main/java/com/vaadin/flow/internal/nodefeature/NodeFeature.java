@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.function.Consumer;
 
@@ -30,6 +33,13 @@ import com.vaadin.flow.internal.change.NodeChange;
  * @author Vaadin Ltd
  */
 public abstract class NodeFeature implements Serializable {
+    // Type tags used by writeValue and readValue
+    private static final byte OBJECT_VALUE = 0;
+    private static final byte TRUE_VALUE = 1;
+    private static final byte FALSE_VALUE = 2;
+    private static final byte INTEGER_VALUE = 3;
+    private static final byte DOUBLE_VALUE = 4;
+
     private final StateNode node;
 
     /**
@@ -140,4 +150,90 @@ public abstract class NodeFeature implements Serializable {
     public boolean allowsChanges() {
         return true;
     }
+
+    /**
+     * Checks whether this feature is in the same state as a feature that has
+     * just been created for the same node. A feature in its initial state is
+     * not serialized together with its node, but created anew when the node is
+     * deserialized.
+     * <p>
+     * The default implementation returns {@code false}. A subclass overriding
+     * this method must take all its own state into account.
+     *
+     * @return {@code true} if this feature is in its initial state,
+     *         {@code false} otherwise
+     */
+    public boolean isInitialState() {
+        return false;
+    }
+
+    /**
+     * Replaces a deserialized feature instance with the feature that its node
+     * already has, so that all references to a feature point to the same
+     * instance also after deserialization.
+     *
+     * @return the feature instance to use
+     */
+    protected Object readResolve() {
+        return node.resolveFeature(this);
+    }
+
+    /**
+     * Writes a value of this feature, using a compact representation for the
+     * most common primitive wrapper types.
+     *
+     * @param out
+     *            the stream to write to
+     * @param value
+     *            the value to write, may be <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    static void writeValue(ObjectOutputStream out, Object value)
+            throws IOException {
+        if (value instanceof Boolean) {
+            boolean booleanValue = ((Boolean) value).booleanValue();
+            out.writeByte(booleanValue ? TRUE_VALUE : FALSE_VALUE);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER_VALUE);
+            out.writeInt(((Integer) value).intValue());
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE_VALUE);
+            out.writeDouble(((Double) value).doubleValue());
+        } else {
+            out.writeByte(OBJECT_VALUE);
+            out.writeObject(value);
+        }
+    }
+
+    /**
+     * Reads a value written using
+     * {@link #writeValue(ObjectOutputStream, Object)}.
+     *
+     * @param in
+     *            the stream to read from
+     * @return the value, may be <code>null</code>
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if the class of the value cannot be found
+     */
+    static Object readValue(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        byte type = in.readByte();
+        switch (type) {
+        case TRUE_VALUE:
+            return Boolean.TRUE;
+        case FALSE_VALUE:
+            return Boolean.FALSE;
+        case INTEGER_VALUE:
+            return Integer.valueOf(in.readInt());
+        case DOUBLE_VALUE:
+            return Double.valueOf(in.readDouble());
+        case OBJECT_VALUE:
+            return in.readObject();
+        default:
+            throw new IOException("Unknown value type " + type);
+        }
+    }
 }
@@ -130,6 +130,21 @@ public class NodeFeatureRegistry {
         return getData(nodeFeature).id;
     }
 
+    /**
+     * Checks whether a node feature type has been registered.
+     *
+     * @param nodeFeature
+     *            the node feature type to check, not <code>null</code>
+     * @return <code>true</code> if the type is registered; otherwise
+     *         <code>false</code>
+     */
+    public static boolean isRegistered(
+            Class<? extends NodeFeature> nodeFeature) {
+        assert nodeFeature != null;
+
+        return nodeFeatures.containsKey(nodeFeature);
+    }
+
     /**
      * Gets all registered feature types.
      *
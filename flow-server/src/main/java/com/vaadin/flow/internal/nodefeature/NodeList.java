@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -135,7 +138,8 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
-    private List<T> values;
+    // Written in a compact form by writeObject
+    private transient List<T> values;
 
     private boolean isPopulated;
 
@@ -451,4 +455,35 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
+    @Override
+    public boolean isInitialState() {
+        return values == null
+                && isPopulated == !getNode().isReportedFeature(getClass());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (values == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(values.size());
+        for (T value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        if (size > 0) {
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add((T) readValue(in));
+            }
+        }
+    }
+
 }
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -42,7 +45,8 @@ public abstract class NodeMap extends NodeFeature {
     private static final Serializable REMOVED_MARKER = new UniqueSerializable() {
     };
 
-    private Map<String, Serializable> values;
+    // Written in a compact form by writeObject
+    private transient Map<String, Serializable> values;
 
     private boolean isPopulated;
 
@@ -384,4 +388,36 @@ public abstract class NodeMap extends NodeFeature {
         return false;
     }
 
+    @Override
+    public boolean isInitialState() {
+        return values == null
+                && isPopulated == !getNode().isReportedFeature(getClass());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (values == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(values.size());
+        for (Entry<String, Serializable> entry : values.entrySet()) {
+            out.writeObject(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        if (size > 0) {
+            values = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                String key = (String) in.readObject();
+                values.put(key, (Serializable) readValue(in));
+            }
+        }
+    }
+
 }
@@ -15,6 +15,9 @@
  */
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Objects;
 import java.util.function.Consumer;
@@ -39,7 +42,8 @@ public abstract class NodeValue<T extends Serializable> extends NodeFeature {
         // empty
     };
 
-    private T value;
+    // Written in a compact form by writeObject
+    private transient T value;
 
     private boolean isPopulated;
 
@@ -127,4 +131,22 @@ public abstract class NodeValue<T extends Serializable> extends NodeFeature {
         }
     }
 
+    @Override
+    public boolean isInitialState() {
+        return value == null
+                && isPopulated == !getNode().isReportedFeature(getClass());
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeValue(out, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        value = (T) readValue(in);
+    }
+
 }
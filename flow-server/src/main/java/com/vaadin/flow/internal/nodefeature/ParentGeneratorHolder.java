@@ -62,4 +62,9 @@ public class ParentGeneratorHolder extends ServerSideFeature {
         return Optional.ofNullable(parentTemplate);
     }
 
+    @Override
+    public boolean isInitialState() {
+        return parentTemplate == null;
+    }
+
 }
@@ -111,4 +111,10 @@ public class PolymerEventListenerMap extends NodeMap {
         remove(eventType);
     }
 
+    @Override
+    public boolean isInitialState() {
+        return (typeToExpressions == null || typeToExpressions.isEmpty())
+                && super.isInitialState();
+    }
+
 }
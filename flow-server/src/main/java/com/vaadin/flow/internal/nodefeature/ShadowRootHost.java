@@ -44,4 +44,9 @@ public class ShadowRootHost extends ServerSideFeature {
     public StateNode getHost() {
         return getNode().getParent();
     }
+
+    @Override
+    public boolean isInitialState() {
+        return true;
+    }
 }
@@ -151,4 +151,9 @@ public class TemplateMap extends NodeMap {
         return Optional.ofNullable((StateNode) get(CHILD_SLOT_CONTENT));
     }
 
+    @Override
+    public boolean isInitialState() {
+        return modelDescriptor == null && super.isInitialState();
+    }
+
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how the queue of tasks enqueued using
+ * {@link VaadinSession#access(Command)} is processed for a session.
+ * <p>
+ * The counters are updated without locking and can be read from any thread,
+ * e.g. by a monitoring tool. The values read while tasks are being enqueued or
+ * run are not guaranteed to be consistent with each other.
+ *
+ * @author Vaadin Ltd
+ * @see VaadinSession#getAccessQueueMetrics()
+ */
+public class AccessQueueMetrics implements Serializable {
+
+    private final LongAdder enqueuedCount = new LongAdder();
+    private final LongAdder dequeuedCount = new LongAdder();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder drainCount = new LongAdder();
+    private final LongAdder totalDrainNanos = new LongAdder();
+    private final AtomicLong maxDrainNanos = new AtomicLong();
+
+    void taskEnqueued() {
+        enqueuedCount.increment();
+    }
+
+    void taskDequeued() {
+        dequeuedCount.increment();
+    }
+
+    void taskExecuted(long waitNanos) {
+        executedCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void drained(long drainNanos) {
+        drainCount.increment();
+        totalDrainNanos.add(drainNanos);
+        maxDrainNanos.accumulateAndGet(drainNanos, Math::max);
+    }
+
+    /**
+     * Gets the approximate number of tasks that are currently waiting in the
+     * queue.
+     *
+     * @return the number of queued tasks
+     */
+    public long getQueueDepth() {
+        return Math.max(0, enqueuedCount.sum() - dequeuedCount.sum());
+    }
+
+    /**
+     * Gets the number of tasks that have been enqueued.
+     *
+     * @return the number of enqueued tasks
+     */
+    public long getEnqueuedCount() {
+        return enqueuedCount.sum();
+    }
+
+    /**
+     * Gets the number of tasks that have been run. Tasks that were cancelled
+     * before they were run are not included.
+     *
+     * @return the number of run tasks
+     */
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    /**
+     * Gets the total time that run tasks have waited in the queue before they
+     * were run.
+     *
+     * @param unit
+     *            the time unit to use, not <code>null</code>
+     * @return the total wait time
+     */
+    public long getTotalWaitTime(TimeUnit unit) {
+        return unit.convert(totalWaitNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time that a single task has waited in the queue before
+     * it was run.
+     *
+     * @param unit
+     *            the time unit to use, not <code>null</code>
+     * @return the maximum wait time
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the number of times the queue has been drained, i.e. the number of
+     * times one or more queued tasks have been run while holding the session
+     * lock.
+     *
+     * @return the number of drains
+     */
+    public long getDrainCount() {
+        return drainCount.sum();
+    }
+
+    /**
+     * Gets the total time spent running queued tasks.
+     *
+     * @param unit
+     *            the time unit to use, not <code>null</code>
+     * @return the total drain time
+     */
+    public long getTotalDrainTime(TimeUnit unit) {
+        return unit.convert(totalDrainNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time spent running queued tasks in one drain.
+     *
+     * @param unit
+     *            the time unit to use, not <code>null</code>
+     * @return the maximum drain time
+     */
+    public long getMaxDrainTime(TimeUnit unit) {
+        return unit.convert(maxDrainNanos.get(), TimeUnit.NANOSECONDS);
+    }
+}
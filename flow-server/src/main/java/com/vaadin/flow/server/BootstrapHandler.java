@@ -20,13 +20,18 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
@@ -34,11 +39,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Attribute;
 import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.DocumentType;
@@ -57,6 +67,7 @@ import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.component.page.TargetElement;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
+import com.vaadin.flow.internal.MessageDigestUtil;
 import com.vaadin.flow.internal.ReflectTools;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.UidlWriter;
@@ -109,8 +120,22 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
     private static final String MESSAGE = "message";
     private static final String URL = "url";
 
+    private static final String PLACEHOLDER_PREFIX = "{{"
+            + UUID.randomUUID() + ":";
+    private static final String LANGUAGE_PLACEHOLDER = PLACEHOLDER_PREFIX
+            + "language}}";
+    private static final String TITLE_PLACEHOLDER = PLACEHOLDER_PREFIX
+            + "title}}";
+    private static final String SCRIPT_PLACEHOLDER = PLACEHOLDER_PREFIX
+            + "script}}";
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile(
+            Pattern.quote(PLACEHOLDER_PREFIX) + "(language|title|script)}}");
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
     static String clientEngineFile = readClientEngine();
 
+    private final Map<List<Object>, BootstrapPageTemplate> templates = new ConcurrentHashMap<>();
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(BootstrapHandler.class.getName());
     }
@@ -361,6 +386,82 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
 
     }
 
+    /**
+     * A rendered bootstrap page split around the parts that vary between
+     * requests.
+     */
+    private static final class BootstrapPageTemplate implements Serializable {
+        private final String[] fragments;
+        private final String[] placeholders;
+        private final int length;
+
+        private BootstrapPageTemplate(String html) {
+            List<String> fragmentList = new ArrayList<>();
+            List<String> placeholderList = new ArrayList<>();
+            Matcher matcher = PLACEHOLDER_PATTERN.matcher(html);
+            int start = 0;
+            while (matcher.find()) {
+                fragmentList.add(html.substring(start, matcher.start()));
+                placeholderList.add(matcher.group(1));
+                start = matcher.end();
+            }
+            fragmentList.add(html.substring(start));
+
+            fragments = fragmentList.toArray(new String[0]);
+            placeholders = placeholderList.toArray(new String[0]);
+            length = html.length();
+        }
+
+        private String render(String language, String title,
+                String bootstrapScript) {
+            StringBuilder builder = new StringBuilder(
+                    length + bootstrapScript.length());
+            try {
+                write(builder, language, title, () -> bootstrapScript);
+            } catch (IOException e) {
+                // Not possible since nothing is written to a stream
+                throw new UncheckedIOException(e);
+            }
+            return builder.toString();
+        }
+
+        private void write(Appendable out, String language, String title,
+                Supplier<String> bootstrapScript) throws IOException {
+            for (int i = 0; i < placeholders.length; i++) {
+                out.append(fragments[i]);
+                switch (placeholders[i]) {
+                case "language":
+                    out.append(escapeAttributeValue(language));
+                    break;
+                case "title":
+                    out.append(escapeText(title));
+                    break;
+                default:
+                    // Send everything before the script to the browser
+                    // before generating the script
+                    if (out instanceof Flushable) {
+                        ((Flushable) out).flush();
+                    }
+                    // Script contents are written as is, like a DataNode
+                    out.append(bootstrapScript.get());
+                }
+            }
+            out.append(fragments[placeholders.length]);
+        }
+
+        private static String escapeAttributeValue(String value) {
+            String attribute = new Attribute("lang", value).html();
+            return attribute.substring(attribute.indexOf('"') + 1,
+                    attribute.length() - 1);
+        }
+
+        private static String escapeText(String value) {
+            Document document = new Document("");
+            document.outputSettings().prettyPrint(false);
+            return document.appendElement("title").appendText(value).html();
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
@@ -379,24 +480,176 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         ServletHelper.setResponseNoCacheHeaders(response::setHeader,
                 response::setDateHeader);
 
-        Document document = getBootstrapPage(context);
-        writeBootstrapPage(response, document.outerHtml());
+        if (session.getConfiguration().isBootstrapStreamingEnabled()
+                && !isBootstrapDocumentRequired(context)) {
+            writeStreamedBootstrapPage(response, context);
+        } else {
+            writeBootstrapPage(response, getBootstrapHtml(context));
+        }
 
         return true;
     }
 
+    /**
+     * Writes the bootstrap page for the given context so that everything up to
+     * the end of the body is flushed to the browser before the initial UIDL is
+     * generated. The browser can thus start loading the client engine and the
+     * polyfills while the server renders the UI.
+     * <p>
+     * Since the dependencies loaded with the initial UIDL are only known once
+     * it has been generated, they are added to the end of the body together
+     * with the bootstrap script instead of to the head.
+     *
+     * @param response
+     *            the response to write to
+     * @param context
+     *            the bootstrap context
+     * @throws IOException
+     *             if writing to the response fails
+     */
+    void writeStreamedBootstrapPage(VaadinResponse response,
+            BootstrapContext context) throws IOException {
+        String language = context.getUI().getLocale().getLanguage();
+        Optional<String> title = resolvePageTitle(context)
+                .filter(value -> !value.isEmpty());
+
+        Supplier<Document> document = () -> {
+            Document page = createBootstrapDocument(context,
+                    LANGUAGE_PLACEHOLDER, title.map(value -> TITLE_PLACEHOLDER),
+                    null, Collections.emptyMap());
+            page.body().appendChild(
+                    new DataNode(SCRIPT_PLACEHOLDER, page.baseUri()));
+            return page;
+        };
+        BootstrapPageTemplate template;
+        if (context.isProductionMode()) {
+            template = getTemplate(
+                    getTemplateKey(context, title.isPresent(), null),
+                    document);
+        } else {
+            template = new BootstrapPageTemplate(document.get().outerHtml());
+        }
+
+        response.setContentType(
+                ApplicationConstants.CONTENT_TYPE_TEXT_HTML_UTF_8);
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), UTF_8))) {
+            template.write(writer, language, title.orElse(""),
+                    () -> getStreamedBootstrapContents(context));
+        }
+    }
+
+    /**
+     * Renders the bootstrap page for the given context.
+     * <p>
+     * In production mode, the page is rendered from a template that is cached
+     * for each combination of UI class, navigation target, browser capability
+     * and dependencies, so that only the parts that vary between requests,
+     * i.e. the language, the title and the bootstrap script with the initial
+     * UIDL, need to be written for each request. The full page is generated
+     * for each request if any {@link BootstrapListener} or
+     * {@link PageConfigurator} might modify it.
+     *
+     * @param context
+     *            the bootstrap context
+     * @return the bootstrap page HTML
+     */
+    String getBootstrapHtml(BootstrapContext context) {
+        if (!context.isProductionMode()
+                || isBootstrapDocumentRequired(context)) {
+            return getBootstrapPage(context).outerHtml();
+        }
+
+        String language = context.getUI().getLocale().getLanguage();
+        Optional<String> title = resolvePageTitle(context)
+                .filter(value -> !value.isEmpty());
+        JsonObject initialUIDL = getInitialUidl(context.getUI());
+        Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
+                initialUIDL);
+
+        BootstrapPageTemplate template = getTemplate(
+                getTemplateKey(context, title.isPresent(),
+                        dependenciesToProcessOnServer),
+                () -> createBootstrapDocument(context, LANGUAGE_PLACEHOLDER,
+                        title.map(value -> TITLE_PLACEHOLDER),
+                        SCRIPT_PLACEHOLDER, dependenciesToProcessOnServer));
+
+        return template.render(language, title.orElse(""),
+                getBootstrapScriptContents(initialUIDL, context));
+    }
+
+    private BootstrapPageTemplate getTemplate(List<Object> key,
+            Supplier<Document> document) {
+        BootstrapPageTemplate template = templates.get(key);
+        if (template == null) {
+            template = new BootstrapPageTemplate(document.get().outerHtml());
+            if (templates.size() < MAX_CACHED_TEMPLATES) {
+                templates.putIfAbsent(key, template);
+            }
+        }
+        return template;
+    }
+
+    private static boolean isBootstrapDocumentRequired(
+            BootstrapContext context) {
+        return context.getSession().getService().hasBootstrapListeners()
+                || context.getUI().getChildren()
+                        .anyMatch(PageConfigurator.class::isInstance);
+    }
+
+    private static String getStreamedBootstrapContents(
+            BootstrapContext context) {
+        JsonObject initialUIDL = getInitialUidl(context.getUI());
+        Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
+                initialUIDL);
+
+        Document document = new Document("");
+        document.outputSettings().prettyPrint(false);
+        Element body = document.appendElement("body");
+        body.appendChild(createInlineJavaScriptElement(
+                getBootstrapScriptContents(initialUIDL, context)));
+        applyUserDependencies(body, context, dependenciesToProcessOnServer)
+                .forEach(body::appendChild);
+        return body.html();
+    }
+
     static Document getBootstrapPage(BootstrapContext context) {
+        String language = context.getUI().getLocale().getLanguage();
+        Optional<String> title = resolvePageTitle(context);
+        JsonObject initialUIDL = getInitialUidl(context.getUI());
+        Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
+                initialUIDL);
+
+        Document document = createBootstrapDocument(context, language, title,
+                getBootstrapScriptContents(initialUIDL, context),
+                dependenciesToProcessOnServer);
+
+        BootstrapPageResponse response = new BootstrapPageResponse(
+                context.getRequest(), context.getSession(),
+                context.getResponse(), document, context.getUI(),
+                context.getUriResolver());
+        context.getSession().getService().modifyBootstrapPage(response);
+
+        return document;
+    }
+
+    private static Document createBootstrapDocument(BootstrapContext context,
+            String language, Optional<String> title, String bootstrapScript,
+            Map<LoadMode, JsonArray> dependenciesToProcessOnServer) {
         Document document = new Document("");
         DocumentType doctype = new DocumentType("html", "", "",
                 document.baseUri());
         document.appendChild(doctype);
         Element html = document.appendElement("html");
-        html.attr("lang", context.getUI().getLocale().getLanguage());
+        html.attr("lang", language);
         Element head = html.appendElement("head");
         html.appendElement("body");
 
-        List<Element> dependenciesToInlineInBody = setupDocumentHead(head,
-                context);
+        setupMetaAndTitle(head, context, title);
+        setupCss(head, context);
+        setupFrameworkLibraries(head, bootstrapScript, context);
+        List<Element> dependenciesToInlineInBody = applyUserDependencies(head,
+                context, dependenciesToProcessOnServer);
         dependenciesToInlineInBody
                 .forEach(dependency -> document.body().appendChild(dependency));
         setupDocumentBody(document);
@@ -414,15 +667,34 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         /* Append any theme elements to initial page. */
         handleThemeContents(context, document);
 
-        BootstrapPageResponse response = new BootstrapPageResponse(
-                context.getRequest(), context.getSession(),
-                context.getResponse(), document, context.getUI(),
-                context.getUriResolver());
-        context.getSession().getService().modifyBootstrapPage(response);
-
         return document;
     }
 
+    private static List<Object> getTemplateKey(BootstrapContext context,
+            boolean hasTitle,
+            Map<LoadMode, JsonArray> dependenciesToProcessOnServer) {
+        VaadinRequest request = context.getRequest();
+
+        // Streamed pages don't contain any dependencies from the initial UIDL
+        String dependenciesHash = null;
+        if (dependenciesToProcessOnServer != null) {
+            StringBuilder dependencies = new StringBuilder();
+            dependenciesToProcessOnServer
+                    .forEach((loadMode, array) -> dependencies
+                            .append(loadMode.name())
+                            .append(JsonUtil.stringify(array)));
+            dependenciesHash = Base64.getEncoder().encodeToString(
+                    MessageDigestUtil.sha256(dependencies.toString()));
+        }
+
+        return Arrays.asList(context.getUI().getClass(),
+                context.pageConfigurationHolder,
+                context.getSession().getBrowser().isEs6Supported(),
+                context.getPushMode().isEnabled(), getServiceUrl(context),
+                ServletHelper.getContextRootRelativePath(request),
+                request.getCharacterEncoding(), hasTitle, dependenciesHash);
+    }
+
     private static void handleThemeContents(BootstrapContext context,
             Document document) {
         Map<TargetElement, List<JsonObject>> themeSettings = BootstrapUtils
@@ -517,19 +789,6 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         }
     }
 
-    private static List<Element> setupDocumentHead(Element head,
-            BootstrapContext context) {
-        setupMetaAndTitle(head, context);
-        setupCss(head, context);
-
-        JsonObject initialUIDL = getInitialUidl(context.getUI());
-        Map<LoadMode, JsonArray> dependenciesToProcessOnServer = popDependenciesToProcessOnServer(
-                initialUIDL);
-        setupFrameworkLibraries(head, initialUIDL, context);
-        return applyUserDependencies(head, context,
-                dependenciesToProcessOnServer);
-    }
-
     private static List<Element> applyUserDependencies(Element head,
             BootstrapContext context,
             Map<LoadMode, JsonArray> dependenciesToProcessOnServer) {
@@ -578,7 +837,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
     }
 
     private static void setupFrameworkLibraries(Element head,
-            JsonObject initialUIDL, BootstrapContext context) {
+            String bootstrapScript, BootstrapContext context) {
         inlineEs6Collections(head, context);
         appendWebComponentsPolyfills(head, context);
 
@@ -586,7 +845,9 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             head.appendChild(getPushScript(context));
         }
 
-        head.appendChild(getBootstrapScript(initialUIDL, context));
+        if (bootstrapScript != null) {
+            head.appendChild(createInlineJavaScriptElement(bootstrapScript));
+        }
         head.appendChild(createJavaScriptElement(getClientEngineUrl(context)));
     }
 
@@ -630,7 +891,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
     }
 
     private static void setupMetaAndTitle(Element head,
-            BootstrapContext context) {
+            BootstrapContext context, Optional<String> title) {
         head.appendElement(META_TAG).attr("http-equiv", "Content-Type").attr(
                 CONTENT_ATTRIBUTE,
                 ApplicationConstants.CONTENT_TYPE_TEXT_HTML_UTF_8);
@@ -645,9 +906,9 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
                         .attr("name", VIEWPORT).attr(CONTENT_ATTRIBUTE,
                                 content));
 
-        resolvePageTitle(context).ifPresent(title -> {
-            if (!title.isEmpty()) {
-                head.appendElement("title").appendText(title);
+        title.ifPresent(value -> {
+            if (!value.isEmpty()) {
+                head.appendElement("title").appendText(value);
             }
         });
     }
@@ -798,10 +1059,10 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         return createJavaScriptElement(pushJSPath);
     }
 
-    private static Element getBootstrapScript(JsonValue initialUIDL,
+    private static String getBootstrapScriptContents(JsonValue initialUIDL,
             BootstrapContext context) {
-        return createInlineJavaScriptElement("//<![CDATA[\n"
-                + getBootstrapJS(initialUIDL, context) + "//]]>");
+        return "//<![CDATA[\n" + getBootstrapJS(initialUIDL, context)
+                + "//]]>";
     }
 
     private static String getBootstrapJS(JsonValue initialUIDL,
@@ -927,6 +1188,10 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             appConfig.put("sendUrlsAsParameters", false);
         }
 
+        if (vaadinService.getDeploymentConfiguration().isBinaryUidlEnabled()) {
+            appConfig.put("binaryUidl", true);
+        }
+
         return appConfig;
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vaadin.flow.shared.BrowserDetails;
+
+/**
+ * Cache of parsed {@link BrowserDetails} shared by all sessions, keyed by the
+ * exact User-Agent string.
+ * <p>
+ * {@link BrowserDetails} instances are not modified after they have been
+ * parsed, so the same instance can be used by any number of sessions. The
+ * cache holds at most {@value #MAX_SIZE} entries. It is cleared when it gets
+ * full, so that the agents in active use are cached again while agents that
+ * are seen only once cannot make it grow without bounds.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ */
+public final class BrowserDetailsCache {
+
+    /**
+     * The maximum number of User-Agent strings kept in the cache.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    private static final Map<String, BrowserDetails> cache = new ConcurrentHashMap<>();
+
+    private static final LongAdder hitCount = new LongAdder();
+    private static final LongAdder missCount = new LongAdder();
+
+    private BrowserDetailsCache() {
+        // Only static methods
+    }
+
+    /**
+     * Gets the browser details for the given User-Agent string, parsing it
+     * only if it is not in the cache.
+     *
+     * @param userAgent
+     *            the User-Agent string, not <code>null</code>
+     * @return the browser details, not <code>null</code>
+     */
+    public static BrowserDetails get(String userAgent) {
+        assert userAgent != null;
+
+        BrowserDetails details = cache.get(userAgent);
+        if (details != null) {
+            hitCount.increment();
+            return details;
+        }
+
+        missCount.increment();
+        // Parse outside of the map so that other agents are not blocked
+        details = new BrowserDetails(userAgent);
+        if (cache.size() >= MAX_SIZE) {
+            cache.clear();
+        }
+        BrowserDetails previous = cache.putIfAbsent(userAgent, details);
+        return previous == null ? details : previous;
+    }
+
+    /**
+     * Gets the number of lookups that were served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public static long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Gets the number of lookups that required parsing the User-Agent string.
+     *
+     * @return the number of cache misses
+     */
+    public static long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Gets the number of User-Agent strings currently in the cache.
+     *
+     * @return the number of cached entries
+     */
+    public static int size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all entries from the cache. The hit and miss counters are not
+     * reset.
+     */
+    public static void clear() {
+        cache.clear();
+    }
+}
@@ -94,6 +94,80 @@ public final class Constants implements Serializable {
      */
     public static final String I18N_PROVIDER = "i18n.provider";
 
+    /**
+     * Configuration name for the parameter that determines if UIDL responses
+     * should be built as a JSON object tree before being written instead of
+     * being streamed to the response.
+     */
+    public static final String DISABLE_UIDL_STREAMING = "disable.uidl.streaming";
+
+    /**
+     * Configuration name for the parameter that determines if UIDL responses
+     * and RPC messages sent over XHR may use the compact binary encoding with
+     * clients that support it.
+     */
+    public static final String BINARY_UIDL = "binary.uidl";
+
+    /**
+     * Configuration name for the parameter that determines if UIDL responses
+     * should be sent uncompressed even when the client accepts gzip encoded
+     * content.
+     */
+    public static final String DISABLE_UIDL_COMPRESSION = "disable.uidl.compression";
+
+    /**
+     * Configuration name for the parameter that sets the maximum time in
+     * milliseconds that tasks enqueued using
+     * {@link VaadinSession#access(com.vaadin.flow.server.Command)} are run
+     * before the session lock is released and reacquired. The default value
+     * <code>0</code> means that all queued tasks are run at once.
+     */
+    public static final String ACCESS_QUEUE_TIME_SLICE = "access.queue.time.slice";
+
+    /**
+     * Configuration name for the parameter that sets the maximum number of
+     * bytes of static resources and webjar contents to keep in memory. Static
+     * resources are only kept in memory in production mode. The value
+     * <code>0</code> disables keeping resources in memory.
+     */
+    public static final String STATIC_RESOURCE_CACHE_SIZE = "static.resource.cache.size";
+
+    /**
+     * The default value for {@link #STATIC_RESOURCE_CACHE_SIZE}.
+     */
+    public static final long DEFAULT_STATIC_RESOURCE_CACHE_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Configuration name for the parameter that sets a regular expression for
+     * the names of static files whose contents never change, e.g. files with a
+     * content hash in their name. Matching files are cached by browsers for
+     * one year and marked as immutable in production mode. Files containing
+     * <code>.cache.</code> in their name are always treated as immutable.
+     */
+    public static final String STATIC_RESOURCE_IMMUTABLE_PATTERN = "static.resource.immutable.pattern";
+
+    /**
+     * Configuration name for the parameter that determines if the head of the
+     * bootstrap page should be sent to the browser before the initial UIDL is
+     * generated and written at the end of the page.
+     */
+    public static final String BOOTSTRAP_STREAMING = "bootstrap.streaming";
+
+    /**
+     * Configuration name for the parameter that sets the number of seconds
+     * without UIDL requests after which a UI is passivated, i.e. serialized
+     * outside of the Java heap until the next request for it. Passivation is
+     * disabled by default and for any value that is not positive.
+     * <p>
+     * A passivated UI is activated as a new instance. The passivated instance
+     * is detached from the session, so {@code UI.access} throws a
+     * {@code UIDetachedException} for any references to it kept outside of the
+     * UI, e.g. by background threads or broadcasters. Such references should
+     * be released when the UI is detached and acquired again when it is
+     * attached, or passivation should not be enabled.
+     */
+    public static final String UI_PASSIVATION_TIMEOUT = "ui.passivation.timeout";
+
     private Constants() {
         // prevent instantiation constants class only
     }
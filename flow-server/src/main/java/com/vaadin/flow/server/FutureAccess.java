@@ -30,6 +30,8 @@ import org.slf4j.LoggerFactory;
 public class FutureAccess extends FutureTask<Void> {
     private final VaadinSession session;
     private final Command command;
+    private final long enqueueTime = System.nanoTime();
+    private Throwable failure;
 
     /**
      * Creates an instance for the given command.
@@ -61,6 +63,32 @@ public class FutureAccess extends FutureTask<Void> {
         return super.get();
     }
 
+    @Override
+    protected void setException(Throwable throwable) {
+        failure = throwable;
+        super.setException(throwable);
+    }
+
+    /**
+     * Gets the exception thrown by the command when this task was run, without
+     * the checks done by {@link #get()}.
+     *
+     * @return the thrown exception, or <code>null</code> if the task has not
+     *         been run or completed normally
+     */
+    Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Gets the value of {@link System#nanoTime()} when this task was created.
+     *
+     * @return the creation time of this task in nanoseconds
+     */
+    long getEnqueueTime() {
+        return enqueueTime;
+    }
+
     /**
      * Handles exceptions thrown during the execution of this task.
      *
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * A UI that has been serialized into a buffer outside of the Java heap while
+ * it's idle.
+ * <p>
+ * The session, the service and the router of the UI are not included in the
+ * serialized data, but replaced by the instances of the session that
+ * activates the UI. Any other objects that are shared between the UI and the
+ * rest of the application are copied, i.e. the activated UI has its own
+ * instances of them.
+ *
+ * @author Vaadin Ltd
+ * @see VaadinSession#getUIById(int)
+ */
+final class PassivatedUI implements Serializable {
+
+    /**
+     * Placeholder for an object that is not serialized with the UI.
+     */
+    private static final class SharedObject implements Serializable {
+        private final int index;
+
+        private SharedObject(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final class PassivatingOutputStream
+            extends ObjectOutputStream {
+        private final Object[] sharedObjects;
+
+        private PassivatingOutputStream(OutputStream out,
+                Object[] sharedObjects) throws IOException {
+            super(out);
+            this.sharedObjects = sharedObjects;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            for (int i = 0; i < sharedObjects.length; i++) {
+                if (obj == sharedObjects[i]) {
+                    return new SharedObject(i);
+                }
+            }
+            return obj;
+        }
+    }
+
+    private static final class ActivatingInputStream extends ObjectInputStream {
+        private final Object[] sharedObjects;
+
+        private ActivatingInputStream(InputStream in, Object[] sharedObjects)
+                throws IOException {
+            super(in);
+            this.sharedObjects = sharedObjects;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof SharedObject) {
+                return sharedObjects[((SharedObject) obj).index];
+            }
+            return obj;
+        }
+    }
+
+    private transient ByteBuffer data;
+
+    private long lastHeartbeatTimestamp;
+
+    private PassivatedUI(ByteBuffer data, long lastHeartbeatTimestamp) {
+        this.data = data;
+        this.lastHeartbeatTimestamp = lastHeartbeatTimestamp;
+    }
+
+    /**
+     * Serializes the given UI.
+     *
+     * @param ui
+     *            the UI to passivate, not <code>null</code>
+     * @param session
+     *            the session of the UI, not <code>null</code>
+     * @return the passivated UI
+     * @throws IOException
+     *             if the UI cannot be serialized
+     */
+    static PassivatedUI passivate(UI ui, VaadinSession session)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new PassivatingOutputStream(bytes,
+                getSharedObjects(session))) {
+            out.writeObject(ui);
+        }
+        return new PassivatedUI(toDirectBuffer(bytes.toByteArray()),
+                ui.getInternals().getLastHeartbeatTimestamp());
+    }
+
+    /**
+     * Deserializes the UI.
+     *
+     * @param session
+     *            the session to activate the UI for, not <code>null</code>
+     * @return the activated UI
+     * @throws IOException
+     *             if the UI cannot be deserialized
+     * @throws ClassNotFoundException
+     *             if a class of the UI cannot be found
+     */
+    UI activate(VaadinSession session)
+            throws IOException, ClassNotFoundException {
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try (ObjectInputStream in = new ActivatingInputStream(
+                new ByteArrayInputStream(getBytes()),
+                getSharedObjects(session))) {
+            UI ui = (UI) in.readObject();
+            ui.getInternals()
+                    .setLastHeartbeatTimestamp(lastHeartbeatTimestamp);
+            return ui;
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+    }
+
+    /**
+     * Gets the time of the last heartbeat request of the UI.
+     *
+     * @return the time of the last heartbeat request, in milliseconds since
+     *         the epoch
+     */
+    long getLastHeartbeatTimestamp() {
+        return lastHeartbeatTimestamp;
+    }
+
+    /**
+     * Sets the time of the last heartbeat request of the UI.
+     *
+     * @param lastHeartbeatTimestamp
+     *            the time of the last heartbeat request, in milliseconds since
+     *            the epoch
+     */
+    void setLastHeartbeatTimestamp(long lastHeartbeatTimestamp) {
+        this.lastHeartbeatTimestamp = lastHeartbeatTimestamp;
+    }
+
+    private static Object[] getSharedObjects(VaadinSession session) {
+        // Null is never replaced, so a missing service or router is harmless
+        VaadinService service = session.getService();
+        return new Object[] { session, service,
+                service == null ? null : service.getRouter() };
+    }
+
+    private byte[] getBytes() {
+        byte[] bytes = new byte[data.capacity()];
+        data.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer toDirectBuffer(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getBytes());
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        data = toDirectBuffer((byte[]) in.readObject());
+    }
+}
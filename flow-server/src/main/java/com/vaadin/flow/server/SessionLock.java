@@ -0,0 +1,123 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The lock that protects the data of a {@link VaadinSession}.
+ * <p>
+ * While the lock is held by any thread, the lock also holds the write lock of
+ * a {@link StampedLock}. This allows
+ * {@link VaadinSession#readAccess(com.vaadin.flow.function.SerializableSupplier)}
+ * to validate optimistic reads and to wait for the session to be unlocked
+ * using a shared read lock, without acquiring this lock. The
+ * <code>tryLock</code> methods fail instead of waiting for readers longer
+ * than the given timeout.
+ *
+ * @author Vaadin Ltd
+ */
+class SessionLock extends ReentrantLock {
+
+    private final StampedLock readWriteLock = new StampedLock();
+
+    // Only accessed by the thread holding this lock
+    private transient long writeStamp;
+
+    @Override
+    public void lock() {
+        super.lock();
+        if (getHoldCount() == 1) {
+            // Waits for readers that have already acquired the read lock
+            writeStamp = readWriteLock.writeLock();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        super.lockInterruptibly();
+        if (getHoldCount() == 1) {
+            try {
+                writeStamp = readWriteLock.writeLockInterruptibly();
+            } catch (InterruptedException e) {
+                super.unlock();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!super.tryLock()) {
+            return false;
+        }
+        if (getHoldCount() == 1) {
+            // Don't wait for readers while holding the lock
+            long stamp = readWriteLock.tryWriteLock();
+            if (stamp == 0) {
+                super.unlock();
+                return false;
+            }
+            writeStamp = stamp;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!super.tryLock(timeout, unit)) {
+            return false;
+        }
+        if (getHoldCount() == 1) {
+            long stamp;
+            try {
+                stamp = readWriteLock.tryWriteLock(
+                        deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                super.unlock();
+                throw e;
+            }
+            if (stamp == 0) {
+                super.unlock();
+                return false;
+            }
+            writeStamp = stamp;
+        }
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        if (isHeldByCurrentThread() && getHoldCount() == 1) {
+            readWriteLock.unlockWrite(writeStamp);
+        }
+        super.unlock();
+    }
+
+    /**
+     * Gets the read/write lock whose write lock is held whenever this lock is
+     * held.
+     *
+     * @return the read/write lock, not <code>null</code>
+     */
+    StampedLock getReadWriteLock() {
+        return readWriteLock;
+    }
+}
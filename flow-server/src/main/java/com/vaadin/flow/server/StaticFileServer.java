@@ -21,12 +21,14 @@ import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.shared.ApplicationConstants;
 
@@ -43,17 +45,34 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @author Vaadin Ltd
  */
 public class StaticFileServer implements Serializable {
-    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final ResponseWriter responseWriter;
     private final VaadinService service;
+    private final Pattern immutableFilePattern;
 
     /**
      * Constructs a file server.
+     * <p>
+     * In production mode, the contents of served files are kept in memory up
+     * to the {@link DeploymentConfiguration#getStaticResourceCacheSize()
+     * configured size}.
      *
      * @param service
      *            the service instance
      */
     public StaticFileServer(VaadinService service) {
         this.service = service;
+        DeploymentConfiguration configuration = service
+                .getDeploymentConfiguration();
+        long cacheSize = configuration.isProductionMode()
+                ? configuration.getStaticResourceCacheSize()
+                : 0;
+        responseWriter = new ResponseWriter(
+                ResponseWriter.DEFAULT_BUFFER_SIZE, cacheSize);
+
+        String immutablePattern = configuration
+                .getImmutableStaticResourcePattern();
+        immutableFilePattern = immutablePattern == null ? null
+                : Pattern.compile(immutablePattern);
     }
 
     /**
@@ -118,9 +137,21 @@ public class StaticFileServer implements Serializable {
         // Intentionally writing cache headers also for 304 responses
         writeCacheHeaders(filenameWithPath, response);
 
+        String eTag = responseWriter.getETag(filenameWithPath, resourceUrl,
+                request);
+        if (eTag != null) {
+            response.setHeader("ETag", eTag);
+            if (browserHasETag(request, eTag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+
         long timestamp = writeModificationTimestamp(resourceUrl, request,
                 response);
-        if (browserHasNewestVersion(request, timestamp)) {
+        // If-Modified-Since is ignored when If-None-Match is evaluated
+        if ((eTag == null || request.getHeader("If-None-Match") == null)
+                && browserHasNewestVersion(request, timestamp)) {
             // Browser is up to date, nothing further to do than set the
             // response code
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
@@ -195,6 +226,9 @@ public class StaticFileServer implements Serializable {
             cacheControl = "no-cache";
         } else if (resourceCacheTime > 0) {
             cacheControl = "max-age=" + resourceCacheTime;
+            if (isImmutable(filenameWithPath)) {
+                cacheControl += ", immutable";
+            }
         } else {
             cacheControl = "public, max-age=0, must-revalidate";
         }
@@ -222,8 +256,9 @@ public class StaticFileServer implements Serializable {
     /**
      * Calculates the cache lifetime for the given filename in seconds.
      * <p>
-     * By default filenames containing ".nocache." return 0, filenames
-     * containing ".cache." return one year and all other files return 1 hour.
+     * By default filenames containing ".nocache." return 0,
+     * {@link #isImmutable(String) immutable} files return one year and all
+     * other files return 1 hour.
      *
      * @param filenameWithPath
      *            the name of the file being sent
@@ -243,7 +278,7 @@ public class StaticFileServer implements Serializable {
         if (filenameWithPath.contains(".nocache.")) {
             return 0;
         }
-        if (filenameWithPath.contains(".cache.")) {
+        if (isImmutable(filenameWithPath)) {
             return 60 * 60 * 24 * 365;
         }
         /*
@@ -253,6 +288,55 @@ public class StaticFileServer implements Serializable {
         return 3600;
     }
 
+    /**
+     * Checks if the contents of the given file never change, i.e. if a new
+     * version of the file always gets a new name.
+     * <p>
+     * By default filenames containing ".cache." and filenames matching the
+     * {@link DeploymentConfiguration#getImmutableStaticResourcePattern()
+     * configured pattern}, if any, are considered immutable.
+     *
+     * @param filenameWithPath
+     *            the name of the file being sent
+     * @return <code>true</code> if the file is immutable, <code>false</code>
+     *         otherwise
+     */
+    protected boolean isImmutable(String filenameWithPath) {
+        return filenameWithPath.contains(".cache.")
+                || immutableFilePattern != null && immutableFilePattern
+                        .matcher(filenameWithPath).find();
+    }
+
+    /**
+     * Checks if the browser has an up to date cached version of requested
+     * resource using the "If-None-Match" header.
+     *
+     * @param request
+     *            The HttpServletRequest from the browser.
+     * @param eTag
+     *            The quoted ETag of the resource.
+     * @return true if the If-None-Match header tells the cached version in the
+     *         browser is up to date, false otherwise
+     */
+    protected boolean browserHasETag(HttpServletRequest request,
+            String eTag) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison is used for If-None-Match
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if ("*".equals(tag) || eTag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the browser has an up to date cached version of requested
      * resource using the "If-Modified-Since" header.
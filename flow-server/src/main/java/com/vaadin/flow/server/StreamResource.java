@@ -57,7 +57,11 @@ public class StreamResource extends AbstractStreamResource {
 
     private static class Pipe implements StreamResourceWriter {
 
-        private static final int BUFFER_SIZE = 1024;
+        /*
+         * Large enough to keep the number of session lock round trips low for
+         * factories that require the lock for reading.
+         */
+        private static final int BUFFER_SIZE = 8192;
 
         private InputStreamFactory factory;
 
@@ -39,6 +39,8 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -50,10 +52,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.di.DefaultInstantiator;
 import com.vaadin.flow.di.Instantiator;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.i18n.I18NProvider;
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.internal.LocaleUtil;
 import com.vaadin.flow.internal.ReflectTools;
@@ -187,6 +191,23 @@ public abstract class VaadinService implements Serializable {
 
     private Instantiator instantiator;
 
+    private transient Executor accessQueueExecutor;
+
+    private final ConstantPoolKey.InternTable constantPoolInternTable = new ConstantPoolKey.InternTable();
+
+    /*
+     * Guards the creation of session locks. A lock is used instead of a
+     * synchronized block so that threads waiting for it are not pinned to a
+     * carrier thread when running on virtual threads.
+     */
+    private static final Lock SESSION_LOCK_CREATION_LOCK = new ReentrantLock();
+
+    /*
+     * The session for which purgeAccessQueue is running in the current thread,
+     * if any.
+     */
+    private static final ThreadLocal<VaadinSession> PURGING_SESSION = new ThreadLocal<>();
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -447,6 +468,53 @@ public abstract class VaadinService implements Serializable {
         this.classLoader = classLoader;
     }
 
+    /**
+     * Gets the executor used for running tasks enqueued using
+     * {@link VaadinSession#access(Command)} when the session is not locked.
+     *
+     * @return the executor to use, or <code>null</code> if the tasks are run by
+     *         the thread that enqueues them
+     *
+     * @see #setAccessQueueExecutor(Executor)
+     */
+    public Executor getAccessQueueExecutor() {
+        return accessQueueExecutor;
+    }
+
+    /**
+     * Sets the executor used for running tasks enqueued using
+     * {@link VaadinSession#access(Command)} when the session is not locked.
+     * <p>
+     * By default, the thread that enqueues a task locks the session and runs
+     * all pending tasks right away if no other thread holds the session lock.
+     * With an executor, the enqueuing thread never blocks on the session lock
+     * or runs any tasks. This is useful when tasks are enqueued by threads that
+     * must not be blocked, such as threads receiving data from a message feed.
+     * An executor that starts a new virtual thread for each task can be used
+     * on Java versions that support them.
+     *
+     * @param accessQueueExecutor
+     *            the executor to use, or <code>null</code> to run the tasks in
+     *            the thread that enqueues them
+     *
+     * @see #getAccessQueueExecutor()
+     */
+    public void setAccessQueueExecutor(Executor accessQueueExecutor) {
+        this.accessQueueExecutor = accessQueueExecutor;
+    }
+
+    /**
+     * Gets the table used for interning the values of the constant pool keys
+     * created while this service is the current service.
+     * <p>
+     * For internal use only. May be renamed or removed in a future release.
+     *
+     * @return the intern table of this service, not <code>null</code>
+     */
+    public ConstantPoolKey.InternTable getConstantPoolInternTable() {
+        return constantPoolInternTable;
+    }
+
     /**
      * Returns the MIME type of the specified file, or null if the MIME type is
      * not known. The MIME type is determined by the configuration of the
@@ -584,6 +652,18 @@ public abstract class VaadinService implements Serializable {
                 .forEach(listener -> listener.modifyBootstrapPage(response));
     }
 
+    /**
+     * Checks whether any {@link BootstrapListener} has been registered for
+     * this service.
+     *
+     * @return <code>true</code> if there are bootstrap listeners,
+     *         <code>false</code> otherwise
+     */
+    boolean hasBootstrapListeners() {
+        return bootstrapListeners != null
+                && bootstrapListeners.iterator().hasNext();
+    }
+
     /**
      * Handles destruction of the given session. Internally ensures proper
      * locking is done.
@@ -600,6 +680,8 @@ public abstract class VaadinService implements Serializable {
             if (session.getState() == VaadinSessionState.OPEN) {
                 closeSession(session);
             }
+            // Passivated UIs are also closed and detached
+            session.activateUIs(lastHeartbeat -> true);
             List<UI> uis = new ArrayList<>(session.getUIs());
             for (final UI ui : uis) {
                 ui.accessSynchronously(() -> {
@@ -746,12 +828,15 @@ public abstract class VaadinService implements Serializable {
              * the CPU flushes its caches and reads the value directly from main
              * memory).
              */
-            synchronized (VaadinService.class) {
+            SESSION_LOCK_CREATION_LOCK.lock();
+            try {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    lock = new SessionLock();
                     setSessionLock(wrappedSession, lock);
                 }
+            } finally {
+                SESSION_LOCK_CREATION_LOCK.unlock();
             }
         }
         lock.lock();
@@ -1234,7 +1319,7 @@ public abstract class VaadinService implements Serializable {
     /**
      * Called at the end of a request, after sending the response. Closes
      * inactive UIs in the given session, removes closed UIs from the session,
-     * and closes the session if it is itself inactive.
+     * passivates idle UIs and closes the session if it is itself inactive.
      *
      * @param session
      */
@@ -1242,6 +1327,7 @@ public abstract class VaadinService implements Serializable {
         if (isSessionActive(session)) {
             closeInactiveUIs(session);
             removeClosedUIs(session);
+            passivateIdleUIs(session);
         } else {
             if (session.getState() == VaadinSessionState.OPEN) {
                 closeSession(session);
@@ -1293,6 +1379,8 @@ public abstract class VaadinService implements Serializable {
      */
     private void closeInactiveUIs(VaadinSession session) {
         final String sessionId = session.getSession().getId();
+        // Activate passivated UIs that need to be closed
+        session.activateUIs(lastHeartbeat -> !isHeartbeatActive(lastHeartbeat));
         for (final UI ui : session.getUIs()) {
             if (!isUIActive(ui) && !ui.isClosing()) {
                 ui.accessSynchronously(() -> {
@@ -1304,6 +1392,39 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Passivates those UIs in the given session that have not received any
+     * UIDL requests within the passivation timeout. UIs that use push or that
+     * have pending changes are not passivated, and neither are any UIs while
+     * there are pending access tasks for the session.
+     *
+     * @see DeploymentConfiguration#getUIPassivationTimeout()
+     */
+    private void passivateIdleUIs(VaadinSession session) {
+        int timeout = 1000
+                * getDeploymentConfiguration().getUIPassivationTimeout();
+        if (timeout <= 0 || !session.getPendingAccessQueue().isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (final UI ui : new ArrayList<>(session.getUIs())) {
+            UIInternals internals = ui.getInternals();
+            if (now - internals.getLastRequestTimestamp() < timeout
+                    || ui.isClosing()
+                    || ui.getPushConfiguration().getPushMode().isEnabled()
+                    || internals.getStateTree().hasDirtyNodes()) {
+                continue;
+            }
+            if (session.passivateUI(ui)) {
+                getLogger().debug("Passivated idle UI #{} in session {}",
+                        ui.getUIId(), session.getSession().getId());
+            } else {
+                // Try again only after another timeout
+                internals.setLastRequestTimestamp(now);
+            }
+        }
+    }
+
     /**
      * Returns the number of seconds that must pass without a valid heartbeat or
      * UIDL request being received from a UI before that UI is removed from its
@@ -1369,13 +1490,17 @@ public abstract class VaadinService implements Serializable {
         if (ui.isClosing()) {
             return false;
         } else {
-            long now = System.currentTimeMillis();
-            int timeout = 1000 * getHeartbeatTimeout();
-            return timeout < 0 || now
-                    - ui.getInternals().getLastHeartbeatTimestamp() < timeout;
+            return isHeartbeatActive(
+                    ui.getInternals().getLastHeartbeatTimestamp());
         }
     }
 
+    private boolean isHeartbeatActive(long lastHeartbeat) {
+        long now = System.currentTimeMillis();
+        int timeout = 1000 * getHeartbeatTimeout();
+        return timeout < 0 || now - lastHeartbeat < timeout;
+    }
+
     /**
      * Returns whether the given session is active or whether it can be closed.
      * <p>
@@ -1871,9 +1996,18 @@ public abstract class VaadinService implements Serializable {
      */
     public Future<Void> accessSession(VaadinSession session, Command command) {
         FutureAccess future = new FutureAccess(session, command);
+        session.getAccessQueueMetrics().taskEnqueued();
         session.getPendingAccessQueue().add(future);
 
-        ensureAccessQueuePurged(session);
+        /*
+         * Only the first thread enqueuing a task after the lock has been
+         * released needs to try to acquire the lock. Tasks enqueued by other
+         * threads in the meantime are run by the same drain, or by whoever
+         * releases the lock next.
+         */
+        if (session.scheduleAccessQueuePurge()) {
+            ensureAccessQueuePurged(session);
+        }
 
         return future;
     }
@@ -1883,13 +2017,33 @@ public abstract class VaadinService implements Serializable {
      * If the session is currently locked by the current thread or some other
      * thread, the queue will be purged when the session is unlocked. If the
      * lock is not held by any thread, it is acquired and the queue is purged
-     * right away.
+     * right away, either by the current thread or by the
+     * {@link #getAccessQueueExecutor() access queue executor} if one has been
+     * set.
      *
      * @since 7.1.2
      * @param session
      *            the session for which the access queue should be purged
      */
     public void ensureAccessQueuePurged(VaadinSession session) {
+        Executor executor = getAccessQueueExecutor();
+        if (executor != null && !session.hasLock()) {
+            executor.execute(() -> purgeAccessQueue(session));
+        } else {
+            purgeAccessQueue(session);
+        }
+    }
+
+    private static void purgeAccessQueue(VaadinSession session) {
+        if (PURGING_SESSION.get() == session) {
+            /*
+             * Unlocking below ends up here again if a time slice left tasks
+             * in the queue. The loop further up the stack takes care of them
+             * so that the stack does not grow with each time slice.
+             */
+            return;
+        }
+
         /*
          * If no thread is currently holding the lock, pending changes for UIs
          * with automatic push would not be processed and pushed until the next
@@ -1901,23 +2055,54 @@ public abstract class VaadinService implements Serializable {
          * thread, we just release it knowing that the queue gets purged once
          * the lock is ultimately released. If the lock is not held by any
          * thread and we acquire it, we just release it again to purge the queue
-         * right away.
+         * right away. This is repeated as long as tasks remain in the queue
+         * after a time slice, unless the lock is still held by the current
+         * thread or some other thread is waiting for the lock and will purge
+         * the queue when releasing it.
          */
+        Lock lock = session.getLockInstance();
+        VaadinSession previous = PURGING_SESSION.get();
+        PURGING_SESSION.set(session);
         try {
-            // tryLock() would be shorter, but it does not guarantee fairness
-            if (session.getLockInstance().tryLock(0, TimeUnit.SECONDS)) {
+            do {
+                // tryLock() would be shorter, but it does not guarantee
+                // fairness
+                if (!lock.tryLock(0, TimeUnit.SECONDS)) {
+                    return;
+                }
                 // unlock triggers runPendingAccessTasks
                 session.unlock();
-            }
+            } while (!session.hasLock()
+                    && !session.getPendingAccessQueue().isEmpty()
+                    && !hasQueuedThreads(lock));
         } catch (InterruptedException e) {
             // Just ignore
+        } finally {
+            if (previous == null) {
+                PURGING_SESSION.remove();
+            } else {
+                PURGING_SESSION.set(previous);
+            }
         }
     }
 
+    private static boolean hasQueuedThreads(Lock lock) {
+        return lock instanceof ReentrantLock
+                && ((ReentrantLock) lock).hasQueuedThreads();
+    }
+
     /**
      * Purges the queue of pending access invocations enqueued with
      * {@link VaadinSession#access(Command)}.
      * <p>
+     * If an {@link DeploymentConfiguration#getAccessQueueTimeSlice() access
+     * queue time slice} has been configured, no new tasks are started once the
+     * time slice has been used. The remaining tasks are then run after the
+     * session lock has been released and reacquired, which lets changes made
+     * so far be pushed and lets other threads waiting for the lock proceed. If
+     * some other thread is waiting for the lock, the remaining tasks are run
+     * when that thread releases the lock.
+     * <p>
      * This method is automatically run by the framework at appropriate
      * situations and is not intended to be used by application developers.
      *
@@ -1932,6 +2117,10 @@ public abstract class VaadinService implements Serializable {
             return;
         }
 
+        AccessQueueMetrics metrics = session.getAccessQueueMetrics();
+        long timeSlice = getAccessQueueTimeSliceNanos(session);
+        long start = System.nanoTime();
+        long now = start;
         FutureAccess pendingAccess;
 
         // Dump all current instances, not only the ones dumped by setCurrent
@@ -1939,23 +2128,42 @@ public abstract class VaadinService implements Serializable {
                 .getInstances();
         CurrentInstance.setCurrent(session);
         try {
-            while ((pendingAccess = session.getPendingAccessQueue()
-                    .poll()) != null) {
+            while ((timeSlice <= 0 || now - start < timeSlice)
+                    && (pendingAccess = session.getPendingAccessQueue()
+                            .poll()) != null) {
+                metrics.taskDequeued();
                 if (!pendingAccess.isCancelled()) {
+                    metrics.taskExecuted(
+                            now - pendingAccess.getEnqueueTime());
                     pendingAccess.run();
 
-                    try {
-                        pendingAccess.get();
-
-                    } catch (Exception exception) {
-                        pendingAccess.handleError(exception);
+                    /*
+                     * The failure is checked directly instead of through get()
+                     * to avoid the deadlock detection and exception wrapping
+                     * that get() does for each task.
+                     */
+                    Throwable failure = pendingAccess.getFailure();
+                    if (failure != null) {
+                        pendingAccess.handleError(
+                                new ExecutionException(failure));
                     }
                 }
+                now = System.nanoTime();
             }
         } finally {
             CurrentInstance.clearAll();
             CurrentInstance.restoreInstances(oldInstances);
+            metrics.drained(System.nanoTime() - start);
+        }
+    }
+
+    private static long getAccessQueueTimeSliceNanos(VaadinSession session) {
+        DeploymentConfiguration configuration = session.getConfiguration();
+        if (configuration == null) {
+            return 0;
         }
+        return TimeUnit.MILLISECONDS
+                .toNanos(configuration.getAccessQueueTimeSlice());
     }
 
     /**
@@ -22,6 +22,7 @@ import javax.servlet.http.HttpSessionBindingListener;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -35,14 +36,19 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.function.SerializableSupplier;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.shared.communication.PushMode;
 
@@ -86,6 +92,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private int nextUIId = 0;
     private Map<Integer, UI> uIs = new HashMap<>();
+    private Map<Integer, PassivatedUI> passivatedUIs = new HashMap<>();
 
     protected WebBrowser browser = new WebBrowser();
 
@@ -110,6 +117,17 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
 
+    /*
+     * Set by the first thread that enqueues a task after the lock has been
+     * released so that threads enqueuing tasks in the meantime don't need to
+     * try to acquire the lock.
+     */
+    private transient AtomicBoolean accessQueuePurgeScheduled = new AtomicBoolean();
+
+    private transient AccessQueueMetrics accessQueueMetrics = new AccessQueueMetrics();
+
+    private static final ThreadLocal<VaadinSession> readAccessSession = new ThreadLocal<>();
+
     /*
      * Despite section 6 of RFC 4122, this particular use of UUID *is* adequate
      * for security capabilities. Type 4 UUIDs contain 122 bits of random data,
@@ -185,7 +203,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the web browser object
      */
     public WebBrowser getBrowser() {
-        assert hasLock();
+        assert hasReadAccess();
         return browser;
     }
 
@@ -194,7 +212,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getCumulativeRequestDuration() {
-        assert hasLock();
+        assert hasReadAccess();
         return cumulativeRequestDuration;
     }
 
@@ -216,7 +234,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getLastRequestDuration() {
-        assert hasLock();
+        assert hasReadAccess();
         return lastRequestDuration;
     }
 
@@ -240,7 +258,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         the epoch.
      */
     public long getLastRequestTimestamp() {
-        assert hasLock();
+        assert hasReadAccess();
         return lastRequestTimestamp;
     }
 
@@ -310,7 +328,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the deployment configuration
      */
     public DeploymentConfiguration getConfiguration() {
-        assert hasLock();
+        assert hasReadAccess();
         return configuration;
     }
 
@@ -323,7 +341,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the locale of this session.
      */
     public Locale getLocale() {
-        assert hasLock();
+        assert hasReadAccess();
         return locale;
     }
 
@@ -348,7 +366,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current error handler
      */
     public ErrorHandler getErrorHandler() {
-        assert hasLock();
+        assert hasReadAccess();
         return errorHandler;
     }
 
@@ -410,7 +428,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @since 7.0
      */
     public Collection<RequestHandler> getRequestHandlers() {
-        assert hasLock();
+        assert hasReadAccess();
         return Collections.unmodifiableCollection(requestHandlers);
     }
 
@@ -461,30 +479,135 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     /**
      * Gets all the UIs of this session. This includes UIs that have been
-     * requested but not yet initialized. UIs that receive no heartbeat requests
-     * from the client are eventually removed from the session.
+     * requested but not yet initialized, but not UIs that are currently
+     * passivated. UIs that receive no heartbeat requests from the client are
+     * eventually removed from the session.
      *
      * @return a collection of UIs belonging to this application
      *
      * @since 7.0
      */
     public Collection<UI> getUIs() {
-        assert hasLock();
+        assert hasReadAccess();
         return Collections.unmodifiableCollection(uIs.values());
     }
 
     /**
-     * Returns a UI with the given id.
+     * Returns a UI with the given id. A passivated UI is activated if the
+     * current thread holds the lock of this session.
      * <p>
      * This is meant for framework internal use.
      *
+     * @see DeploymentConfiguration#getUIPassivationTimeout()
+     *
      * @param uiId
      *            The UI id
      * @return The UI with the given id or null if not found
      */
     public UI getUIById(int uiId) {
+        assert hasReadAccess();
+        UI ui = uIs.get(uiId);
+        if (ui == null && hasLock() && passivatedUIs.containsKey(uiId)) {
+            ui = activateUI(uiId);
+        }
+        return ui;
+    }
+
+    /**
+     * Sets the heartbeat timestamp of the UI with the given id. A passivated
+     * UI is not activated for this.
+     * <p>
+     * This is meant for framework internal use.
+     *
+     * @param uiId
+     *            the UI id
+     * @param timestamp
+     *            the time of the heartbeat request, in milliseconds since the
+     *            epoch
+     * @return <code>true</code> if there is a UI with the given id,
+     *         <code>false</code> otherwise
+     */
+    public boolean setLastHeartbeatTimestamp(int uiId, long timestamp) {
         assert hasLock();
-        return uIs.get(uiId);
+        UI ui = uIs.get(uiId);
+        if (ui != null) {
+            ui.getInternals().setLastHeartbeatTimestamp(timestamp);
+            return true;
+        }
+        PassivatedUI passivatedUI = passivatedUIs.get(uiId);
+        if (passivatedUI != null) {
+            passivatedUI.setLastHeartbeatTimestamp(timestamp);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Serializes the given UI outside of the Java heap and removes it from the
+     * active UIs of this session until it's requested again using
+     * {@link #getUIById(int)}. The given instance is detached from this
+     * session, and a new instance is created when the UI is activated.
+     *
+     * @param ui
+     *            the UI to passivate, not <code>null</code>
+     * @return <code>true</code> if the UI was passivated, <code>false</code>
+     *         if it cannot be serialized
+     */
+    boolean passivateUI(UI ui) {
+        assert hasLock();
+        assert uIs.get(ui.getUIId()) == ui;
+        int uiId = ui.getUIId();
+        try {
+            passivatedUIs.put(uiId, PassivatedUI.passivate(ui, this));
+        } catch (IOException | RuntimeException e) {
+            // Also custom writeObject methods may fail
+            getLogger().debug("Cannot passivate UI #{}", uiId, e);
+            return false;
+        }
+        uIs.remove(uiId);
+
+        /*
+         * The UI is only used through the instance created when activating it
+         * from now on. Detach this instance so that references to it that are
+         * kept elsewhere, e.g. by background threads, fail in UI.access()
+         * instead of updating a UI that will never be shown.
+         */
+        ui.getInternals().setSession(null);
+        return true;
+    }
+
+    /**
+     * Activates the passivated UIs whose last heartbeat timestamp matches the
+     * given filter.
+     *
+     * @param heartbeatFilter
+     *            the filter for the last heartbeat timestamps of the UIs to
+     *            activate, not <code>null</code>
+     */
+    void activateUIs(LongPredicate heartbeatFilter) {
+        assert hasLock();
+        new ArrayList<>(passivatedUIs.keySet()).forEach(uiId -> {
+            if (heartbeatFilter.test(
+                    passivatedUIs.get(uiId).getLastHeartbeatTimestamp())) {
+                activateUI(uiId);
+            }
+        });
+    }
+
+    private UI activateUI(int uiId) {
+        PassivatedUI passivatedUI = passivatedUIs.remove(uiId);
+        UI ui;
+        try {
+            ui = passivatedUI.activate(this);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // Also custom readObject methods may fail
+            getLogger().warn("Cannot activate passivated UI #{}", uiId, e);
+            return null;
+        }
+        uIs.put(uiId, ui);
+        // Counterpart of the detach event of the passivated instance
+        ComponentUtil.onComponentAttach(ui, false);
+        return ui;
     }
 
     /**
@@ -498,6 +621,124 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return l.isHeldByCurrentThread();
     }
 
+    /**
+     * Checks if the current thread may read the state of this VaadinSession,
+     * i.e. if it has locked the session or is running a reader passed to
+     * {@link #readAccess(SerializableSupplier)}.
+     *
+     * @return true if the thread may read the session state, false otherwise
+     */
+    public boolean hasReadAccess() {
+        return isReadOnlyAccess() || hasLock();
+    }
+
+    /**
+     * Checks if the current thread is running a reader passed to
+     * {@link #readAccess(SerializableSupplier)} for this session. The state of
+     * the session and its UIs must not be modified in that case.
+     *
+     * @return true if the thread only has read access to the session, false
+     *         otherwise
+     */
+    public boolean isReadOnlyAccess() {
+        return readAccessSession.get() == this;
+    }
+
+    /**
+     * Runs the given reader without modifying the state of this session or its
+     * UIs, and returns the result.
+     * <p>
+     * If the session is not locked by any thread, the reader is run without
+     * acquiring the session lock. In that case the reader may see the state in
+     * the middle of being modified by some other thread. The result is only
+     * returned if the session was not locked by any thread while the reader
+     * was running. Otherwise, and also if the session is locked when this
+     * method is invoked, the reader is run again once the session is no longer
+     * locked. Concurrent readers then share a read lock, which prevents the
+     * session from being locked while they run, but they don't lock the
+     * session themselves. The reader must therefore not have any side effects,
+     * it should not fail only because the state it sees is inconsistent, and
+     * it must not lock the session.
+     * <p>
+     * Unlike {@link #accessSynchronously(Command)}, concurrent readers don't
+     * need to wait for each other, and pending access tasks are not run by
+     * the reader's thread. Modifying the
+     * {@link com.vaadin.flow.internal.StateTree state tree} of any UI in the
+     * session from the reader is not allowed, which is checked when assertions
+     * are enabled.
+     * <p>
+     * If the {@link VaadinService#getSessionLock(WrappedSession) session lock}
+     * has been customized, the reader is always run with the session locked.
+     *
+     * @param <T>
+     *            the type of the result
+     * @param reader
+     *            the reader to run, not <code>null</code>
+     * @return the value returned by the reader
+     */
+    public <T> T readAccess(SerializableSupplier<T> reader) {
+        if (hasReadAccess()) {
+            return runReadOnly(reader);
+        }
+
+        Lock l = getLockInstance();
+        if (!(l instanceof SessionLock)) {
+            // No way of detecting modifications without locking
+            lock();
+            try {
+                return runReadOnly(reader);
+            } finally {
+                unlock();
+            }
+        }
+
+        StampedLock readWriteLock = ((SessionLock) l).getReadWriteLock();
+        long stamp = readWriteLock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = runReadOnly(reader);
+                if (readWriteLock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (readWriteLock.validate(stamp)) {
+                    throw e;
+                }
+                // The state was modified while reading, try again
+            }
+        }
+
+        stamp = readWriteLock.readLock();
+        try {
+            return runReadOnly(reader);
+        } finally {
+            readWriteLock.unlockRead(stamp);
+            /*
+             * Attempts to purge the access queue fail without waiting while
+             * the read lock is held, so the queue is purged here unless some
+             * other thread has locked the session in the meantime.
+             */
+            if (!getPendingAccessQueue().isEmpty()
+                    && !((SessionLock) l).isLocked()) {
+                getService().ensureAccessQueuePurged(this);
+            }
+        }
+    }
+
+    private <T> T runReadOnly(SerializableSupplier<T> reader) {
+        VaadinSession previous = readAccessSession.get();
+        readAccessSession.set(this);
+        try {
+            return reader.get();
+        } finally {
+            if (previous == null) {
+                readAccessSession.remove();
+            } else {
+                readAccessSession.set(previous);
+            }
+        }
+    }
+
     /**
      * Checks if the current thread has exclusive access to the given
      * WrappedSession.
@@ -591,6 +832,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @see #hasLock()
      */
     public void lock() {
+        assert !isReadOnlyAccess() : "The session must not be locked from "
+                + "a reader passed to readAccess";
         getLockInstance().lock();
     }
 
@@ -634,6 +877,10 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
             getLockInstance().unlock();
         }
 
+        if (ultimateRelease) {
+            accessQueuePurgeScheduled.set(false);
+        }
+
         /*
          * If the session is locked when a new access task is added, it is
          * assumed that the queue will be purged when the lock is released. This
@@ -707,7 +954,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         it has been set to null.
      */
     public Object getAttribute(String name) {
-        assert hasLock();
+        assert hasReadAccess();
         return attributes.getAttribute(name);
     }
 
@@ -733,7 +980,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         it has been set to null.
      */
     public <T> T getAttribute(Class<T> type) {
-        assert hasLock();
+        assert hasReadAccess();
         return attributes.getAttribute(type);
     }
 
@@ -795,7 +1042,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current state
      */
     public VaadinSessionState getState() {
-        assert hasLock();
+        assert hasReadAccess();
         return state;
     }
 
@@ -933,6 +1180,31 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return pendingAccessQueue;
     }
 
+    /**
+     * Gets the counters describing how tasks submitted using
+     * {@link #access(Command)} have been processed. It is safe to call this
+     * method and read the counters without holding the {@link #lock() session
+     * lock}.
+     *
+     * @return the access queue metrics of this session, not <code>null</code>
+     */
+    public AccessQueueMetrics getAccessQueueMetrics() {
+        return accessQueueMetrics;
+    }
+
+    /**
+     * Marks that the pending access queue will be purged by some thread.
+     * <p>
+     * Called internally by the framework.
+     *
+     * @return <code>true</code> if the calling thread is responsible for making
+     *         sure the queue is purged, <code>false</code> if the queue will be
+     *         purged when the session lock is released by some other thread
+     */
+    boolean scheduleAccessQueuePurge() {
+        return accessQueuePurgeScheduled.compareAndSet(false, true);
+    }
+
     /**
      * Gets the CSRF token (aka double submit cookie) that is used to protect
      * against Cross Site Request Forgery attacks.
@@ -958,7 +1230,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     /**
      * Override default deserialization logic to account for transient
-     * {@link #pendingAccessQueue}.
+     * {@link #pendingAccessQueue} and related fields.
      * 
      * @param stream
      *            the object to read
@@ -973,6 +1245,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         try {
             stream.defaultReadObject();
             pendingAccessQueue = new ConcurrentLinkedQueue<>();
+            accessQueuePurgeScheduled = new AtomicBoolean();
+            accessQueueMetrics = new AccessQueueMetrics();
         } finally {
             CurrentInstance.restoreInstances(old);
         }
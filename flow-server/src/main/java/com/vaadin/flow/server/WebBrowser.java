@@ -496,9 +496,11 @@ public class WebBrowser implements Serializable {
         // case sensitive in Weblogic portal...
         String agent = request.getHeader("User-Agent");
 
-        if (agent != null) {
+        // Most requests of a session have the same agent, no need to update
+        if (agent != null && (browserDetails == null
+                || !agent.equals(browserApplication))) {
             browserApplication = agent;
-            browserDetails = new BrowserDetails(agent);
+            browserDetails = BrowserDetailsCache.get(agent);
         }
 
         if (request.getParameter("v-sw") != null) {
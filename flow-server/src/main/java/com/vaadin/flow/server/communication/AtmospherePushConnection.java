@@ -21,6 +21,7 @@ import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -34,8 +35,6 @@ import org.atmosphere.util.Version;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.shared.communication.PushConstants;
 
-import elemental.json.JsonObject;
-
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
  * that is by default included in Vaadin.
@@ -187,15 +186,27 @@ public class AtmospherePushConnection implements PushConnection {
             }
         } else {
             try {
-                JsonObject response = new UidlWriter().createUidl(getUI(),
-                        async);
-                sendMessage("for(;;);[" + response.toJson() + "]");
+                sendMessage(createMessage(async));
             } catch (Exception e) {
                 throw new RuntimeException("Push failed", e);
             }
         }
     }
 
+    private String createMessage(boolean async) throws IOException {
+        UI ui = getUI();
+        StringWriter writer = new StringWriter();
+        writer.write("for(;;);[");
+        if (ui.getSession().getService().getDeploymentConfiguration()
+                .isUidlStreamingEnabled()) {
+            new UidlWriter().writeUidl(ui, async, writer);
+        } else {
+            writer.write(new UidlWriter().createUidl(ui, async).toJson());
+        }
+        writer.write("]");
+        return writer.toString();
+    }
+
     /**
      * Sends the given message to the current client. Cannot be called if
      * {@link #isConnected()} returns false.
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonException;
+import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
+
+/**
+ * Decodes messages encoded using the binary format described in
+ * {@link BinaryUidlConstants}, such as the RPC messages sent by the client
+ * when binary UIDL is enabled.
+ * <p>
+ * The result of decoding a message is the same JSON value that parsing the
+ * JSON version of the message would produce.
+ *
+ * @see BinaryUidlEncoder
+ * @author Vaadin Ltd
+ */
+public final class BinaryUidlDecoder {
+
+    private final ByteBuffer buffer;
+
+    private final List<String> strings = new ArrayList<>();
+
+    private BinaryUidlDecoder(byte[] data) {
+        buffer = ByteBuffer.wrap(data);
+    }
+
+    /**
+     * Decodes the given binary UIDL message.
+     *
+     * @param <T>
+     *            the expected type of the decoded value
+     * @param data
+     *            the encoded message, not <code>null</code>
+     * @return the decoded value
+     * @throws JsonException
+     *             if the data is not a valid binary UIDL message
+     */
+    public static <T extends JsonValue> T decode(byte[] data) {
+        assert data != null;
+
+        BinaryUidlDecoder decoder = new BinaryUidlDecoder(data);
+        try {
+            if (decoder.readUnsignedByte() != BinaryUidlConstants.MAGIC) {
+                throw new JsonException("Not a binary UIDL message");
+            }
+            int version = decoder.readUnsignedByte();
+            if (version != BinaryUidlConstants.VERSION) {
+                throw new JsonException(
+                        "Unsupported binary UIDL version " + version);
+            }
+            JsonValue value = decoder.readValue();
+            if (decoder.buffer.hasRemaining()) {
+                throw new JsonException("Unexpected data at "
+                        + decoder.buffer.position() + " of " + data.length
+                        + " bytes");
+            }
+            @SuppressWarnings("unchecked")
+            T result = (T) value;
+            return result;
+        } catch (BufferUnderflowException e) {
+            throw new JsonException("Truncated binary UIDL message of "
+                    + data.length + " bytes");
+        }
+    }
+
+    private int readUnsignedByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    private JsonValue readValue() {
+        int tag = readUnsignedByte();
+        switch (tag) {
+        case BinaryUidlConstants.TAG_NULL:
+            return Json.createNull();
+        case BinaryUidlConstants.TAG_FALSE:
+            return Json.create(false);
+        case BinaryUidlConstants.TAG_TRUE:
+            return Json.create(true);
+        case BinaryUidlConstants.TAG_INT:
+            long zigzag = readVarInt();
+            return Json.create((zigzag >>> 1) ^ -(zigzag & 1));
+        case BinaryUidlConstants.TAG_DOUBLE:
+            return Json.create(buffer.getDouble());
+        case BinaryUidlConstants.TAG_STRING:
+            int length = readLength();
+            String string = new String(buffer.array(), buffer.position(),
+                    length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            strings.add(string);
+            return Json.create(string);
+        case BinaryUidlConstants.TAG_STRING_REF:
+            long index = readVarInt();
+            if (index >= strings.size()) {
+                throw new JsonException("Invalid string reference " + index
+                        + " at " + buffer.position());
+            }
+            return Json.create(strings.get((int) index));
+        case BinaryUidlConstants.TAG_ARRAY:
+            JsonArray array = Json.createArray();
+            int arrayLength = readLength();
+            for (int i = 0; i < arrayLength; i++) {
+                array.set(i, readValue());
+            }
+            return array;
+        case BinaryUidlConstants.TAG_OBJECT:
+            JsonObject object = Json.createObject();
+            int size = readLength();
+            for (int i = 0; i < size; i++) {
+                JsonValue key = readValue();
+                if (key.getType() != JsonType.STRING) {
+                    throw new JsonException("Object key is not a string at "
+                            + buffer.position());
+                }
+                object.put(key.asString(), readValue());
+            }
+            return object;
+        default:
+            throw new JsonException("Unknown binary UIDL tag " + tag + " at "
+                    + (buffer.position() - 1));
+        }
+    }
+
+    /**
+     * Reads an unsigned variable length integer.
+     */
+    private long readVarInt() {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 35) {
+                throw new JsonException(
+                        "Too long integer at " + buffer.position());
+            }
+            b = readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    /**
+     * Reads the length of a string, an array or an object. Each byte or item
+     * takes at least one byte, so the length cannot be larger than the number
+     * of remaining bytes.
+     */
+    private int readLength() {
+        long length = readVarInt();
+        if (length > buffer.remaining()) {
+            throw new JsonException(
+                    "Invalid length " + length + " at " + buffer.position());
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Encodes UIDL messages using the compact binary format described in
+ * {@link BinaryUidlConstants}.
+ * <p>
+ * The encoding is structurally equivalent to JSON, so the client decodes a
+ * message into the same object that it would get from parsing the JSON
+ * version of it. Node ids and other small integers are written as variable
+ * length integers and every distinct string, including object keys, is only
+ * written once per message.
+ *
+ * @author Vaadin Ltd
+ */
+public final class BinaryUidlEncoder {
+
+    /**
+     * Encodes a JSON object whose entries are produced one at a time, without
+     * first building the object. The values of one array entry can also be
+     * added one at a time, which is used for the state changes of a UIDL
+     * message.
+     * <p>
+     * The number of entries is written before the entries, so the encoded
+     * entries are buffered until {@link #toByteArray()} is called.
+     */
+    static final class ObjectEncoder {
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        private final BinaryUidlEncoder encoder = new BinaryUidlEncoder(
+                entries);
+        private int entryCount;
+
+        private ByteArrayOutputStream arrayItems;
+        private int arrayLength;
+
+        /**
+         * Adds an entry to the object.
+         *
+         * @param key
+         *            the key of the entry, not <code>null</code>
+         * @param value
+         *            the value of the entry, not <code>null</code>
+         * @throws IOException
+         *             never, since the data is kept in memory
+         */
+        void put(String key, JsonValue value) throws IOException {
+            endArray();
+            encoder.writeString(key);
+            encoder.writeValue(value);
+            entryCount++;
+        }
+
+        /**
+         * Adds an item to the array entry with the given key. The items of an
+         * array must be added one after another, without adding other
+         * entries in between.
+         *
+         * @param key
+         *            the key of the array entry, not <code>null</code>
+         * @param item
+         *            the item to add, not <code>null</code>
+         * @throws IOException
+         *             never, since the data is kept in memory
+         */
+        void addArrayItem(String key, JsonValue item) throws IOException {
+            if (arrayItems == null) {
+                encoder.writeString(key);
+                entryCount++;
+                // Strings are still numbered in the order they are written
+                arrayItems = new ByteArrayOutputStream();
+                encoder.setOutput(arrayItems);
+            }
+            encoder.writeValue(item);
+            arrayLength++;
+        }
+
+        /**
+         * Ends the array entry that items are currently being added to, if
+         * any.
+         *
+         * @throws IOException
+         *             never, since the data is kept in memory
+         */
+        void endArray() throws IOException {
+            if (arrayItems != null) {
+                encoder.setOutput(entries);
+                encoder.out.writeByte(BinaryUidlConstants.TAG_ARRAY);
+                encoder.writeVarInt(arrayLength);
+                arrayItems.writeTo(entries);
+                arrayItems = null;
+                arrayLength = 0;
+            }
+        }
+
+        /**
+         * Gets the encoded message.
+         *
+         * @return the encoded message
+         * @throws IOException
+         *             never, since the data is kept in memory
+         */
+        byte[] toByteArray() throws IOException {
+            endArray();
+            encoder.out.flush();
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    entries.size() + 8);
+            BinaryUidlEncoder header = new BinaryUidlEncoder(bytes);
+            header.out.writeByte(BinaryUidlConstants.MAGIC);
+            header.out.writeByte(BinaryUidlConstants.VERSION);
+            header.out.writeByte(BinaryUidlConstants.TAG_OBJECT);
+            header.writeVarInt(entryCount);
+            header.out.flush();
+            entries.writeTo(bytes);
+            return bytes.toByteArray();
+        }
+    }
+
+    private DataOutputStream out;
+
+    private final Map<String, Integer> stringTable = new HashMap<>();
+
+    private BinaryUidlEncoder(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    private void setOutput(OutputStream output) throws IOException {
+        out.flush();
+        out = new DataOutputStream(output);
+    }
+
+    /**
+     * Encodes the given JSON value as a binary UIDL message.
+     *
+     * @param value
+     *            the value to encode, not <code>null</code>
+     * @return the encoded message
+     */
+    public static byte[] encode(JsonValue value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            encode(value, bytes);
+        } catch (IOException e) {
+            // Not possible since the bytes are kept in memory
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes the given JSON value as a binary UIDL message and writes it to
+     * the given output stream.
+     *
+     * @param value
+     *            the value to encode, not <code>null</code>
+     * @param outputStream
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing to the stream fails
+     */
+    public static void encode(JsonValue value, OutputStream outputStream)
+            throws IOException {
+        assert value != null;
+        assert outputStream != null;
+
+        BinaryUidlEncoder encoder = new BinaryUidlEncoder(outputStream);
+        encoder.out.writeByte(BinaryUidlConstants.MAGIC);
+        encoder.out.writeByte(BinaryUidlConstants.VERSION);
+        encoder.writeValue(value);
+        encoder.out.flush();
+    }
+
+    private void writeValue(JsonValue value) throws IOException {
+        switch (value.getType()) {
+        case NULL:
+            out.writeByte(BinaryUidlConstants.TAG_NULL);
+            break;
+        case BOOLEAN:
+            out.writeByte(value.asBoolean() ? BinaryUidlConstants.TAG_TRUE
+                    : BinaryUidlConstants.TAG_FALSE);
+            break;
+        case NUMBER:
+            writeNumber(value.asNumber());
+            break;
+        case STRING:
+            writeString(value.asString());
+            break;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            out.writeByte(BinaryUidlConstants.TAG_ARRAY);
+            writeVarInt(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                writeValue(array.get(i));
+            }
+            break;
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            String[] keys = object.keys();
+            out.writeByte(BinaryUidlConstants.TAG_OBJECT);
+            writeVarInt(keys.length);
+            for (String key : keys) {
+                writeString(key);
+                writeValue(object.get(key));
+            }
+            break;
+        default:
+            throw new IllegalArgumentException(
+                    "Unsupported JSON type: " + value.getType());
+        }
+    }
+
+    private void writeNumber(double number) throws IOException {
+        int intValue = (int) number;
+        if (intValue == number && (intValue != 0
+                || Double.doubleToRawLongBits(number) == 0L)) {
+            out.writeByte(BinaryUidlConstants.TAG_INT);
+            // Zigzag encode so that small negative values stay small
+            writeVarInt((intValue << 1) ^ (intValue >> 31));
+        } else {
+            out.writeByte(BinaryUidlConstants.TAG_DOUBLE);
+            out.writeDouble(number);
+        }
+    }
+
+    private void writeString(String string) throws IOException {
+        Integer index = stringTable.get(string);
+        if (index != null) {
+            out.writeByte(BinaryUidlConstants.TAG_STRING_REF);
+            writeVarInt(index.intValue());
+        } else {
+            stringTable.put(string, Integer.valueOf(stringTable.size()));
+
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(BinaryUidlConstants.TAG_STRING);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the given value as an unsigned variable length integer.
+     */
+    private void writeVarInt(int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+}
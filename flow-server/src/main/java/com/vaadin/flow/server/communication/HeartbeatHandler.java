@@ -20,7 +20,6 @@ import java.io.IOException;
 
 import javax.servlet.http.HttpServletResponse;
 
-import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.server.ServletHelper;
 import com.vaadin.flow.server.SessionExpiredHandler;
@@ -57,14 +56,16 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
      * {@link UIInternals#getLastHeartbeatTimestamp() heartbeat timestamp} to
      * the current time. Otherwise, writes a HTTP Not Found error to the
      * response.
+     * <p>
+     * A passivated UI is not activated for handling a heartbeat request.
      */
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
-        UI ui = session.getService().findUI(request);
-        if (ui != null) {
-            ui.getInternals()
-                    .setLastHeartbeatTimestamp(System.currentTimeMillis());
+        String uiId = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        if (uiId != null && session.setLastHeartbeatTimestamp(
+                Integer.parseInt(uiId), System.currentTimeMillis())) {
             // Ensure that the browser does not cache heartbeat responses.
             // iOS 6 Safari requires this (#10370)
             response.setHeader("Cache-Control", "no-cache");
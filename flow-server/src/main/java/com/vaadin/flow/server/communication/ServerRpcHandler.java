@@ -16,7 +16,9 @@
 
 package com.vaadin.flow.server.communication;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.security.GeneralSecurityException;
@@ -44,8 +46,10 @@ import com.vaadin.flow.server.communication.rpc.PublishedServerEventHandlerRpcHa
 import com.vaadin.flow.server.communication.rpc.RpcInvocationHandler;
 import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
 
 import elemental.json.JsonArray;
+import elemental.json.JsonException;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
 import elemental.json.impl.JsonUtil;
@@ -92,7 +96,20 @@ public class ServerRpcHandler implements Serializable {
          *            the request through which the JSON was received
          */
         public RpcRequest(String jsonString, VaadinRequest request) {
-            json = JsonUtil.parse(jsonString);
+            this((JsonObject) JsonUtil.parse(jsonString), request);
+        }
+
+        /**
+         * Creates an instance based on the given already decoded JSON received
+         * through the given request.
+         *
+         * @param json
+         *            the JSON object containing the RPC invocations
+         * @param request
+         *            the request through which the JSON was received
+         */
+        public RpcRequest(JsonObject json, VaadinRequest request) {
+            this.json = json;
 
             JsonValue token = json.get(ApplicationConstants.CSRF_TOKEN);
             if (token == null) {
@@ -232,7 +249,9 @@ public class ServerRpcHandler implements Serializable {
      */
     public void handleRpc(UI ui, Reader reader, VaadinRequest request)
             throws IOException, InvalidUIDLSecurityKeyException {
-        ui.getSession().setLastRequestTimestamp(System.currentTimeMillis());
+        long now = System.currentTimeMillis();
+        ui.getSession().setLastRequestTimestamp(now);
+        ui.getInternals().setLastRequestTimestamp(now);
 
         String changeMessage = getMessage(reader);
 
@@ -241,8 +260,48 @@ public class ServerRpcHandler implements Serializable {
             return;
         }
 
-        RpcRequest rpcRequest = new RpcRequest(changeMessage, request);
+        handleRpc(ui, new RpcRequest(changeMessage, request));
+    }
 
+    /**
+     * Reads a binary encoded message containing zero or more serialized RPC
+     * calls and executes the calls. The message uses the encoding described
+     * in {@link BinaryUidlConstants}.
+     *
+     * @param ui
+     *            The {@link UI} receiving the calls. Cannot be null.
+     * @param inputStream
+     *            The {@link InputStream} used to read the message.
+     * @param request
+     *            The request through which the RPC was received
+     * @throws IOException
+     *             If reading the message fails.
+     * @throws InvalidUIDLSecurityKeyException
+     *             If the received security key does not match the one stored in
+     *             the session.
+     * @throws JsonException
+     *             If the message is not a valid binary encoded message
+     */
+    public void handleBinaryRpc(UI ui, InputStream inputStream,
+            VaadinRequest request)
+            throws IOException, InvalidUIDLSecurityKeyException {
+        long now = System.currentTimeMillis();
+        ui.getSession().setLastRequestTimestamp(now);
+        ui.getInternals().setLastRequestTimestamp(now);
+
+        byte[] changeMessage = getBinaryMessage(inputStream);
+
+        if (changeMessage.length == 0) {
+            return;
+        }
+
+        handleRpc(ui, new RpcRequest(
+                BinaryUidlDecoder.<JsonObject> decode(changeMessage),
+                request));
+    }
+
+    private void handleRpc(UI ui, RpcRequest rpcRequest)
+            throws InvalidUIDLSecurityKeyException {
         // Security: double cookie submission pattern unless disabled by
         // property
         if (!VaadinService.isCsrfTokenValid(ui.getSession(),
@@ -375,6 +434,22 @@ public class ServerRpcHandler implements Serializable {
         return sb.toString();
     }
 
+    private static byte[] getBinaryMessage(InputStream inputStream)
+            throws IOException {
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        byte[] buffer = new byte[MAX_BUFFER_SIZE];
+
+        while (true) {
+            int read = inputStream.read(buffer);
+            if (read == -1) {
+                break;
+            }
+            message.write(buffer, 0, read);
+        }
+
+        return message.toByteArray();
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(ServerRpcHandler.class.getName());
     }
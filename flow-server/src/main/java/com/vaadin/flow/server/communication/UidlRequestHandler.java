@@ -18,10 +18,14 @@ package com.vaadin.flow.server.communication;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +40,7 @@ import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
 import com.vaadin.flow.shared.JsonConstants;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
 
 import elemental.json.JsonException;
 import elemental.json.JsonObject;
@@ -55,6 +60,12 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
 
     public static final String UIDL_PATH = "UIDL/";
 
+    /**
+     * Responses smaller than this are not compressed since the gain would be
+     * smaller than the overhead.
+     */
+    private static final int MIN_COMPRESSED_RESPONSE_SIZE = 1024;
+
     private ServerRpcHandler rpcHandler;
 
     @Override
@@ -82,12 +93,27 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
+        boolean binary = isBinaryResponseRequested(session, request);
+        boolean gzip = isGzipAccepted(session, request);
+        boolean streaming = session.getService().getDeploymentConfiguration()
+                .isUidlStreamingEnabled();
         StringWriter stringWriter = new StringWriter();
+        byte[] binaryResponse = null;
 
         try {
-            getRpcHandler(session).handleRpc(uI, request.getReader(), request);
+            if (isBinaryRequest(session, request)) {
+                getRpcHandler(session).handleBinaryRpc(uI,
+                        request.getInputStream(), request);
+            } else {
+                getRpcHandler(session).handleRpc(uI, request.getReader(),
+                        request);
+            }
 
-            writeUidl(uI, stringWriter);
+            if (binary) {
+                binaryResponse = new UidlWriter().createBinaryUidl(uI, false);
+            } else if (!streaming) {
+                writeUidl(uI, stringWriter, false);
+            }
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -104,7 +130,115 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             stringWriter.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
+        if (binaryResponse != null) {
+            commitResponse(response,
+                    BinaryUidlConstants.BINARY_UIDL_CONTENT_TYPE,
+                    binaryResponse, gzip);
+        } else if (streaming) {
+            try {
+                streamJsonResponse(response, gzip,
+                        writer -> writeUidl(uI, writer, true));
+            } catch (JsonException e) {
+                // Nothing has been written, the response can still be replaced
+                getLogger().error("Error writing JSON to response", e);
+                writeRefresh(response);
+            }
+        } else {
+            commitResponse(response, JsonConstants.JSON_CONTENT_TYPE,
+                    stringWriter.toString().getBytes(UTF_8), gzip);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the RPC message in the request body uses the binary
+     * encoding. Binary messages are only accepted if binary UIDL is enabled in
+     * the deployment configuration.
+     */
+    private static boolean isBinaryRequest(VaadinSession session,
+            VaadinRequest request) {
+        if (!session.getService().getDeploymentConfiguration()
+                .isBinaryUidlEnabled()) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        return contentType != null && contentType
+                .startsWith(BinaryUidlConstants.BINARY_UIDL_CONTENT_TYPE);
+    }
+
+    /**
+     * Checks whether the UIDL response should use the binary encoding. This is
+     * the case if it's enabled in the deployment configuration and the client
+     * has declared that it accepts binary UIDL.
+     */
+    private static boolean isBinaryResponseRequested(VaadinSession session,
+            VaadinRequest request) {
+        if (!session.getService().getDeploymentConfiguration()
+                .isBinaryUidlEnabled()) {
+            return false;
+        }
+        String accept = request.getHeader("Accept");
+        return accept != null && accept
+                .contains(BinaryUidlConstants.BINARY_UIDL_CONTENT_TYPE);
+    }
+
+    /**
+     * Checks whether the UIDL response may be gzip compressed. This is the
+     * case if compression is enabled in the deployment configuration and the
+     * client has declared that it accepts gzip encoded content.
+     */
+    private static boolean isGzipAccepted(VaadinSession session,
+            VaadinRequest request) {
+        if (!session.getService().getDeploymentConfiguration()
+                .isUidlCompressionEnabled()) {
+            return false;
+        }
+        return isGzipAccepted(request.getHeader("Accept-Encoding"));
+    }
+
+    /**
+     * Checks whether the given <code>Accept-Encoding</code> header value
+     * accepts gzip encoding. An explicit <code>gzip</code> entry takes
+     * precedence over a <code>*</code> entry, regardless of their order.
+     *
+     * @param acceptEncoding
+     *            the header value, may be <code>null</code>
+     * @return <code>true</code> if gzip is accepted, <code>false</code>
+     *         otherwise
+     */
+    static boolean isGzipAccepted(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzipAccepted = null;
+        Boolean anyAccepted = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ("gzip".equalsIgnoreCase(name)) {
+                gzipAccepted = Boolean.valueOf(hasNonZeroQuality(parts));
+            } else if ("*".equals(name)) {
+                anyAccepted = Boolean.valueOf(hasNonZeroQuality(parts));
+            }
+        }
+        if (gzipAccepted != null) {
+            return gzipAccepted.booleanValue();
+        }
+        return anyAccepted != null && anyAccepted.booleanValue();
+    }
+
+    /**
+     * Checks whether the parameters of an <code>Accept-Encoding</code> entry
+     * don't include a zero quality value. The first element is the content
+     * coding and the rest are the parameters.
+     */
+    private static boolean hasNonZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.matches("[qQ]\\s*=.*")) {
+                return !parameter.matches("[qQ]\\s*=\\s*0(\\.0*)?");
+            }
+        }
         return true;
     }
 
@@ -114,12 +248,153 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         commitJsonResponse(response, json);
     }
 
-    private static void writeUidl(UI ui, Writer writer) throws IOException {
-        JsonObject uidl = new UidlWriter().createUidl(ui, false);
-
+    private static void writeUidl(UI ui, Writer writer, boolean streaming)
+            throws IOException {
         // some dirt to prevent cross site scripting
-        String responseString = "for(;;);[" + uidl.toJson() + "]";
-        writer.write(responseString);
+        writer.write("for(;;);[");
+        if (streaming) {
+            new UidlWriter().writeUidl(ui, false, writer);
+        } else {
+            JsonObject uidl = new UidlWriter().createUidl(ui, false);
+            writer.write(uidl.toJson());
+        }
+        writer.write("]");
+    }
+
+    /**
+     * Writes the contents of a UIDL response.
+     */
+    @FunctionalInterface
+    interface ResponseContent {
+        /**
+         * Writes the response contents to the given writer.
+         *
+         * @param writer
+         *            the writer to write to, not <code>null</code>
+         * @throws IOException
+         *             if there was an exception while writing
+         */
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Output stream that sets the response headers and opens the response
+     * output stream only when the first bytes are written, so that nothing is
+     * committed if encoding the response fails before that.
+     */
+    private static class DeferredResponseStream extends OutputStream {
+        private final VaadinResponse response;
+        private final boolean gzip;
+
+        private OutputStream out;
+        private GZIPOutputStream gzipStream;
+
+        private DeferredResponseStream(VaadinResponse response,
+                boolean gzip) {
+            this.response = response;
+            this.gzip = gzip;
+        }
+
+        private OutputStream open() throws IOException {
+            if (out == null) {
+                response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+                // Ensure that the browser does not cache UIDL responses.
+                // iOS 6 Safari requires this (#9732)
+                response.setHeader("Cache-Control", "no-cache");
+
+                out = response.getOutputStream();
+                if (gzip) {
+                    setGzipHeaders(response);
+                    gzipStream = new GZIPOutputStream(out);
+                    out = gzipStream;
+                }
+            }
+            return out;
+        }
+
+        private boolean isOpen() {
+            return out != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            open().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            open().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            // Also opens the stream for an empty response
+            open();
+            if (gzipStream != null) {
+                gzipStream.finish();
+            }
+            // NOTE GateIn requires the buffers to be flushed to work
+            response.getOutputStream().flush();
+        }
+    }
+
+    /**
+     * Writes a UIDL response directly to the response output stream while it
+     * is being encoded. Unlike
+     * {@link #commitJsonResponse(VaadinResponse, String)}, the content length
+     * is not known in advance.
+     * <p>
+     * The response is buffered until enough data has been encoded. If encoding
+     * fails with a {@link JsonException} before any data has been written to
+     * the response, the exception is thrown as is and the response can still
+     * be replaced, e.g. with a critical notification. If it fails after that,
+     * the exception is wrapped in an {@link IOException} since the response
+     * is already partially written.
+     *
+     * @param response
+     *            the response to write to
+     * @param gzip
+     *            <code>true</code> to gzip compress the response,
+     *            <code>false</code> to write it as is
+     * @param content
+     *            the content to write, not <code>null</code>
+     * @throws IOException
+     *             if there was an exception while writing to the output
+     * @throws JsonException
+     *             if encoding the content failed before anything was written
+     *             to the response
+     */
+    static void streamJsonResponse(VaadinResponse response, boolean gzip,
+            ResponseContent content) throws IOException {
+        DeferredResponseStream outputStream = new DeferredResponseStream(
+                response, gzip);
+
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, UTF_8));
+        try {
+            content.write(writer);
+            writer.flush();
+        } catch (JsonException e) {
+            if (outputStream.isOpen()) {
+                throw new IOException(
+                        "Error writing JSON to a partially written response",
+                        e);
+            }
+            throw e;
+        }
+        outputStream.finish();
+    }
+
+    private static void setGzipHeaders(VaadinResponse response) {
+        response.setHeader("Content-Encoding", "gzip");
+        response.setHeader("Vary", "Accept-Encoding");
     }
 
     private static final Logger getLogger() {
@@ -155,31 +430,64 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     }
 
     /**
-     * Commit the JSON response. We can't write immediately to the output stream
-     * as we want to write only a critical notification if something goes wrong
-     * during the response handling.
+     * Commits a UIDL response of the given content type, compressing it if
+     * requested and if it is large enough to benefit from it.
      *
      * @param response
-     *            The response to write to
-     * @param json
-     *            The JSON to write
+     *            the response to write to
+     * @param contentType
+     *            the content type of the message
+     * @param message
+     *            the message to write
+     * @param gzip
+     *            <code>true</code> to gzip compress the response,
+     *            <code>false</code> to write it as is
      * @throws IOException
-     *             If there was an exception while writing to the output
+     *             if there was an exception while writing to the output
      */
-    public static void commitJsonResponse(VaadinResponse response, String json)
-            throws IOException {
-        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+    static void commitResponse(VaadinResponse response, String contentType,
+            byte[] message, boolean gzip) throws IOException {
+        response.setContentType(contentType);
 
         // Ensure that the browser does not cache UIDL responses.
         // iOS 6 Safari requires this (#9732)
         response.setHeader("Cache-Control", "no-cache");
 
-        byte[] b = json.getBytes(UTF_8);
-        response.setContentLength(b.length);
+        byte[] content = message;
+        if (gzip && message.length >= MIN_COMPRESSED_RESPONSE_SIZE) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(
+                    message.length / 4);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(
+                    compressed)) {
+                gzipStream.write(message);
+            }
+            content = compressed.toByteArray();
+            setGzipHeaders(response);
+        }
+
+        response.setContentLength(content.length);
 
         OutputStream outputStream = response.getOutputStream();
-        outputStream.write(b);
+        outputStream.write(content);
         // NOTE GateIn requires the buffers to be flushed to work
         outputStream.flush();
     }
+
+    /**
+     * Commit the JSON response. We can't write immediately to the output stream
+     * as we want to write only a critical notification if something goes wrong
+     * during the response handling.
+     *
+     * @param response
+     *            The response to write to
+     * @param json
+     *            The JSON to write
+     * @throws IOException
+     *             If there was an exception while writing to the output
+     */
+    public static void commitJsonResponse(VaadinResponse response, String json)
+            throws IOException {
+        commitResponse(response, JsonConstants.JSON_CONTENT_TYPE,
+                json.getBytes(UTF_8), false);
+    }
 }
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
@@ -77,6 +79,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -89,6 +92,137 @@ import elemental.json.JsonValue;
 public class UidlWriter implements Serializable {
     private static final String COULD_NOT_READ_URL_CONTENTS_ERROR_MESSAGE = "Could not read url %s contents";
 
+    /**
+     * Receives the parts of a UIDL response as they are produced.
+     * <p>
+     * State changes are passed one by one through {@link #addChange(JsonValue)}
+     * so that an implementation can write them out directly instead of
+     * collecting them into an array first.
+     */
+    private interface UidlTarget {
+        void put(String key, JsonValue value) throws IOException;
+
+        void addChange(JsonValue change) throws IOException;
+
+        void endChanges() throws IOException;
+    }
+
+    /**
+     * Collects the UIDL response into a {@link JsonObject}.
+     */
+    private static class JsonObjectTarget implements UidlTarget {
+        private final JsonObject response = Json.createObject();
+        private final JsonArray stateChanges = Json.createArray();
+
+        @Override
+        public void put(String key, JsonValue value) {
+            response.put(key, value);
+        }
+
+        @Override
+        public void addChange(JsonValue change) {
+            stateChanges.set(stateChanges.length(), change);
+        }
+
+        @Override
+        public void endChanges() {
+            if (stateChanges.length() != 0) {
+                response.put("changes", stateChanges);
+            }
+        }
+    }
+
+    /**
+     * Encodes the UIDL response using {@link BinaryUidlEncoder} as the parts
+     * are produced.
+     */
+    private static class BinaryTarget implements UidlTarget {
+        private final BinaryUidlEncoder.ObjectEncoder encoder = new BinaryUidlEncoder.ObjectEncoder();
+
+        @Override
+        public void put(String key, JsonValue value) throws IOException {
+            encoder.put(key, value);
+        }
+
+        @Override
+        public void addChange(JsonValue change) throws IOException {
+            encoder.addArrayItem("changes", change);
+        }
+
+        @Override
+        public void endChanges() throws IOException {
+            encoder.endArray();
+        }
+    }
+
+    /**
+     * Writes the UIDL response as a JSON object directly to a {@link Writer}.
+     * Keys are written in the order they are produced, which means that the
+     * state changes are written before the dependencies and constants they
+     * refer to. The client parses the whole message before processing it so
+     * the order of keys is not significant.
+     */
+    private static class StreamingTarget implements UidlTarget {
+        private final Writer writer;
+        private boolean empty = true;
+        private boolean changesOpen;
+        private boolean firstChange = true;
+
+        private StreamingTarget(Writer writer) {
+            this.writer = writer;
+        }
+
+        private void start() throws IOException {
+            writer.write('{');
+        }
+
+        private void writeKey(String key) throws IOException {
+            if (!empty) {
+                writer.write(',');
+            }
+            empty = false;
+            writer.write(JsonUtil.quote(key));
+            writer.write(':');
+        }
+
+        @Override
+        public void put(String key, JsonValue value) throws IOException {
+            endChanges();
+            writeKey(key);
+            writer.write(value.toJson());
+        }
+
+        @Override
+        public void addChange(JsonValue change) throws IOException {
+            if (!changesOpen) {
+                if (!firstChange) {
+                    throw new IllegalStateException(
+                            "State changes have already been written");
+                }
+                writeKey("changes");
+                writer.write('[');
+                changesOpen = true;
+            } else {
+                writer.write(',');
+            }
+            firstChange = false;
+            writer.write(change.toJson());
+        }
+
+        @Override
+        public void endChanges() throws IOException {
+            if (changesOpen) {
+                writer.write(']');
+                changesOpen = false;
+            }
+        }
+
+        private void end() throws IOException {
+            endChanges();
+            writer.write('}');
+        }
+    }
+
     /**
      * Creates a JSON object containing all pending changes to the given UI.
      *
@@ -100,8 +234,74 @@ public class UidlWriter implements Serializable {
      * @return JSON object containing the UIDL response
      */
     public JsonObject createUidl(UI ui, boolean async) {
-        JsonObject response = Json.createObject();
+        JsonObjectTarget target = new JsonObjectTarget();
+        try {
+            writeUidl(ui, async, target);
+        } catch (IOException e) {
+            // Not possible since nothing is written to a stream
+            throw new UncheckedIOException(e);
+        }
+        return target.response;
+    }
 
+    /**
+     * Creates a binary UIDL message containing all pending changes to the
+     * given UI.
+     * <p>
+     * The message is equivalent to encoding the JSON object produced by
+     * {@link #createUidl(UI, boolean)} using {@link BinaryUidlEncoder}, but
+     * the state changes are encoded one at a time as they are collected from
+     * the state tree instead of first building the whole response as a JSON
+     * object.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @return the binary encoded UIDL response
+     */
+    public byte[] createBinaryUidl(UI ui, boolean async) {
+        BinaryTarget target = new BinaryTarget();
+        try {
+            writeUidl(ui, async, target);
+            return target.encoder.toByteArray();
+        } catch (IOException e) {
+            // Not possible since the message is kept in memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object to the given
+     * writer.
+     * <p>
+     * The output is equivalent to the JSON produced by
+     * {@link #createUidl(UI, boolean)}, but the state changes are encoded and
+     * written one at a time as they are collected from the state tree instead
+     * of first building the whole response in memory.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param writer
+     *            the writer to write the UIDL response to, not
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    public void writeUidl(UI ui, boolean async, Writer writer)
+            throws IOException {
+        StreamingTarget target = new StreamingTarget(writer);
+        target.start();
+        writeUidl(ui, async, target);
+        target.end();
+    }
+
+    private void writeUidl(UI ui, boolean async, UidlTarget target)
+            throws IOException {
         UIInternals uiInternals = ui.getInternals();
 
         VaadinSession session = ui.getSession();
@@ -118,11 +318,11 @@ public class UidlWriter implements Serializable {
                 ? uiInternals.getServerSyncId()
                 : -1;
 
-        response.put(ApplicationConstants.SERVER_SYNC_ID, syncId);
+        target.put(ApplicationConstants.SERVER_SYNC_ID, Json.create(syncId));
         int nextClientToServerMessageId = uiInternals
                 .getLastProcessedClientToServerId() + 1;
-        response.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
-                nextClientToServerMessageId);
+        target.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
+                Json.create(nextClientToServerMessageId));
 
         SystemMessages messages = ui.getSession().getService()
                 .getSystemMessages(ui.getLocale(), null);
@@ -130,44 +330,40 @@ public class UidlWriter implements Serializable {
         JsonObject meta = new MetadataWriter().createMetadata(ui, false, async,
                 messages);
         if (meta.keys().length > 0) {
-            response.put("meta", meta);
+            target.put("meta", meta);
         }
 
-        JsonArray stateChanges = Json.createArray();
         JsonObject templates = Json.createObject();
 
-        encodeChanges(ui, stateChanges, templates);
+        encodeChanges(ui, target, templates);
 
-        populateDependencies(response, session,
-                uiInternals.getDependencyList());
+        populateDependencies(target, session, uiInternals.getDependencyList());
 
         if (uiInternals.getConstantPool().hasNewConstants()) {
-            response.put("constants",
+            target.put("constants",
                     uiInternals.getConstantPool().dumpConstants());
         }
-        if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
-        }
+        target.endChanges();
         if (templates.keys().length > 0) {
-            response.put("templates", templates);
+            target.put("templates", templates);
         }
 
         List<JavaScriptInvocation> executeJavaScriptList = uiInternals
                 .dumpPendingJavaScriptInvocations();
         if (!executeJavaScriptList.isEmpty()) {
-            response.put(JsonConstants.UIDL_KEY_EXECUTE,
+            target.put(JsonConstants.UIDL_KEY_EXECUTE,
                     encodeExecuteJavaScriptList(executeJavaScriptList));
         }
         if (!ui.getSession().getService().getDeploymentConfiguration()
                 .isProductionMode()) {
-            response.put("timings", createPerformanceData(ui));
+            target.put("timings", createPerformanceData(ui));
         }
         uiInternals.incrementServerId();
-        return response;
     }
 
-    private static void populateDependencies(JsonObject response,
-            VaadinSession session, DependencyList dependencyList) {
+    private static void populateDependencies(UidlTarget target,
+            VaadinSession session, DependencyList dependencyList)
+            throws IOException {
         Collection<Dependency> pendingSendToClient = dependencyList
                 .getPendingSendToClient();
 
@@ -180,9 +376,12 @@ public class UidlWriter implements Serializable {
         }
 
         if (!pendingSendToClient.isEmpty()) {
-            groupDependenciesByLoadMode(pendingSendToClient)
-                    .forEach((loadMode, dependencies) -> response
-                            .put(loadMode.name(), dependencies));
+            Map<LoadMode, JsonArray> dependenciesByLoadMode = groupDependenciesByLoadMode(
+                    pendingSendToClient);
+            for (Map.Entry<LoadMode, JsonArray> entry : dependenciesByLoadMode
+                    .entrySet()) {
+                target.put(entry.getKey().name(), entry.getValue());
+            }
         }
         dependencyList.clearPendingSendToClient();
     }
@@ -294,14 +493,16 @@ public class UidlWriter implements Serializable {
      *
      * @param ui
      *            the UI
-     * @param stateChanges
-     *            a JSON array to put state changes into
+     * @param target
+     *            the target to pass encoded state changes to
      * @param templates
      *            a JSON object to put new template nodes into
+     * @throws IOException
+     *             if the target fails to write a state change
      * @see StateTree#runExecutionsBeforeClientResponse()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges,
-            JsonObject templates) {
+    private void encodeChanges(UI ui, UidlTarget target, JsonObject templates)
+            throws IOException {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
@@ -320,21 +521,29 @@ public class UidlWriter implements Serializable {
         };
 
         Set<Class<? extends Component>> componentsWithDependencies = new LinkedHashSet<>();
-        stateTree.collectChanges(change -> {
-            // Ensure new templates are sent to the client
-            runIfNewTemplateChange(change, templateEncoder);
-
-            if (attachesComponent(change)) {
-                change.getNode().getFeature(ComponentMapping.class)
-                        .getComponent()
-                        .ifPresent(component -> addComponentHierarchy(ui,
-                                componentsWithDependencies, component));
-            }
+        try {
+            stateTree.collectChanges(change -> {
+                // Ensure new templates are sent to the client
+                runIfNewTemplateChange(change, templateEncoder);
+
+                if (attachesComponent(change)) {
+                    change.getNode().getFeature(ComponentMapping.class)
+                            .getComponent()
+                            .ifPresent(component -> addComponentHierarchy(ui,
+                                    componentsWithDependencies, component));
+                }
 
-            // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
-        });
+                // Encode the actual change
+                try {
+                    target.addChange(
+                            change.toJson(uiInternals.getConstantPool()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
 
         componentsWithDependencies
                 .forEach(uiInternals::addComponentDependencies);
@@ -42,7 +42,7 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @author Vaadin Ltd.
  */
 public class WebJarServer implements Serializable {
-    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final ResponseWriter responseWriter;
 
     private final String prefix;
     private final Pattern urlPattern;
@@ -77,6 +77,10 @@ public class WebJarServer implements Serializable {
                         ApplicationConstants.CONTEXT_PROTOCOL_PREFIX.length())
                 + "bower_components/";
         urlPattern = Pattern.compile("^([/.]?[/..]*)" + prefix);
+
+        // WebJar contents never change while the application is running
+        responseWriter = new ResponseWriter(ResponseWriter.DEFAULT_BUFFER_SIZE,
+                deploymentConfiguration.getStaticResourceCacheSize());
     }
 
     /**
@@ -152,6 +152,16 @@ public class JsonConstants implements Serializable {
      */
     public static final String RPC_EVENT_DATA = "data";
 
+    /**
+     * Key in the event data of an event message holding the
+     * <code>[filter, rateLimit]</code> array of the rate limited DOM event
+     * listeners that the event is sent for. Not set for events that are sent
+     * immediately. A positive rate limit is a debounce timeout and a negative
+     * rate limit a throttle period, in milliseconds. The key cannot be a valid
+     * event data expression.
+     */
+    public static final String EVENT_DATA_LISTENER_GROUP = "}group";
+
     /**
      * Key used for data related to
      * {@link Page#executeJavaScript(String, Serializable...)} in UIDL messages.
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.shared.communication;
+
+import java.io.Serializable;
+
+/**
+ * Shared constants for the binary UIDL encoding.
+ * <p>
+ * A binary UIDL message starts with {@link #MAGIC} and {@link #VERSION},
+ * followed by a single encoded value. Each value starts with one of the
+ * <code>TAG_</code> bytes. Integers and lengths are written as unsigned
+ * variable length quantities with seven bits per byte, least significant group
+ * first. Signed integers are zigzag encoded before that. Strings are written as
+ * UTF-8 and are added to a per message string table the first time they are
+ * encoded so that repeated keys and values can be referred to by their index.
+ *
+ * @author Vaadin Ltd
+ */
+public class BinaryUidlConstants implements Serializable {
+
+    /**
+     * The content type for binary UIDL responses and RPC requests.
+     */
+    public static final String BINARY_UIDL_CONTENT_TYPE = "application/x-vaadin-uidl";
+
+    /**
+     * The first byte of every binary UIDL message. Chosen so that it can't be
+     * the first byte of a JSON response.
+     */
+    public static final int MAGIC = 0xB1;
+
+    /**
+     * The version of the binary format, written right after {@link #MAGIC}.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Tag for a JSON <code>null</code>.
+     */
+    public static final int TAG_NULL = 0;
+
+    /**
+     * Tag for a JSON <code>false</code>.
+     */
+    public static final int TAG_FALSE = 1;
+
+    /**
+     * Tag for a JSON <code>true</code>.
+     */
+    public static final int TAG_TRUE = 2;
+
+    /**
+     * Tag for an integral number in the 32 bit range, followed by a zigzag
+     * encoded variable length integer.
+     */
+    public static final int TAG_INT = 3;
+
+    /**
+     * Tag for any other number, followed by eight bytes of a big endian IEEE
+     * 754 double.
+     */
+    public static final int TAG_DOUBLE = 4;
+
+    /**
+     * Tag for a new string, followed by the length of the UTF-8 encoded string
+     * in bytes and the bytes themselves. The string is added to the end of the
+     * string table of the message.
+     */
+    public static final int TAG_STRING = 5;
+
+    /**
+     * Tag for a string that has already been sent in the same message,
+     * followed by its index in the string table.
+     */
+    public static final int TAG_STRING_REF = 6;
+
+    /**
+     * Tag for an array, followed by the number of items and the items.
+     */
+    public static final int TAG_ARRAY = 7;
+
+    /**
+     * Tag for an object, followed by the number of properties and then the
+     * name (as a string or string reference) and the value of each property.
+     */
+    public static final int TAG_OBJECT = 8;
+}
@@ -374,6 +374,29 @@ public class ComponentEventBusTest {
         });
     }
 
+    @DomEvent("dom-event")
+    public static class ThrowingConstructorEvent
+            extends ComponentEvent<Component> {
+        public ThrowingConstructorEvent(Component source, boolean fromClient) {
+            super(source, fromClient);
+            throw new IllegalStateException("Constructor failed");
+        }
+    }
+
+    @Test
+    public void exceptionInEventConstructor_wrapped() {
+        TestComponent c = new TestComponent();
+        c.addListener(ThrowingConstructorEvent.class, e -> {
+        });
+
+        try {
+            fireDomEvent(c, "dom-event", Json.createObject());
+            Assert.fail("Expected the constructor exception to be wrapped");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void hasListeners_nullEventType_throws() {
         new ComponentEventBus(new TestComponent()).hasListener(null);
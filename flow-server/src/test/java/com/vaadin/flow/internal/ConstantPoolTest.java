@@ -15,11 +15,14 @@
  */
 package com.vaadin.flow.internal;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.server.VaadinService;
 
 import elemental.json.Json;
 import elemental.json.JsonObject;
@@ -74,4 +77,69 @@ public class ConstantPoolTest {
         Assert.assertNotEquals(constantId, otherId);
         Assert.assertTrue(constantPool.hasNewConstants());
     }
+
+    @Test
+    public void sameValue_differentPools_bothExported() {
+        ConstantPool otherPool = new ConstantPool();
+
+        String constantId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.create("foo")));
+        String otherId = otherPool
+                .getConstantId(new ConstantPoolKey(Json.create("foo")));
+        Assert.assertEquals(constantId, otherId);
+
+        Assert.assertEquals("\"foo\"",
+                constantPool.dumpConstants().get(constantId).toJson());
+        Assert.assertEquals("\"foo\"",
+                otherPool.dumpConstants().get(otherId).toJson());
+    }
+
+    @Test
+    public void serializedKey_sameIdAsNewKey() {
+        ConstantPoolKey key = new ConstantPoolKey(Json.create("bar"));
+
+        ConstantPoolKey copy = SerializationUtils.clone(key);
+
+        Assert.assertEquals(key.getId(), copy.getId());
+        Assert.assertEquals(key.getId(),
+                new ConstantPoolKey(Json.create("bar")).getId());
+    }
+
+    @Test
+    public void sameValue_sameService_idShared() {
+        VaadinService service = mockService();
+        CurrentInstance.set(VaadinService.class, service);
+        try {
+            ConstantPoolKey key = new ConstantPoolKey(Json.create("baz"));
+            ConstantPoolKey other = new ConstantPoolKey(Json.create("baz"));
+
+            Assert.assertSame(key.getId(), other.getId());
+        } finally {
+            CurrentInstance.clearAll();
+        }
+    }
+
+    @Test
+    public void sameValue_differentServices_internedSeparately() {
+        ConstantPoolKey key;
+        ConstantPoolKey other;
+        try {
+            CurrentInstance.set(VaadinService.class, mockService());
+            key = new ConstantPoolKey(Json.create("qux"));
+            CurrentInstance.set(VaadinService.class, mockService());
+            other = new ConstantPoolKey(Json.create("qux"));
+        } finally {
+            CurrentInstance.clearAll();
+        }
+
+        Assert.assertEquals(key.getId(), other.getId());
+        Assert.assertNotSame(key.getId(), other.getId());
+    }
+
+    private static VaadinService mockService() {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        ConstantPoolKey.InternTable table = new ConstantPoolKey.InternTable();
+        Mockito.when(service.getConstantPoolInternTable()).thenReturn(table);
+        return service;
+    }
 }
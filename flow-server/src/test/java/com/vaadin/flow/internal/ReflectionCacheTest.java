@@ -15,12 +15,14 @@
  */
 package com.vaadin.flow.internal;
 
+import java.lang.ref.WeakReference;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.flow.internal.ReflectionCache;
+import com.vaadin.tests.util.TestUtil;
 
 public class ReflectionCacheTest {
 
@@ -64,4 +66,59 @@ public class ReflectionCacheTest {
         cache.clear();
         Assert.assertFalse(cache.contains(Object.class));
     }
+
+    @Test
+    public void cacheMetrics() {
+        ReflectionCache<Object, Object> cache = new ReflectionCache<>(
+                type -> type);
+
+        cache.get(Object.class);
+        cache.get(Object.class);
+        cache.get(String.class);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(2, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+
+        cache.get(Object.class);
+        Assert.assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void ownClass_valueStoredWithClass()
+            throws InterruptedException {
+        ReflectionCache<Object, Object> cache = new ReflectionCache<>(
+                type -> new Object());
+
+        WeakReference<Object> value = new WeakReference<>(
+                cache.get(ReflectionCacheTest.class));
+
+        Assert.assertFalse(TestUtil.isGarbageCollected(value));
+        Assert.assertSame(value.get(), cache.get(ReflectionCacheTest.class));
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void classFromParentLoader_valueOnlyWeaklyReferenced()
+            throws InterruptedException {
+        ReflectionCache<Object, Object> cache = new ReflectionCache<>(
+                type -> new Object());
+
+        Object value = cache.get(String.class);
+        Assert.assertSame(value, cache.get(String.class));
+        Assert.assertTrue(cache.contains(String.class));
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        WeakReference<Object> reference = new WeakReference<>(value);
+        value = null;
+        Assert.assertTrue(TestUtil.isGarbageCollected(reference));
+        Assert.assertFalse(cache.contains(String.class));
+
+        Assert.assertNotNull(cache.get(String.class));
+        Assert.assertEquals(2, cache.getMissCount());
+    }
 }
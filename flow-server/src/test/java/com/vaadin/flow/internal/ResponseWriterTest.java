@@ -24,6 +24,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPOutputStream;
@@ -246,6 +247,122 @@ public class ResponseWriterTest {
                 responseContentLength.get());
     }
 
+    @Test
+    public void writeDataWithResourceCache_resourceReadOnce()
+            throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                ResponseWriter.DEFAULT_BUFFER_SIZE, 1024);
+        byte[] fileJsContents = "File.js contents"
+                .getBytes(StandardCharsets.UTF_8);
+        AtomicInteger connectionCount = new AtomicInteger();
+        URL fileJsURL = createCountingFileURL("/static/file.js",
+                fileJsContents, connectionCount);
+        Mockito.when(servletContext.getResource("/static/file.js"))
+                .thenReturn(fileJsURL);
+
+        for (int i = 0; i < 3; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            cachingWriter.writeResponseContents("/static/file.js", fileJsURL,
+                    request, response);
+
+            Assert.assertArrayEquals(fileJsContents, out.getOutput());
+            Assert.assertEquals(fileJsContents.length,
+                    responseContentLength.get());
+        }
+        Assert.assertEquals(1, connectionCount.get());
+    }
+
+    @Test
+    public void writeDataWithResourceCache_gzippedVersionCached()
+            throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                ResponseWriter.DEFAULT_BUFFER_SIZE, 1024);
+        String fileJsContents = "File.js contents";
+        byte[] fileJsContentsBytes = fileJsContents
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] fileJsGzippedContents = gzip(fileJsContents);
+        AtomicInteger connectionCount = new AtomicInteger();
+        URL fileJsURL = createCountingFileURL("/static/file.js",
+                fileJsContentsBytes, connectionCount);
+        URL fileJsGzURL = createCountingFileURL("/static/file.js.gz",
+                fileJsGzippedContents, connectionCount);
+        Mockito.when(servletContext.getResource("/static/file.js"))
+                .thenReturn(fileJsURL);
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(fileJsGzURL);
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        cachingWriter.writeResponseContents("/static/file.js", fileJsURL,
+                request, response);
+        Assert.assertArrayEquals(fileJsGzippedContents, out.getOutput());
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn(null);
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        cachingWriter.writeResponseContents("/static/file.js", fileJsURL,
+                request, response);
+        Assert.assertArrayEquals(fileJsContentsBytes, out.getOutput());
+
+        Assert.assertEquals(2, connectionCount.get());
+    }
+
+    @Test
+    public void writeDataWithResourceCache_largeResourceNotCached()
+            throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                ResponseWriter.DEFAULT_BUFFER_SIZE, 64);
+        byte[] largeContents = new byte[9];
+        AtomicInteger connectionCount = new AtomicInteger();
+        URL largeURL = createCountingFileURL("/static/large.bin",
+                largeContents, connectionCount);
+
+        for (int i = 0; i < 2; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            cachingWriter.writeResponseContents("/static/large.bin",
+                    largeURL, request, response);
+            Assert.assertArrayEquals(largeContents, out.getOutput());
+        }
+
+        // One attempt to cache, one read for the ETag and one streamed copy
+        // for each request
+        Assert.assertEquals(4, connectionCount.get());
+    }
+
+    @Test
+    public void getETag_sameContents_sameETagPerEncoding() throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                ResponseWriter.DEFAULT_BUFFER_SIZE, 1024);
+        byte[] contents = "File.js contents".getBytes(StandardCharsets.UTF_8);
+        URL fileJsURL = createFileURLWithDataAndLength("/static/file.js",
+                contents);
+        URL otherJsURL = createFileURLWithDataAndLength("/static/other.js",
+                contents);
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(createFileURLWithDataAndLength(
+                        "/static/file.js.gz", gzip("File.js contents")));
+
+        String plainETag = cachingWriter.getETag("/static/other.js",
+                otherJsURL, request);
+        Assert.assertTrue(plainETag.startsWith("\"")
+                && plainETag.endsWith("\""));
+        Assert.assertEquals(plainETag, cachingWriter
+                .getETag("/static/file.js", fileJsURL, request));
+
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        Assert.assertEquals(plainETag, cachingWriter
+                .getETag("/static/other.js", otherJsURL, request));
+        Assert.assertNotEquals(plainETag, cachingWriter
+                .getETag("/static/file.js", fileJsURL, request));
+
+        Assert.assertNull(new ResponseWriter().getETag("/static/file.js",
+                fileJsURL, request));
+    }
+
     private byte[] gzip(String input) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (GZIPOutputStream stream = new GZIPOutputStream(baos)) {
@@ -254,6 +371,18 @@ public class ResponseWriterTest {
         return baos.toByteArray();
     }
 
+    private static URL createCountingFileURL(String name, byte[] data,
+            AtomicInteger connectionCount) throws MalformedURLException {
+        URL url = createFileURLWithDataAndLength(name, data);
+        return new URL("file", "", -1, name, new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                connectionCount.incrementAndGet();
+                return url.openConnection();
+            }
+        });
+    }
+
     private static URL createFileURLWithDataAndLength(String name, byte[] data)
             throws MalformedURLException {
         return createFileURLWithDataAndLength(name, data, -1);
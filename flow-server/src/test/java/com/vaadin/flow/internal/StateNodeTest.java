@@ -29,6 +29,7 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
@@ -136,6 +137,94 @@ public class StateNodeTest {
         node.getFeature(ElementPropertyMap.class);
     }
 
+    @Test
+    public void serializeAndDeserialize_featuresRetained() {
+        StateNode node = new StateNode(ElementData.class,
+                ElementAttributeMap.class);
+        node.getFeature(ElementData.class).setTag("div");
+        node.getFeature(ElementAttributeMap.class).set("foo", "bar");
+
+        StateNode copy = SerializationUtils.clone(node);
+
+        Assert.assertEquals("div", copy.getFeature(ElementData.class).getTag());
+        Assert.assertEquals("bar",
+                copy.getFeature(ElementAttributeMap.class).get("foo"));
+        Assert.assertFalse(copy.hasFeature(ElementChildrenList.class));
+    }
+
+    @Test
+    public void hasFeature_unregisteredFeature_false() {
+        StateNode node = new StateNode(ElementData.class);
+
+        Assert.assertFalse(node.hasFeature(UnregisteredFeature.class));
+    }
+
+    @Test
+    public void serializeAndDeserialize_valuesRetained() {
+        StateNode node = new StateNode(ElementPropertyMap.class,
+                ElementChildrenList.class);
+        ElementPropertyMap properties = node
+                .getFeature(ElementPropertyMap.class);
+        properties.setProperty("boolean", true);
+        properties.setProperty("integer", 42);
+        properties.setProperty("double", 4.2);
+        properties.setProperty("string", "foo");
+        properties.setProperty("null", null);
+        node.getFeature(ElementChildrenList.class).add(0,
+                new StateNode(ElementData.class));
+
+        StateNode copy = SerializationUtils.clone(node);
+
+        ElementPropertyMap copyProperties = copy
+                .getFeature(ElementPropertyMap.class);
+        Assert.assertEquals(Boolean.TRUE,
+                copyProperties.getProperty("boolean"));
+        Assert.assertEquals(42, copyProperties.getProperty("integer"));
+        Assert.assertEquals(4.2, copyProperties.getProperty("double"));
+        Assert.assertEquals("foo", copyProperties.getProperty("string"));
+        Assert.assertTrue(copyProperties.hasProperty("null"));
+        Assert.assertNull(copyProperties.getProperty("null"));
+
+        StateNode child = copy.getFeature(ElementChildrenList.class).get(0);
+        Assert.assertSame(copy, child.getParent());
+    }
+
+    @Test
+    public void serializeAndDeserialize_emptyFeaturesRecreated() {
+        StateNode node = new StateNode(ElementData.class,
+                ElementClassList.class);
+        node.getFeature(ElementData.class).setTag("div");
+
+        StateNode copy = SerializationUtils.clone(node);
+
+        ElementClassList classList = copy.getFeature(ElementClassList.class);
+        Assert.assertSame(copy, classList.getNode());
+        classList.getClassList().add("foo");
+        Assert.assertTrue(classList.getClassList().contains("foo"));
+    }
+
+    @Test
+    public void serializeAndDeserialize_featureReferencesShareInstance() {
+        StateNode node = new StateNode(ElementData.class,
+                ElementClassList.class, ElementAttributeMap.class);
+        node.getFeature(ElementAttributeMap.class).set("foo", "bar");
+
+        // Referenced before the node, both with and without state
+        ArrayList<Object> list = new ArrayList<>(Arrays.asList(
+                node.getFeature(ElementClassList.class),
+                node.getFeature(ElementAttributeMap.class), node));
+
+        ArrayList<Object> copy = SerializationUtils.clone(list);
+
+        StateNode copyNode = (StateNode) copy.get(2);
+        Assert.assertSame(copyNode.getFeature(ElementClassList.class),
+                copy.get(0));
+        Assert.assertSame(copyNode.getFeature(ElementAttributeMap.class),
+                copy.get(1));
+        Assert.assertEquals("bar",
+                copyNode.getFeature(ElementAttributeMap.class).get("foo"));
+    }
+
     @Test
     public void testAttachDetachChangeCollection() {
         StateNode node = createEmptyNode();
@@ -846,4 +935,25 @@ public class StateNodeTest {
 
         Assert.assertEquals(0, changes.size());
     }
+
+    private static class UnregisteredFeature extends NodeFeature {
+        private UnregisteredFeature(StateNode node) {
+            super(node);
+        }
+
+        @Override
+        public void collectChanges(Consumer<NodeChange> collector) {
+            // Never used
+        }
+
+        @Override
+        public void generateChangesFromEmpty() {
+            // Never used
+        }
+
+        @Override
+        public void forEachChild(Consumer<StateNode> action) {
+            // Never used
+        }
+    }
 }
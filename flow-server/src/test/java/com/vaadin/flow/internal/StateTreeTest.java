@@ -497,4 +497,74 @@ public class StateTreeTest {
         Mockito.verify(node2).updateActiveState();
     }
 
+    @Test
+    public void detachedNodeIdReusedAfterCollect_newIdNotUsedBefore() {
+        ElementChildrenList children = tree.getRootNode()
+                .getFeature(ElementChildrenList.class);
+        StateNode first = new StateNode(ElementChildrenList.class);
+        children.add(0, first);
+        int firstId = first.getId();
+
+        children.remove(0);
+
+        // Not reused before the detach has been collected
+        StateNode second = new StateNode(ElementChildrenList.class);
+        children.add(0, second);
+        Assert.assertNotEquals(firstId, second.getId());
+        Assert.assertNotEquals(firstId & 0xFFFFF, second.getId() & 0xFFFFF);
+
+        tree.collectChanges(change -> {
+            // nop
+        });
+
+        StateNode third = new StateNode(ElementChildrenList.class);
+        children.add(1, third);
+
+        // Same slot, but a different id
+        Assert.assertEquals(firstId & 0xFFFFF, third.getId() & 0xFFFFF);
+        Assert.assertNotEquals(firstId, third.getId());
+        Assert.assertNull(tree.getNodeById(firstId));
+        Assert.assertSame(third, tree.getNodeById(third.getId()));
+    }
+
+    @Test
+    public void reattachedNodeAfterIdReuse_getsNewId() {
+        ElementChildrenList children = tree.getRootNode()
+                .getFeature(ElementChildrenList.class);
+        StateNode first = new StateNode(ElementChildrenList.class);
+        children.add(0, first);
+        int firstId = first.getId();
+
+        children.remove(0);
+        tree.collectChanges(change -> {
+            // nop
+        });
+
+        StateNode second = new StateNode(ElementChildrenList.class);
+        children.add(0, second);
+        children.add(1, first);
+
+        Assert.assertNotEquals(firstId, first.getId());
+        Assert.assertNotEquals(second.getId(), first.getId());
+        Assert.assertSame(first, tree.getNodeById(first.getId()));
+        Assert.assertSame(second, tree.getNodeById(second.getId()));
+    }
+
+    @Test
+    public void detachAndAttachManyNodes_idsStayUnique() {
+        ElementChildrenList children = tree.getRootNode()
+                .getFeature(ElementChildrenList.class);
+        Set<Integer> ids = new HashSet<>();
+        for (int round = 0; round < 3000; round++) {
+            StateNode node = new StateNode(ElementChildrenList.class);
+            children.add(0, node);
+            Assert.assertTrue("Id was used before", ids.add(node.getId()));
+            Assert.assertTrue(node.getId() > 0);
+            children.remove(0);
+            tree.collectChanges(change -> {
+                // nop
+            });
+        }
+    }
+
 }
@@ -24,11 +24,15 @@ import org.junit.Test;
 
 import com.vaadin.flow.dom.DomEvent;
 import com.vaadin.flow.dom.DomEventListener;
+import com.vaadin.flow.dom.DomListenerRegistration;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.ConstantPoolKey;
 import com.vaadin.flow.internal.nodefeature.ElementListenerMap;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class ElementListenersTest
@@ -133,6 +137,123 @@ public class ElementListenersTest
         Assert.assertEquals("true", capturedJson.get("baz").toJson());
     }
 
+    @Test
+    public void filteredListener_onlyInvokedWhenFilterMatches() {
+        AtomicInteger plainCount = new AtomicInteger();
+        AtomicInteger filteredCount = new AtomicInteger();
+        ns.add("foo", e -> plainCount.incrementAndGet(), new String[0]);
+        ns.add("foo", e -> filteredCount.incrementAndGet(), new String[0])
+                .setFilter("event.key === 'Enter'");
+
+        JsonObject eventData = Json.createObject();
+        eventData.put("event.key === 'Enter'", false);
+        ns.fireEvent(new DomEvent(new Element("element"), "foo", eventData));
+
+        Assert.assertEquals(1, plainCount.get());
+        Assert.assertEquals(0, filteredCount.get());
+
+        eventData = Json.createObject();
+        eventData.put("event.key === 'Enter'", true);
+        ns.fireEvent(new DomEvent(new Element("element"), "foo", eventData));
+
+        Assert.assertEquals(2, plainCount.get());
+        Assert.assertEquals(1, filteredCount.get());
+    }
+
+    @Test
+    public void rateLimitedListener_onlyInvokedForRateLimitedEvents() {
+        AtomicInteger plainCount = new AtomicInteger();
+        AtomicInteger debouncedCount = new AtomicInteger();
+        ns.add("foo", e -> plainCount.incrementAndGet(), new String[0]);
+        ns.add("foo", e -> debouncedCount.incrementAndGet(), new String[0])
+                .debounce(200);
+
+        ns.fireEvent(createEvent("foo"));
+
+        Assert.assertEquals(1, plainCount.get());
+        Assert.assertEquals(0, debouncedCount.get());
+
+        AtomicReference<JsonObject> eventDataReference = new AtomicReference<>();
+        ns.add("foo", e -> eventDataReference.set(e.getEventData()),
+                new String[0]).debounce(200);
+
+        JsonObject eventData = Json.createObject();
+        eventData.put(JsonConstants.EVENT_DATA_LISTENER_GROUP,
+                createGroup(null, 200));
+        ns.fireEvent(new DomEvent(new Element("element"), "foo", eventData));
+
+        Assert.assertEquals(1, plainCount.get());
+        Assert.assertEquals(1, debouncedCount.get());
+        Assert.assertFalse(eventDataReference.get()
+                .hasKey(JsonConstants.EVENT_DATA_LISTENER_GROUP));
+    }
+
+    @Test
+    public void rateLimitedListeners_differentFilters_dispatchedByGroup() {
+        AtomicInteger xCount = new AtomicInteger();
+        AtomicInteger yCount = new AtomicInteger();
+        ns.add("foo", e -> xCount.incrementAndGet(), new String[0])
+                .setFilter("x").debounce(300);
+        ns.add("foo", e -> yCount.incrementAndGet(), new String[0])
+                .setFilter("y").debounce(300);
+
+        // The filter value is not checked again for rate limited events
+        JsonObject eventData = Json.createObject();
+        eventData.put(JsonConstants.EVENT_DATA_LISTENER_GROUP,
+                createGroup("x", 300));
+        ns.fireEvent(new DomEvent(new Element("element"), "foo", eventData));
+
+        Assert.assertEquals(1, xCount.get());
+        Assert.assertEquals(0, yCount.get());
+
+        eventData = Json.createObject();
+        eventData.put(JsonConstants.EVENT_DATA_LISTENER_GROUP,
+                createGroup("y", 300));
+        ns.fireEvent(new DomEvent(new Element("element"), "foo", eventData));
+
+        Assert.assertEquals(1, xCount.get());
+        Assert.assertEquals(1, yCount.get());
+    }
+
+    @Test
+    public void listenerSettings_includedInConstant() {
+        ns.add("foo", noOp, new String[] { "data" });
+        Assert.assertEquals("[\"data\"]", getConstant("foo"));
+
+        DomListenerRegistration registration = ns.add("foo", noOp,
+                new String[0]);
+        registration.setFilter("filter").throttle(100);
+        Assert.assertEquals("[\"data\",[null,0],[\"filter\",-100]]",
+                getConstant("foo"));
+
+        registration.debounce(50);
+        Assert.assertEquals("[\"data\",[null,0],[\"filter\",50]]",
+                getConstant("foo"));
+
+        registration.remove();
+        Assert.assertEquals("[\"data\"]", getConstant("foo"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDebounce_throws() {
+        ns.add("foo", noOp, new String[0]).debounce(-1);
+    }
+
+    private static JsonArray createGroup(String filter, int rateLimit) {
+        JsonArray group = Json.createArray();
+        group.set(0, filter == null ? Json.createNull() : Json.create(filter));
+        group.set(1, rateLimit);
+        return group;
+    }
+
+    private String getConstant(String eventType) {
+        ConstantPoolKey key = (ConstantPoolKey) ns.get(eventType);
+        JsonObject constants = Json.createObject();
+        key.export(constants);
+        JsonArray json = constants.getArray(key.getId());
+        return json.toJson();
+    }
+
     private Set<String> getExpressions(String name) {
         return ns.getExpressions(name);
     }
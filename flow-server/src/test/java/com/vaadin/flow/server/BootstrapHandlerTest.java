@@ -6,6 +6,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -22,6 +23,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.io.IOUtils;
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -1048,6 +1050,98 @@ public class BootstrapHandlerTest {
         Assert.assertEquals(bootstrapContext.getUriResolver(), resolver.get());
     }
 
+    @Test
+    public void productionMode_bootstrapHtml_sameAsBootstrapPage() {
+        deploymentConfiguration.setProductionMode(true);
+        initUI(testUI);
+        BootstrapHandler handler = new BootstrapHandler();
+
+        assertEquals(
+                BootstrapHandler.getBootstrapPage(
+                        createContext(Locale.ENGLISH, "Title")).outerHtml(),
+                handler.getBootstrapHtml(
+                        createContext(Locale.ENGLISH, "Title")));
+
+        // Rendered from the cached template
+        assertEquals(
+                BootstrapHandler.getBootstrapPage(createContext(Locale.FRENCH,
+                        "<script> & \"quotes\"")).outerHtml(),
+                handler.getBootstrapHtml(createContext(Locale.FRENCH,
+                        "<script> & \"quotes\"")));
+
+        assertEquals(
+                BootstrapHandler
+                        .getBootstrapPage(createContext(Locale.GERMAN, null))
+                        .outerHtml(),
+                handler.getBootstrapHtml(createContext(Locale.GERMAN, null)));
+    }
+
+    @Test
+    public void productionMode_bootstrapListener_bootstrapHtmlModified()
+            throws ServiceException {
+        deploymentConfiguration.setProductionMode(true);
+        Mockito.when(service.createInstantiator())
+                .thenReturn(new MockInstantiator(
+                        event -> event.addBootstrapListener(
+                                evt -> evt.getDocument().body()
+                                        .appendElement("div")
+                                        .attr("id", "modified"))));
+        initUI(testUI);
+        BootstrapHandler handler = new BootstrapHandler();
+
+        for (int i = 0; i < 2; i++) {
+            String html = handler
+                    .getBootstrapHtml(createContext(Locale.ENGLISH, "Title"));
+            assertTrue(html.contains("<div id=\"modified\"></div>"));
+        }
+    }
+
+    @Test
+    public void streamedBootstrapPage_headFlushedBeforeInitialUidl()
+            throws IOException {
+        initUI(testUI);
+        List<String> flushedContents = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushedContents.add(
+                        new String(toByteArray(), StandardCharsets.UTF_8));
+            }
+        };
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        new BootstrapHandler().writeStreamedBootstrapPage(response,
+                createContext(Locale.ENGLISH, "Title"));
+
+        String flushed = flushedContents.get(0);
+        assertTrue(flushed.contains("<title>Title</title>"));
+        assertTrue(flushed.contains("</head>"));
+        assertTrue(flushed.contains("foobar"));
+        assertFalse(flushed.contains("var uidl"));
+
+        String html = new String(out.toByteArray(),
+                StandardCharsets.UTF_8);
+        assertTrue(html.startsWith(flushed));
+        Document page = Jsoup.parse(html);
+        Elements scripts = page.body().getElementsByTag("script");
+        assertTrue(scripts.get(0).data().contains("var uidl"));
+        assertTrue(scripts.stream().anyMatch(
+                script -> "./frontend/eager.js".equals(script.attr("src"))));
+        assertEquals("noscript", page.body().child(0).tagName());
+    }
+
+    private BootstrapContext createContext(Locale locale, String title) {
+        TestUI ui = new TestUI();
+        ui.getInternals().setSession(session);
+        ui.doInit(request, 0);
+        ui.setLocale(locale);
+        if (title != null) {
+            ui.getPage().setTitle(title);
+        }
+        return new BootstrapContext(request, null, session, ui);
+    }
+
     @Test
     public void useDependencyFilters_removeDependenciesAndAddNewOnes()
             throws ServiceException {
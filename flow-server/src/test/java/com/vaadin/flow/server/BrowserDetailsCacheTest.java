@@ -0,0 +1,75 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.shared.BrowserDetails;
+
+public class BrowserDetailsCacheTest {
+
+    private static final String FIREFOX = "Mozilla/5.0 (X11; Linux x86_64; rv:57.0) Gecko/20100101 Firefox/57.0";
+
+    @After
+    public void clearCache() {
+        BrowserDetailsCache.clear();
+    }
+
+    @Test
+    public void sameAgent_parsedOnce() {
+        long misses = BrowserDetailsCache.getMissCount();
+        long hits = BrowserDetailsCache.getHitCount();
+
+        BrowserDetails details = BrowserDetailsCache.get(FIREFOX);
+        Assert.assertTrue(details.isFirefox());
+        Assert.assertEquals(57, details.getBrowserMajorVersion());
+
+        Assert.assertSame(details, BrowserDetailsCache.get(FIREFOX));
+        Assert.assertEquals(misses + 1, BrowserDetailsCache.getMissCount());
+        Assert.assertEquals(hits + 1, BrowserDetailsCache.getHitCount());
+    }
+
+    @Test
+    public void fullCache_cleared() {
+        for (int i = 0; i < BrowserDetailsCache.MAX_SIZE; i++) {
+            BrowserDetailsCache.get(FIREFOX + " " + i);
+        }
+        Assert.assertEquals(BrowserDetailsCache.MAX_SIZE,
+                BrowserDetailsCache.size());
+
+        BrowserDetailsCache.get(FIREFOX);
+        Assert.assertEquals(1, BrowserDetailsCache.size());
+    }
+
+    @Test
+    public void updateRequestDetails_sameAgent_detailsNotReplaced() {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getHeader("User-Agent")).thenReturn(FIREFOX);
+
+        WebBrowser browser = new WebBrowser();
+        browser.updateRequestDetails(request);
+        long lookups = BrowserDetailsCache.getHitCount()
+                + BrowserDetailsCache.getMissCount();
+
+        browser.updateRequestDetails(request);
+        Assert.assertEquals(lookups, BrowserDetailsCache.getHitCount()
+                + BrowserDetailsCache.getMissCount());
+        Assert.assertTrue(browser.isFirefox());
+    }
+}
@@ -69,5 +69,5 @@ public class MockVaadinSession extends VaadinSession {
 
     private int closeCount;
 
-    private ReentrantLock lock = new ReentrantLock();
+    private ReentrantLock lock = new SessionLock();
 }
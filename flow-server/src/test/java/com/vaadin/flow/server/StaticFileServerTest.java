@@ -139,6 +139,11 @@ public class StaticFileServerTest implements Serializable {
 
     @Before
     public void setUp() throws IOException {
+        configuration = Mockito.mock(DeploymentConfiguration.class);
+        Mockito.when(configuration.isProductionMode()).thenReturn(true);
+        Mockito.when(service.getDeploymentConfiguration())
+                .thenReturn(configuration);
+
         servletContext = Mockito.mock(ServletContext.class);
         fileServer = new OverrideableStaticFileServer(service);
         request = Mockito.mock(HttpServletRequest.class);
@@ -178,10 +183,6 @@ public class StaticFileServerTest implements Serializable {
         }).when(response).setContentLengthLong(Matchers.anyLong());
 
         Assert.assertNull(VaadinService.getCurrent());
-        configuration = Mockito.mock(DeploymentConfiguration.class);
-        Mockito.when(configuration.isProductionMode()).thenReturn(true);
-        Mockito.when(service.getDeploymentConfiguration())
-                .thenReturn(configuration);
     }
 
     @After
@@ -412,6 +413,41 @@ public class StaticFileServerTest implements Serializable {
         Assert.assertTrue(headers.get("Cache-Control").equals("no-cache"));
     }
 
+    @Test
+    public void writeCacheHeadersImmutableResource() {
+        fileServer.writeCacheHeaders("/folder/myfile.cache.js", response);
+        Assert.assertEquals("max-age=31536000, immutable",
+                headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/folder/bundle.3f9a1c0b.js", response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void writeCacheHeadersImmutablePattern() {
+        Mockito.when(configuration.getImmutableStaticResourcePattern())
+                .thenReturn("\\.[0-9a-f]{8}\\.js$");
+        fileServer = new OverrideableStaticFileServer(service);
+
+        fileServer.writeCacheHeaders("/folder/bundle.3f9a1c0b.js", response);
+        Assert.assertEquals("max-age=31536000, immutable",
+                headers.get("Cache-Control"));
+
+        fileServer.writeCacheHeaders("/folder/polyfill-20171201.js",
+                response);
+        Assert.assertEquals("max-age=3600", headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void isImmutable() {
+        Assert.assertTrue(fileServer.isImmutable("/a/b.cache.html"));
+        Assert.assertFalse(fileServer.isImmutable("/bundle.js"));
+        // Names that look like they contain a hash are not enough by default
+        Assert.assertFalse(fileServer.isImmutable("/bundle.3f9a1c0b.js"));
+        Assert.assertFalse(fileServer.isImmutable("/logo-deadbeef1.png"));
+        Assert.assertFalse(fileServer.isImmutable("/report-2018abcd.pdf"));
+    }
+
     @Test
     public void getCacheTime() {
         int oneYear = 60 * 60 * 24 * 365;
@@ -474,4 +510,35 @@ public class StaticFileServerTest implements Serializable {
                 responseCode.get());
     }
 
+    @Test
+    public void serveStaticResourceWithResourceCache_eTagMatches_notModified()
+            throws IOException {
+        Mockito.when(configuration.getStaticResourceCacheSize())
+                .thenReturn(1024L);
+        fileServer = new OverrideableStaticFileServer(service);
+
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletContext.getResource("/some/file.js")).thenReturn(
+                createFileURLWithDataAndLength("/some/file.js", fileData));
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(fileData, out.getOutput());
+        String eTag = headers.get("ETag");
+        Assert.assertNotNull(eTag);
+
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"other\", W/" + eTag);
+        out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                responseCode.get());
+        Assert.assertEquals(0, out.getOutput().length);
+        Assert.assertEquals(eTag, headers.get("ETag"));
+    }
 }
@@ -19,9 +19,16 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,7 +39,11 @@ import javax.servlet.http.HttpSessionBindingEvent;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.BootstrapListener;
 import com.vaadin.flow.server.ServiceException;
@@ -187,6 +198,246 @@ public class VaadinServiceTest {
                 "Original value", CurrentInstance.get(String.class));
     }
 
+    @Test
+    public void accessSession_whileLocked_tasksRunInOneDrain() {
+        VaadinService service = createService();
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        List<Integer> runOrder = new ArrayList<>();
+        session.lock();
+        for (int i = 0; i < 3; i++) {
+            int index = i;
+            service.accessSession(session, () -> runOrder.add(index));
+        }
+
+        AccessQueueMetrics metrics = session.getAccessQueueMetrics();
+        Assert.assertEquals(3, metrics.getQueueDepth());
+        Assert.assertEquals(0, metrics.getExecutedCount());
+
+        session.unlock();
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2), runOrder);
+        Assert.assertEquals(0, metrics.getQueueDepth());
+        Assert.assertEquals(3, metrics.getEnqueuedCount());
+        Assert.assertEquals(3, metrics.getExecutedCount());
+        Assert.assertEquals(1, metrics.getDrainCount());
+        Assert.assertTrue(metrics.getMaxWaitTime(
+                TimeUnit.NANOSECONDS) <= metrics.getTotalWaitTime(
+                        TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void accessSession_notLocked_taskRunImmediately() {
+        VaadinService service = createService();
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        AtomicInteger runCount = new AtomicInteger();
+        service.accessSession(session, runCount::incrementAndGet);
+        service.accessSession(session, runCount::incrementAndGet);
+
+        Assert.assertEquals(2, runCount.get());
+        Assert.assertEquals(2,
+                session.getAccessQueueMetrics().getDrainCount());
+    }
+
+    @Test
+    public void accessSession_executorSet_tasksRunByExecutor() {
+        VaadinService service = createService();
+        List<Runnable> executorTasks = new ArrayList<>();
+        service.setAccessQueueExecutor(executorTasks::add);
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        AtomicInteger runCount = new AtomicInteger();
+        service.accessSession(session, runCount::incrementAndGet);
+        service.accessSession(session, runCount::incrementAndGet);
+
+        Assert.assertEquals(0, runCount.get());
+        Assert.assertFalse(
+                ((ReentrantLock) session.getLockInstance()).isLocked());
+        Assert.assertEquals(1, executorTasks.size());
+
+        executorTasks.get(0).run();
+
+        Assert.assertEquals(2, runCount.get());
+    }
+
+    @Test
+    public void runPendingAccessTasks_failingTask_errorHandled() {
+        VaadinService service = createService();
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        List<Exception> errors = new ArrayList<>();
+        AtomicBoolean nextTaskRun = new AtomicBoolean();
+        session.lock();
+        service.accessSession(session, new ErrorHandlingCommand() {
+            @Override
+            public void execute() {
+                throw new IllegalStateException("Task failed");
+            }
+
+            @Override
+            public void handleError(Exception exception) {
+                errors.add(exception);
+            }
+        });
+        service.accessSession(session, () -> nextTaskRun.set(true));
+
+        service.runPendingAccessTasks(session);
+        session.unlock();
+
+        Assert.assertEquals(1, errors.size());
+        Assert.assertTrue(errors.get(0) instanceof ExecutionException);
+        Assert.assertTrue(
+                errors.get(0).getCause() instanceof IllegalStateException);
+        Assert.assertTrue(nextTaskRun.get());
+    }
+
+    @Test
+    public void runPendingAccessTasks_timeSliceUsed_remainingTasksQueued() {
+        VaadinService service = createService();
+
+        DeploymentConfiguration configuration = Mockito
+                .mock(DeploymentConfiguration.class);
+        Mockito.when(configuration.getAccessQueueTimeSlice()).thenReturn(1);
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        AtomicInteger runCount = new AtomicInteger();
+        session.lock();
+        session.setConfiguration(configuration);
+        for (int i = 0; i < 3; i++) {
+            service.accessSession(session, () -> {
+                runCount.incrementAndGet();
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        service.runPendingAccessTasks(session);
+        Assert.assertEquals(1, runCount.get());
+        Assert.assertEquals(2,
+                session.getAccessQueueMetrics().getQueueDepth());
+
+        // Remaining tasks are run after the lock has been released
+        session.unlock();
+        Assert.assertEquals(3, runCount.get());
+        Assert.assertEquals(0,
+                session.getAccessQueueMetrics().getQueueDepth());
+    }
+
+    @Test
+    public void accessSession_manyTimeSlices_purgedIteratively()
+            throws InterruptedException {
+        VaadinService service = createService();
+
+        DeploymentConfiguration configuration = Mockito
+                .mock(DeploymentConfiguration.class);
+        Mockito.when(configuration.getAccessQueueTimeSlice()).thenReturn(1);
+
+        MockVaadinSession session = new MockVaadinSession(service);
+        session.lock();
+        session.setConfiguration(configuration);
+        ReentrantLock lock = (ReentrantLock) session.getLockInstance();
+
+        int taskCount = 50;
+        AtomicInteger runCount = new AtomicInteger();
+        AtomicInteger minDepth = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicInteger maxDepth = new AtomicInteger();
+        AtomicInteger runCountWhenLocked = new AtomicInteger(-1);
+        Thread waiter = new Thread(() -> {
+            session.lock();
+            runCountWhenLocked.set(runCount.get());
+            session.unlock();
+        });
+
+        for (int i = 0; i < taskCount; i++) {
+            service.accessSession(session, () -> {
+                if (runCount.incrementAndGet() == taskCount / 2) {
+                    waiter.start();
+                    while (!lock.hasQueuedThreads()) {
+                        Thread.yield();
+                    }
+                }
+                if (Thread.currentThread() != waiter) {
+                    int depth = Thread.currentThread().getStackTrace().length;
+                    minDepth.accumulateAndGet(depth, Math::min);
+                    maxDepth.accumulateAndGet(depth, Math::max);
+                }
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        session.unlock();
+        waiter.join();
+
+        Assert.assertEquals(taskCount, runCount.get());
+        Assert.assertEquals(0,
+                session.getAccessQueueMetrics().getQueueDepth());
+        // The stack does not grow with each time slice
+        Assert.assertTrue(maxDepth.get() - minDepth.get() < 20);
+        // The waiting thread gets the lock before all tasks have been run
+        Assert.assertTrue(runCountWhenLocked.get() >= taskCount / 2);
+        Assert.assertTrue(runCountWhenLocked.get() < taskCount);
+    }
+
+    @Test
+    public void cleanupSession_idleUI_passivatedInstanceDetached() {
+        Properties initParameters = new Properties();
+        initParameters.setProperty(Constants.UI_PASSIVATION_TIMEOUT, "1");
+        VaadinService service = createService(initParameters);
+
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession.getId()).thenReturn("session");
+        MockVaadinSession session = new MockVaadinSession(service) {
+            @Override
+            public WrappedSession getSession() {
+                return wrappedSession;
+            }
+        };
+
+        session.lock();
+        try {
+            UI ui = new UI();
+            ui.getInternals().setSession(session);
+            ui.doInit(Mockito.mock(VaadinRequest.class),
+                    session.getNextUIid());
+            session.addUI(ui);
+            int uiId = ui.getUIId();
+            AtomicInteger detachCount = new AtomicInteger();
+            ui.addDetachListener(event -> detachCount.incrementAndGet());
+
+            // No pending changes
+            ui.getInternals().getStateTree().collectChanges(change -> {
+            });
+            long now = System.currentTimeMillis();
+            ui.getInternals().setLastHeartbeatTimestamp(now);
+            ui.getInternals().setLastRequestTimestamp(now - 2000);
+
+            service.cleanupSession(session);
+
+            Assert.assertFalse(session.getUIs().contains(ui));
+            Assert.assertNull(ui.getSession());
+            Assert.assertEquals(1, detachCount.get());
+            try {
+                ui.access(() -> Assert.fail("Task should not be run"));
+                Assert.fail("Passivated instance should be detached");
+            } catch (UIDetachedException expected) {
+                // Expected
+            }
+
+            UI activated = session.getUIById(uiId);
+            Assert.assertNotSame(ui, activated);
+            Assert.assertSame(session, activated.getSession());
+        } finally {
+            session.unlock();
+        }
+    }
+
     @Test
     public void testBootstrapListenersCreation() throws ServiceException {
         // in this test the actual behavior of the listeners is not evaluated.
@@ -227,7 +478,11 @@ public class VaadinServiceTest {
     }
 
     private static VaadinService createService() {
-        ServletConfig servletConfig = new MockServletConfig();
+        return createService(new Properties());
+    }
+
+    private static VaadinService createService(Properties initParameters) {
+        ServletConfig servletConfig = new MockServletConfig(initParameters);
         VaadinServlet servlet = new VaadinServlet();
         try {
             servlet.init(servletConfig);
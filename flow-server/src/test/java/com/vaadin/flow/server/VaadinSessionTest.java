@@ -23,10 +23,13 @@ import java.io.ObjectOutputStream;
 import java.util.EventObject;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.http.HttpServletRequest;
@@ -34,11 +37,14 @@ import javax.servlet.http.HttpSession;
 import javax.servlet.http.HttpSessionBindingEvent;
 
 import org.easymock.EasyMock;
+import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.CurrentInstance;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
@@ -320,4 +326,246 @@ public class VaadinSessionTest {
                 deserializedSession, deserializedPc.session);
         deserializedSession.unlock();
     }
+
+    @Test
+    public void readAccess_notLocked_readerRunWithoutLock() {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+
+        String result = readSession.readAccess(() -> {
+            Assert.assertFalse(readSession.hasLock());
+            Assert.assertTrue(readSession.hasReadAccess());
+            Assert.assertTrue(readSession.isReadOnlyAccess());
+            return "result";
+        });
+
+        Assert.assertEquals("result", result);
+        Assert.assertFalse(readSession.hasReadAccess());
+        Assert.assertFalse(readSession.isReadOnlyAccess());
+    }
+
+    @Test
+    public void readAccess_lockedWhileReading_readerRunAgainWithReadLock()
+            throws InterruptedException {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        AtomicInteger runCount = new AtomicInteger();
+
+        boolean lockedOnLastRun = readSession.readAccess(() -> {
+            if (runCount.incrementAndGet() == 1) {
+                Thread writer = new Thread(() -> {
+                    readSession.lock();
+                    readSession.unlock();
+                });
+                writer.start();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            Assert.assertTrue(readSession.isReadOnlyAccess());
+            return readSession.hasLock();
+        });
+
+        Assert.assertEquals(2, runCount.get());
+        Assert.assertFalse(lockedOnLastRun);
+        Assert.assertFalse(readSession.hasLock());
+    }
+
+    @Test
+    public void readAccess_lockedByOtherThread_readerWaitsWithoutLocking()
+            throws InterruptedException {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            readSession.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                readSession.unlock();
+            }
+        });
+        writer.start();
+        locked.await();
+
+        AtomicBoolean readerLocked = new AtomicBoolean(true);
+        AtomicInteger runCount = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            readerLocked.set(readSession.readAccess(() -> {
+                runCount.incrementAndGet();
+                return readSession.hasLock();
+            }));
+            done.countDown();
+        });
+        reader.start();
+
+        Assert.assertFalse("Reader should wait for the lock to be released",
+                done.await(200, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, runCount.get());
+
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        writer.join();
+        reader.join();
+
+        Assert.assertEquals(1, runCount.get());
+        Assert.assertFalse(readerLocked.get());
+    }
+
+    @Test
+    public void readAccess_readerHoldsReadLock_lockWaitsForReader()
+            throws InterruptedException {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        StampedLock readWriteLock = ((SessionLock) readSession
+                .getLockInstance()).getReadWriteLock();
+        long stamp = readWriteLock.readLock();
+
+        CountDownLatch done = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            readSession.lock();
+            readSession.unlock();
+            done.countDown();
+        });
+        writer.start();
+
+        Assert.assertFalse("Lock should wait for the reader",
+                done.await(200, TimeUnit.MILLISECONDS));
+        readWriteLock.unlockRead(stamp);
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        writer.join();
+    }
+
+    @Test
+    public void readAccess_readerHoldsReadLock_tryLockFails()
+            throws InterruptedException {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        SessionLock lock = (SessionLock) readSession.getLockInstance();
+        long stamp = lock.getReadWriteLock().readLock();
+        try {
+            Assert.assertFalse(lock.tryLock());
+            Assert.assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(lock.isLocked());
+        } finally {
+            lock.getReadWriteLock().unlockRead(stamp);
+        }
+
+        Assert.assertTrue(lock.tryLock());
+        lock.unlock();
+        Assert.assertFalse(lock.isLocked());
+    }
+
+    @Test
+    public void readAccess_accessFromReader_taskRunAfterReading() {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        AtomicInteger runCount = new AtomicInteger();
+        AtomicBoolean locked = new AtomicBoolean();
+        SessionLock lock = (SessionLock) readSession.getLockInstance();
+
+        // Take the read lock by having a writer invalidate the first run
+        readSession.readAccess(() -> {
+            if (!locked.getAndSet(true)) {
+                Thread writer = new Thread(() -> {
+                    readSession.lock();
+                    readSession.unlock();
+                });
+                writer.start();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            } else {
+                readSession.access(runCount::incrementAndGet);
+                Assert.assertEquals(0, runCount.get());
+            }
+            return null;
+        });
+
+        Assert.assertEquals(1, runCount.get());
+        Assert.assertFalse(lock.isLocked());
+    }
+
+    @Test
+    public void readAccess_modifyStateTree_throws() {
+        MockVaadinSession readSession = new MockVaadinSession(mockService);
+        UI readUi = new UI();
+        readUi.getInternals().setSession(readSession);
+
+        try {
+            readSession.readAccess(() -> {
+                readUi.getElement().setProperty("foo", "bar");
+                return null;
+            });
+            Assert.fail("Modifying the state tree should not be allowed");
+        } catch (AssertionError expected) {
+            Assert.assertThat(expected.getMessage(),
+                    CoreMatchers.containsString("readAccess"));
+        }
+    }
+
+    @Test
+    public void passivateUI_getUIById_uiActivated() {
+        session.lock();
+        try {
+            ui.getElement().setProperty("foo", "bar");
+            int uiId = ui.getUIId();
+
+            Assert.assertTrue(session.passivateUI(ui));
+            Assert.assertFalse(session.getUIs().contains(ui));
+
+            UI activated = session.getUIById(uiId);
+            Assert.assertNotSame(ui, activated);
+            Assert.assertSame(session, activated.getSession());
+            Assert.assertEquals("bar",
+                    activated.getElement().getProperty("foo"));
+            Assert.assertTrue(session.getUIs().contains(activated));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void passivatedUI_setLastHeartbeatTimestamp_uiNotActivated() {
+        session.lock();
+        try {
+            int uiId = ui.getUIId();
+            session.passivateUI(ui);
+
+            Assert.assertTrue(session.setLastHeartbeatTimestamp(uiId, 42));
+            Assert.assertTrue(session.getUIs().isEmpty());
+            Assert.assertFalse(session.setLastHeartbeatTimestamp(uiId + 1, 42));
+
+            Assert.assertEquals(42, session.getUIById(uiId).getInternals()
+                    .getLastHeartbeatTimestamp());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void passivatedUI_activationFails_uiRemoved() {
+        session.lock();
+        try {
+            int uiId = ui.getUIId();
+            ui.add(new FailingActivationComponent());
+            Assert.assertTrue(session.passivateUI(ui));
+
+            Assert.assertNull(session.getUIById(uiId));
+            Assert.assertTrue(session.getUIs().isEmpty());
+            Assert.assertFalse(session.setLastHeartbeatTimestamp(uiId, 42));
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Tag("div")
+    private static class FailingActivationComponent extends Component {
+        private void readObject(ObjectInputStream in) {
+            throw new IllegalStateException("Cannot be deserialized");
+        }
+    }
 }
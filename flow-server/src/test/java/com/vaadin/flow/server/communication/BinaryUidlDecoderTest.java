@@ -0,0 +1,158 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonException;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+public class BinaryUidlDecoderTest {
+
+    @Test
+    public void decode_encodedValue_producesEqualJson() {
+        JsonObject json = Json.parse("{\"csrfToken\":\"token\","
+                + "\"clientId\":3,\"rpc\":[{\"type\":\"event\",\"node\":12,"
+                + "\"event\":\"click\",\"data\":{\"event.shiftKey\":false,"
+                + "\"x\":-1.5e-3}},{\"type\":\"mSync\",\"node\":12,"
+                + "\"property\":\"value\",\"value\":\"héllo € 😀\"},"
+                + "{\"type\":\"event\",\"node\":-2147483648,"
+                + "\"event\":\"click\",\"data\":{\"n\":null,\"b\":true,"
+                + "\"big\":4294967296,\"arr\":[[],{}],\"s\":\"\"}}]}");
+
+        JsonValue decoded = BinaryUidlDecoder
+                .decode(BinaryUidlEncoder.encode(json));
+
+        Assert.assertTrue(decoded.toJson(),
+                JsonUtils.jsonEquals(json, decoded));
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_jsonMessage_throws() {
+        BinaryUidlDecoder.decode("{}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_unsupportedVersion_throws() {
+        BinaryUidlDecoder.decode(new byte[] { (byte) BinaryUidlConstants.MAGIC,
+                BinaryUidlConstants.VERSION + 1,
+                BinaryUidlConstants.TAG_NULL });
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_truncatedMessage_throws() {
+        JsonArray json = Json.createArray();
+        json.set(0, "abc");
+        json.set(1, 1.5);
+        byte[] encoded = BinaryUidlEncoder.encode(json);
+
+        BinaryUidlDecoder.decode(Arrays.copyOf(encoded, encoded.length - 1));
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_trailingData_throws() {
+        byte[] encoded = BinaryUidlEncoder.encode(Json.create(1));
+
+        BinaryUidlDecoder.decode(Arrays.copyOf(encoded, encoded.length + 1));
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_unknownStringReference_throws() {
+        BinaryUidlDecoder.decode(new byte[] { (byte) BinaryUidlConstants.MAGIC,
+                BinaryUidlConstants.VERSION,
+                BinaryUidlConstants.TAG_STRING_REF, 0 });
+    }
+
+    @Test(expected = JsonException.class)
+    public void decode_lengthLargerThanMessage_throws() {
+        // An array of 2^28 items, which would take a long time to fill
+        BinaryUidlDecoder.decode(new byte[] { (byte) BinaryUidlConstants.MAGIC,
+                BinaryUidlConstants.VERSION, BinaryUidlConstants.TAG_ARRAY,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 });
+    }
+
+    @Test
+    public void handleBinaryRpc_binaryMessage_invocationsHandled()
+            throws IOException, InvalidUIDLSecurityKeyException {
+        UI ui = mockUI();
+
+        JsonObject message = Json.createObject();
+        message.put(ApplicationConstants.CLIENT_TO_SERVER_ID, 0);
+        message.put(ApplicationConstants.RPC_INVOCATIONS, Json.createArray());
+
+        new ServerRpcHandler().handleBinaryRpc(ui,
+                new ByteArrayInputStream(BinaryUidlEncoder.encode(message)),
+                mockRequest(ui));
+
+        Mockito.verify(ui.getInternals()).setLastProcessedClientToServerId(0);
+    }
+
+    @Test
+    public void handleBinaryRpc_emptyMessage_ignored()
+            throws IOException, InvalidUIDLSecurityKeyException {
+        UI ui = mockUI();
+
+        new ServerRpcHandler().handleBinaryRpc(ui,
+                new ByteArrayInputStream(new byte[0]), mockRequest(ui));
+
+        Mockito.verify(ui.getInternals(), Mockito.never())
+                .setLastProcessedClientToServerId(Mockito.anyInt());
+    }
+
+    private static UI mockUI() {
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getDeploymentConfiguration())
+                .thenReturn(Mockito.mock(DeploymentConfiguration.class));
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        Mockito.when(session.getService()).thenReturn(service);
+
+        UI ui = Mockito.mock(UI.class);
+        UIInternals internals = Mockito.mock(UIInternals.class);
+        Mockito.when(internals.getLastProcessedClientToServerId())
+                .thenReturn(-1);
+        Mockito.when(ui.getInternals()).thenReturn(internals);
+        Mockito.when(ui.getSession()).thenReturn(session);
+        return ui;
+    }
+
+    private static VaadinRequest mockRequest(UI ui) {
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        VaadinService service = ui.getSession().getService();
+        Mockito.when(request.getService()).thenReturn(service);
+        return request;
+    }
+}
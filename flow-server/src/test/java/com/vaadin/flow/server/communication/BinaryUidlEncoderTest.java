@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.JsonUtils;
+import com.vaadin.flow.shared.communication.BinaryUidlConstants;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+public class BinaryUidlEncoderTest {
+
+    @Test
+    public void encode_decode_producesEqualJson() throws IOException {
+        JsonObject json = Json.parse("{\"syncId\":5,\"changes\":["
+                + "{\"node\":1,\"type\":\"put\",\"key\":\"tag\",\"feat\":2,\"value\":\"div\"},"
+                + "{\"node\":300000,\"type\":\"put\",\"key\":\"x\",\"value\":-2147483648},"
+                + "{\"node\":2147483647,\"value\":1.5e300},"
+                + "{\"n\":-0.25,\"s\":\"héllo € 😀\",\"b\":true,"
+                + "\"f\":false,\"z\":null,\"e\":\"\",\"big\":4294967296,"
+                + "\"arr\":[],\"obj\":{}}],\"meta\":{\"async\":true}}");
+
+        byte[] encoded = BinaryUidlEncoder.encode(json);
+        JsonValue decoded = BinaryUidlDecoder.decode(encoded);
+
+        Assert.assertTrue(decoded.toJson(),
+                JsonUtils.jsonEquals(json, decoded));
+    }
+
+    @Test
+    public void encode_repeatedStrings_writtenOnce() {
+        JsonArray changes = Json.createArray();
+        for (int i = 0; i < 100; i++) {
+            JsonObject change = Json.createObject();
+            change.put("node", i);
+            change.put("type", "put");
+            change.put("key", "someLongPropertyName");
+            change.put("value", "someLongPropertyValue");
+            changes.set(i, change);
+        }
+
+        byte[] encoded = BinaryUidlEncoder.encode(changes);
+
+        Assert.assertEquals(1, countOccurrences(encoded,
+                "someLongPropertyName".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertTrue(encoded.length < changes.toJson().length() / 4);
+    }
+
+    @Test
+    public void encode_smallNumbers_useVarInts() {
+        byte[] encoded = BinaryUidlEncoder.encode(Json.create(-1));
+
+        Assert.assertArrayEquals(new byte[] { (byte) BinaryUidlConstants.MAGIC,
+                BinaryUidlConstants.VERSION, BinaryUidlConstants.TAG_INT, 1 },
+                encoded);
+    }
+
+    @Test
+    public void encode_negativeZero_keptAsDouble() throws IOException {
+        byte[] encoded = BinaryUidlEncoder.encode(Json.create(-0.0));
+
+        Assert.assertEquals(BinaryUidlConstants.TAG_DOUBLE, encoded[2]);
+        double decoded = BinaryUidlDecoder.decode(encoded).asNumber();
+        Assert.assertEquals(Double.doubleToRawLongBits(-0.0),
+                Double.doubleToRawLongBits(decoded));
+    }
+
+    @Test
+    public void objectEncoder_entriesAndArrayItems_decodedAsObject()
+            throws IOException {
+        JsonObject change = Json.createObject();
+        change.put("node", 1);
+        change.put("key", "repeated");
+
+        BinaryUidlEncoder.ObjectEncoder encoder = new BinaryUidlEncoder.ObjectEncoder();
+        encoder.put("syncId", Json.create(3));
+        encoder.addArrayItem("changes", change);
+        encoder.addArrayItem("changes", Json.create("repeated"));
+        encoder.put("constants", Json.createObject());
+
+        JsonValue decoded = BinaryUidlDecoder.decode(encoder.toByteArray());
+
+        JsonValue expected = Json.parse("{\"syncId\":3,"
+                + "\"changes\":[{\"node\":1,\"key\":\"repeated\"},"
+                + "\"repeated\"],\"constants\":{}}");
+        Assert.assertTrue(decoded.toJson(),
+                JsonUtils.jsonEquals(expected, decoded));
+    }
+
+    @Test
+    public void objectEncoder_noEntries_emptyObject() throws IOException {
+        byte[] encoded = new BinaryUidlEncoder.ObjectEncoder().toByteArray();
+
+        Assert.assertEquals("{}", BinaryUidlDecoder.decode(encoded).toJson());
+    }
+
+    private static int countOccurrences(byte[] data, byte[] pattern) {
+        int count = 0;
+        outer: for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+}
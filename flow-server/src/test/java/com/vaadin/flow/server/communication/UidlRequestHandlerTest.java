@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2017 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.shared.JsonConstants;
+
+import elemental.json.JsonException;
+
+public class UidlRequestHandlerTest {
+
+    @Test
+    public void isGzipAccepted() {
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted(null));
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted(""));
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted("identity"));
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted("gzip;q=0"));
+        Assert.assertFalse(
+                UidlRequestHandler.isGzipAccepted("br, gzip ; q=0.0"));
+
+        Assert.assertTrue(UidlRequestHandler.isGzipAccepted("gzip"));
+        Assert.assertTrue(
+                UidlRequestHandler.isGzipAccepted("gzip, deflate, br"));
+        Assert.assertTrue(UidlRequestHandler.isGzipAccepted("br,GZIP;q=0.5"));
+        Assert.assertTrue(UidlRequestHandler.isGzipAccepted("*"));
+    }
+
+    @Test
+    public void isGzipAccepted_gzipAndWildcard_gzipEntryWins() {
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted("*, gzip;q=0"));
+        Assert.assertTrue(UidlRequestHandler.isGzipAccepted("*;q=0, gzip"));
+        Assert.assertFalse(UidlRequestHandler.isGzipAccepted("*;q=0"));
+        Assert.assertTrue(
+                UidlRequestHandler.isGzipAccepted("br;q=0, *;q=0.1"));
+    }
+
+    @Test
+    public void isGzipAccepted_qualityAfterOtherParameters() {
+        Assert.assertFalse(
+                UidlRequestHandler.isGzipAccepted("gzip;level=1;q=0"));
+        Assert.assertTrue(
+                UidlRequestHandler.isGzipAccepted("gzip;level=1;Q=0.8"));
+    }
+
+    @Test
+    public void commitResponse_largeMessage_compressed() throws IOException {
+        StringBuilder json = new StringBuilder("for(;;);[{\"changes\":[");
+        for (int i = 0; i < 100; i++) {
+            json.append("{\"node\":").append(i)
+                    .append(",\"type\":\"put\",\"key\":\"value\"},");
+        }
+        json.append("{}]}]");
+        byte[] message = json.toString().getBytes(StandardCharsets.UTF_8);
+
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        UidlRequestHandler.commitResponse(response,
+                JsonConstants.JSON_CONTENT_TYPE, message, true);
+
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Mockito.verify(response).setContentLength(out.size());
+        Assert.assertTrue(out.size() < message.length);
+        Assert.assertArrayEquals(message, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void commitResponse_smallMessage_notCompressed()
+            throws IOException {
+        byte[] message = "for(;;);[{}]".getBytes(StandardCharsets.UTF_8);
+
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        UidlRequestHandler.commitResponse(response,
+                JsonConstants.JSON_CONTENT_TYPE, message, true);
+
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+        Assert.assertArrayEquals(message, out.toByteArray());
+    }
+
+    @Test
+    public void streamJsonResponse_encodingFails_nothingWritten()
+            throws IOException {
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+
+        try {
+            UidlRequestHandler.streamJsonResponse(response, true, writer -> {
+                writer.write("for(;;);[{");
+                throw new JsonException("Cannot encode");
+            });
+            Assert.fail("Expected the exception to be thrown as is");
+        } catch (JsonException e) {
+            // Expected
+        }
+
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Content-Encoding"), Mockito.anyString());
+    }
+
+    @Test
+    public void streamJsonResponse_compressed() throws IOException {
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        UidlRequestHandler.streamJsonResponse(response, true,
+                writer -> writer.write("for(;;);[{}]"));
+
+        Mockito.verify(response)
+                .setContentType(JsonConstants.JSON_CONTENT_TYPE);
+        Mockito.verify(response).setHeader("Content-Encoding", "gzip");
+        Assert.assertEquals("for(;;);[{}]", new String(
+                gunzip(out.toByteArray()), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(data))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                result.write(buffer, 0, read);
+            }
+        }
+        return result.toByteArray();
+    }
+}
@@ -18,6 +18,8 @@ package com.vaadin.flow.server.communication;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -235,6 +237,56 @@ public class UidlWriterTest {
         assertFalse(response.hasKey(LoadMode.LAZY.name()));
     }
 
+    @Test
+    public void writeUidl_producesSameJsonAsCreateUidl() throws IOException {
+        UI treeUi = initializeUIForDependenciesTest(new TestUI());
+        treeUi.add(new ActualComponent(),
+                new ComponentWithAllDependencyTypes());
+        JsonObject expected = new UidlWriter().createUidl(treeUi, false);
+
+        UI streamedUi = initializeUIForDependenciesTest(new TestUI());
+        streamedUi.add(new ActualComponent(),
+                new ComponentWithAllDependencyTypes());
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(streamedUi, false, writer);
+        JsonObject streamed = Json.parse(writer.toString());
+
+        assertTrue(expected.hasKey("changes"));
+        assertTrue(JsonUtils.jsonEquals(expected, streamed));
+    }
+
+    @Test
+    public void createBinaryUidl_decodesToSameJsonAsCreateUidl()
+            throws IOException {
+        UI treeUi = initializeUIForDependenciesTest(new TestUI());
+        treeUi.add(new ActualComponent(),
+                new ComponentWithAllDependencyTypes());
+        JsonObject expected = new UidlWriter().createUidl(treeUi, false);
+
+        UI binaryUi = initializeUIForDependenciesTest(new TestUI());
+        binaryUi.add(new ActualComponent(),
+                new ComponentWithAllDependencyTypes());
+        byte[] binary = new UidlWriter().createBinaryUidl(binaryUi, false);
+        JsonValue decoded = BinaryUidlDecoder.decode(binary);
+
+        assertTrue(expected.hasKey("changes"));
+        assertTrue(JsonUtils.jsonEquals(expected, decoded));
+    }
+
+    @Test
+    public void writeUidl_noChanges_changesKeyOmitted() throws IOException {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        uidlWriter.createUidl(ui, false);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, writer);
+        JsonObject response = Json.parse(writer.toString());
+
+        assertFalse(response.hasKey("changes"));
+        assertTrue(response.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+    }
+
     @Test
     public void testComponentInterfaceDependencies() {
         UI ui = initializeUIForDependenciesTest(new TestUI());